@@ -0,0 +1,92 @@
+package ru.portal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.lang.NonNull;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.portal.entities.Role;
+import ru.portal.entities.Status;
+import ru.portal.entities.User;
+import ru.portal.security.codec.HmacTokenCodec;
+import ru.portal.security.services.TokenRevocationService;
+import ru.portal.security.services.TokenService;
+import ru.portal.security.services.impl.TokenRevocationServiceImpl;
+import ru.portal.security.services.impl.TokenServiceImpl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+/**
+ * Общие объекты для бенчмарков, собранные без контекста Spring
+ * с настройками из security.properties.
+ *
+ * @author Федорышин К.В.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String KEY = "There_must_be_a_huge_secret_word_here_but_I_can't_think_of_it.";
+    public static final String BEARER = "Bearer_";
+    public static final String HEADER = "Authorization";
+
+    private BenchmarkFixtures() {
+
+    }
+
+    /**
+     * Создает сервис токенов доступа.
+     *
+     * @param verifiedCacheSize размер кэша проверенных токенов, 0 отключает кэш.
+     * @param stateless         добавлять ли в токен утверждения пользователя.
+     * @return сервис токенов доступа.
+     */
+    public static TokenService tokenService(@NonNull String verifiedCacheSize, boolean stateless) {
+        var environment = new MockEnvironment()
+                .withProperty("security.token.key", KEY)
+                .withProperty("security.token.verifiedCacheSize", verifiedCacheSize);
+        var service = new TokenServiceImpl(environment, new SimpleMeterRegistry(),
+                new HmacTokenCodec(environment));
+        ReflectionTestUtils.setField(service, "validTime", 3600L);
+        ReflectionTestUtils.setField(service, "bearer", BEARER);
+        ReflectionTestUtils.setField(service, "headerToken", HEADER);
+        ReflectionTestUtils.setField(service, "stateless", stateless);
+        return service;
+    }
+
+    /**
+     * Создает сервис отзыва токенов со снимком во временном файле.
+     *
+     * @return сервис отзыва токенов.
+     */
+    public static TokenRevocationService revocationService() {
+        try {
+            var snapshot = Files.createTempFile("revoked-tokens", ".bin");
+            snapshot.toFile().deleteOnExit();
+            var environment = new MockEnvironment()
+                    .withProperty("security.token.revocation.snapshotFile", snapshot.toString())
+                    .withProperty("security.token.revocation.snapshotSizeInBytes", "4194304")
+                    .withProperty("security.token.revocation.bucketInSecond", "900")
+                    .withProperty("security.token.revocation.expectedInsertions", "10000")
+                    .withProperty("security.token.revocation.falsePositiveRate", "0.01");
+            return new TokenRevocationServiceImpl(environment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Создает активного пользователя.
+     *
+     * @return пользователь.
+     */
+    public static User user() {
+        return User.builder()
+                .id(1L)
+                .username("Sparus")
+                .email("rf1991@mail.ru")
+                .password("$2a$10$vBZdWDS/FhmgVahinPwunuMpgz6Jh7M1C183HV8UTg92k3B0YcjJW")
+                .role(Role.USER)
+                .status(Status.ACTIVE)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package ru.portal.configuration;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+import ru.portal.EntertainmentPortalApiApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузка на запущенное приложение в обычном режиме и в профиле
+ * {@value VirtualThreadConfig#PROFILE}. Приложение поднимается на случайном порту
+ * с базой H2 в памяти. {@code checkUsername} отправляет в Tomcat пачку из
+ * {@code requests} одновременных запросов {@code /checkname}, индекс имен
+ * отключен, поэтому каждый запрос обращается к БД. {@code asyncTasks} отправляет
+ * пачку блокирующих задач в бин {@code taskExecutor}, который {@code @EnableAsync}
+ * использует для методов {@code @Async}. Режим {@code virtual} запускается
+ * только с {@code -PvirtualThreads}.
+ *
+ * @author Федорышин К.В.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ApplicationLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    String mode;
+
+    @Param({"200", "1000"})
+    int requests;
+
+    @Param({"10"})
+    long blockingInMs;
+
+    ConfigurableApplicationContext context;
+    AsyncTaskExecutor taskExecutor;
+    HttpClient client;
+    HttpRequest request;
+
+    @Setup
+    public void setup() {
+        var builder = new SpringApplicationBuilder(EntertainmentPortalApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;INIT=CREATE SCHEMA IF NOT EXISTS portal_schema",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.database=h2",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate=WARN",
+                        "logging.level.ru.portal=WARN",
+                        "security.hashing.calibration.enabled=false",
+                        "security.rateLimit.enabled=false",
+                        "security.identityIndex.enabled=false",
+                        "security.token.revocation.snapshotFile=build/revoked-tokens-benchmark.bin");
+        if ("virtual".equals(mode)) {
+            builder.profiles(VirtualThreadConfig.PROFILE);
+        }
+        context = builder.run();
+        taskExecutor = context.getBean("taskExecutor", AsyncTaskExecutor.class);
+
+        var port = context.getEnvironment().getRequiredProperty("local.server.port");
+        var contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + contextPath
+                        + "/checkname?username=Sparus"))
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int checkUsername() {
+        var futures = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Статус ответа " + response.statusCode());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(futures).join();
+        return futures.length;
+    }
+
+    @Benchmark
+    public void asyncTasks() {
+        var futures = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            futures[i] = CompletableFuture.runAsync(this::block, taskExecutor);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private void block() {
+        try {
+            Thread.sleep(blockingInMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
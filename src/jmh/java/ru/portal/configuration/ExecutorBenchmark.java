@@ -0,0 +1,67 @@
+package ru.portal.configuration;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает обработку блокирующих задач пулом обычных потоков размера Tomcat
+ * по умолчанию (200) и виртуальными потоками профиля {@value VirtualThreadConfig#PROFILE}.
+ * Каждая задача ждет {@code blockingInMs}, как запрос к БД или почтовому серверу,
+ * одна операция - пачка из {@code requests} задач. Режим {@code virtual}
+ * запускается только с {@code -PvirtualThreads}, без него сборка передает
+ * JMH {@code mode=platform}. Нагрузка на Tomcat и {@code @Async} запущенного
+ * приложения измеряется в {@link ApplicationLoadBenchmark}.
+ *
+ * @author Федорышин К.В.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecutorBenchmark {
+
+    static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    String mode;
+
+    @Param({"200", "1000"})
+    int requests;
+
+    @Param({"10"})
+    long blockingInMs;
+
+    ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        executor = "virtual".equals(mode)
+                ? VirtualThreads.newExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void blockingRequests() {
+        var futures = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            futures[i] = CompletableFuture.runAsync(this::block, executor);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private void block() {
+        try {
+            Thread.sleep(blockingInMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
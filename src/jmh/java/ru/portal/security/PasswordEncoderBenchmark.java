@@ -0,0 +1,33 @@
+package ru.portal.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Бенчмарк проверки пароля {@link BCryptPasswordEncoder} с разной сложностью.
+ * Время растет вдвое на каждую единицу сложности.
+ *
+ * @author Федорышин К.В.
+ */
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+
+    static final String PASSWORD = "rootroot";
+
+    @Param({"4", "8", "10", "12"})
+    int strength;
+
+    BCryptPasswordEncoder encoder;
+    String encoded;
+
+    @Setup
+    public void setup() {
+        encoder = new BCryptPasswordEncoder(strength);
+        encoded = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, encoded);
+    }
+}
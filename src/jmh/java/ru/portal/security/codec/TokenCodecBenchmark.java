@@ -0,0 +1,81 @@
+package ru.portal.security.codec;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.env.MockEnvironment;
+import ru.portal.BenchmarkFixtures;
+import ru.portal.configuration.VirtualThreadConfig;
+import ru.portal.security.services.TokenClaims;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Сравнивает подпись и проверку токена через jjwt и через {@link HmacTokenCodec}.
+ * {@code compact-virtual} - {@link HmacTokenCodec} в профиле
+ * {@value VirtualThreadConfig#PROFILE}, с общим пулом буферов вместо буферов потока.
+ * Выделение памяти на операцию смотреть в {@code gc.alloc.rate.norm}.
+ *
+ * @author Федорышин К.В.
+ */
+@State(Scope.Benchmark)
+public class TokenCodecBenchmark {
+
+    @Param({"jjwt", "compact", "compact-virtual"})
+    String codecType;
+
+    TokenCodec codec;
+    TokenClaims claims;
+    String token;
+
+    @Setup
+    public void setup() {
+        var environment = new MockEnvironment()
+                .withProperty("security.token.key", BenchmarkFixtures.KEY);
+        if ("compact-virtual".equals(codecType)) {
+            environment.setActiveProfiles(VirtualThreadConfig.PROFILE);
+        }
+        codec = "jjwt".equals(codecType) ? new JjwtCodec() : new HmacTokenCodec(environment);
+
+        var now = Instant.now();
+        claims = TokenClaims.builder()
+                .subject("Sparus")
+                .issuedAt(now)
+                .expiration(now.plusSeconds(3600))
+                .build();
+        token = codec.encode(claims);
+    }
+
+    @Benchmark
+    public String encode() {
+        return codec.encode(claims);
+    }
+
+    @Benchmark
+    public TokenClaims decode() {
+        return codec.decode(token);
+    }
+
+    /**
+     * Прежняя реализация подписи целиком через jjwt.
+     */
+    static final class JjwtCodec extends JwsTokenCodec {
+
+        final SecretKey secretKey = Keys.hmacShaKeyFor(BenchmarkFixtures.KEY.getBytes(StandardCharsets.UTF_8));
+        final JwtParser parser = Jwts.parserBuilder().setSigningKey(secretKey).build();
+
+        @Override
+        protected JwtParser getParser() {
+            return parser;
+        }
+
+        @Override
+        protected JwtBuilder sign(JwtBuilder builder) {
+            return builder.signWith(secretKey);
+        }
+    }
+}
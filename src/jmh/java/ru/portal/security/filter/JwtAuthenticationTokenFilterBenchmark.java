@@ -0,0 +1,60 @@
+package ru.portal.security.filter;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.portal.BenchmarkFixtures;
+import ru.portal.security.details.UserDetailsImpl;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+/**
+ * Бенчмарк полного прохода {@link JwtAuthenticationTokenFilter} по запросу
+ * с токеном доступа. Хранилище пользователей заменено заглушкой, поэтому
+ * измеряется только работа фильтра. Фильтр перезаписывает аутентификацию
+ * в контексте, поэтому контекст между вызовами не очищается.
+ *
+ * @author Федорышин К.В.
+ */
+@State(Scope.Thread)
+public class JwtAuthenticationTokenFilterBenchmark {
+
+    @Param({"0", "10000"})
+    String verifiedCacheSize;
+
+    @Param({"false", "true"})
+    boolean stateless;
+
+    JwtAuthenticationTokenFilter filter;
+    MockHttpServletRequest request;
+    MockHttpServletResponse response;
+    FilterChain chain;
+
+    @Setup
+    public void setup() {
+        var tokenService = BenchmarkFixtures.tokenService(verifiedCacheSize, stateless);
+        var user = BenchmarkFixtures.user();
+
+        filter = new JwtAuthenticationTokenFilter(tokenService, username -> UserDetailsImpl.of(user),
+                BenchmarkFixtures.revocationService());
+        ReflectionTestUtils.setField(filter, "headerName", BenchmarkFixtures.HEADER);
+        ReflectionTestUtils.setField(filter, "stateless", stateless);
+        ReflectionTestUtils.setField(filter, "statelessMaxAge", 300L);
+
+        request = new MockHttpServletRequest("GET", "/api/v1/profile");
+        request.addHeader(BenchmarkFixtures.HEADER, tokenService.createToken(user));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> {
+        };
+    }
+
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        filter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,49 @@
+package ru.portal.security.services;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.portal.BenchmarkFixtures;
+
+/**
+ * Сравнивает проверку токена доступа в фильтре: два разбора
+ * ({@link TokenService#isValidToken(String)} и {@link TokenService#getUsername(String)})
+ * против одного {@link TokenService#parseToken(String)}.
+ * Параметр {@code verifiedCacheSize} равный 0 отключает кэш проверенных токенов.
+ *
+ * @author Федорышин К.В.
+ */
+@State(Scope.Benchmark)
+public class TokenParsingBenchmark {
+
+    @Param({"0", "10000"})
+    String verifiedCacheSize;
+
+    TokenService tokenService;
+    String token;
+
+    @Setup
+    public void setup() {
+        tokenService = BenchmarkFixtures.tokenService(verifiedCacheSize, false);
+        token = tokenService.getToken(tokenService.createToken("Sparus"));
+    }
+
+    @Benchmark
+    public void validateThenGetUsername(Blackhole blackhole) {
+        if (tokenService.isValidToken(token)) {
+            blackhole.consume(tokenService.getUsername(token));
+        }
+    }
+
+    @Benchmark
+    public void parseToken(Blackhole blackhole) {
+        tokenService.parseToken(token)
+                .ifPresent(claims -> blackhole.consume(claims.getSubject()));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void parseTokenConcurrent(Blackhole blackhole) {
+        tokenService.parseToken(token)
+                .ifPresent(claims -> blackhole.consume(claims.getSubject()));
+    }
+}
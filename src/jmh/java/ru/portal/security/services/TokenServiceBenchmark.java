@@ -0,0 +1,47 @@
+package ru.portal.security.services;
+
+import org.openjdk.jmh.annotations.*;
+import ru.portal.BenchmarkFixtures;
+import ru.portal.entities.User;
+
+/**
+ * Бенчмарк операций {@link TokenService}, которые выполняются
+ * при входе пользователя и на каждом запросе.
+ *
+ * @author Федорышин К.В.
+ */
+@State(Scope.Benchmark)
+public class TokenServiceBenchmark {
+
+    @Param({"0", "10000"})
+    String verifiedCacheSize;
+
+    @Param({"false", "true"})
+    boolean stateless;
+
+    TokenService tokenService;
+    User user;
+    String token;
+
+    @Setup
+    public void setup() {
+        tokenService = BenchmarkFixtures.tokenService(verifiedCacheSize, stateless);
+        user = BenchmarkFixtures.user();
+        token = tokenService.getToken(tokenService.createToken(user));
+    }
+
+    @Benchmark
+    public String createToken() {
+        return tokenService.createToken(user);
+    }
+
+    @Benchmark
+    public boolean isValidToken() {
+        return tokenService.isValidToken(token);
+    }
+
+    @Benchmark
+    public String getUsername() {
+        return tokenService.getUsername(token);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.portal.security.utilities;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Бенчмарк генерации токенов обновления и подтверждения.
+ *
+ * @author Федорышин К.В.
+ */
+@State(Scope.Benchmark)
+public class RandomTokenBenchmark {
+
+    @Benchmark
+    public String getToken() {
+        return RandomToken.getToken();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String getTokenConcurrent() {
+        return RandomToken.getToken();
+    }
+}
@@ -0,0 +1,51 @@
+package ru.portal.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Профиль {@value PROFILE} переводит обработку запросов Tomcat и задачи
+ * {@code @Async} на виртуальные потоки. Запросы большую часть времени ждут
+ * БД и почтовый сервер, и виртуальный поток при этом не занимает поток ОС.
+ * <p>
+ * Пул хэширования паролей остается на обычных потоках, так как BCrypt
+ * нагружает процессор. Профиль требует Java 21, сборка запускается с
+ * {@code -PvirtualThreads}.
+ *
+ * @author Федорышин К.В.
+ */
+@Configuration
+@Profile(VirtualThreadConfig.PROFILE)
+@Slf4j
+public class VirtualThreadConfig {
+
+    public static final String PROFILE = "virtual-threads";
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        log.info("Запросы и задачи @Async выполняются на виртуальных потоках");
+        return VirtualThreads.newExecutor();
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Имя {@code taskExecutor} выбирается {@code @EnableAsync} по умолчанию,
+     * а стандартный пул Spring Boot при наличии этого бина не создается.
+     */
+    @Bean
+    public AsyncTaskExecutor taskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.portal.configuration;
+
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Доступ к виртуальным потокам Java 21 из кода, собранного под Java 17.
+ * Исполнитель создается через {@code Executors.newVirtualThreadPerTaskExecutor()},
+ * найденный во время выполнения.
+ *
+ * @author Федорышин К.В.
+ */
+public final class VirtualThreads {
+
+    private static final MethodHandle NEW_EXECUTOR = findExecutorFactory();
+
+    private VirtualThreads() {
+
+    }
+
+    /**
+     * Проверяет доступны ли виртуальные потоки в текущей JVM.
+     *
+     * @return true если JVM поддерживает виртуальные потоки.
+     */
+    public static boolean isSupported() {
+        return NEW_EXECUTOR != null;
+    }
+
+    /**
+     * Проверяет включен ли профиль {@value VirtualThreadConfig#PROFILE}, то есть
+     * обрабатываются ли запросы и задачи {@code @Async} на виртуальных потоках.
+     *
+     * @param environment окружение приложения.
+     * @return true если профиль активен.
+     */
+    public static boolean isEnabled(Environment environment) {
+        return environment.acceptsProfiles(Profiles.of(VirtualThreadConfig.PROFILE));
+    }
+
+    /**
+     * Создает исполнитель, запускающий каждую задачу в новом виртуальном потоке.
+     *
+     * @return исполнитель на виртуальных потоках.
+     * @throws IllegalStateException если JVM не поддерживает виртуальные потоки.
+     */
+    public static ExecutorService newExecutor() {
+        if (NEW_EXECUTOR == null) {
+            throw new IllegalStateException("Виртуальные потоки требуют Java 21, текущая версия "
+                    + Runtime.version().feature());
+        }
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Не удалось создать исполнитель на виртуальных потоках", e);
+        }
+    }
+
+    private static MethodHandle findExecutorFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(java.util.concurrent.Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.portal.entities;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * Класс сущности общей для всех узлов настройки из БД.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+@Entity
+@Table(name = "settings", schema = "portal_schema")
+public class Setting implements Serializable {
+
+    @Id
+    @Column(name = "setting_name", length = 64)
+    String name;
+
+    @Column(name = "setting_value", length = 256, nullable = false)
+    String value;
+
+    @org.hibernate.annotations.UpdateTimestamp
+    @Column(name = "update_at")
+    ZonedDateTime updateAt;
+
+}
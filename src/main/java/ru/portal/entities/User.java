@@ -20,8 +20,8 @@ import java.time.ZonedDateTime;
 @Entity
 @Table(name = "users", schema = "portal_schema",
         uniqueConstraints = {
-                @UniqueConstraint(columnNames = "username"),
-                @UniqueConstraint(columnNames = "email")
+                @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+                @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
         },
         indexes = {
                 @Index(columnList = "user_id"),
@@ -30,17 +30,41 @@ import java.time.ZonedDateTime;
         })
 public class User implements Serializable {
 
+    /**
+     * Имя ограничения уникальности имени пользователя.
+     */
+    public static final String USERNAME_CONSTRAINT = "users_username_unique";
+
+    /**
+     * Имя ограничения уникальности электронного адреса.
+     */
+    public static final String EMAIL_CONSTRAINT = "users_email_unique";
+
+    /**
+     * Имя ограничения уникальности имени пользователя, которое Postgres дает по умолчанию
+     * в БД, созданных до именования ограничений.
+     */
+    public static final String LEGACY_USERNAME_CONSTRAINT = "users_username_key";
+
+    /**
+     * Имя ограничения уникальности электронного адреса, которое Postgres дает по умолчанию
+     * в БД, созданных до именования ограничений.
+     */
+    public static final String LEGACY_EMAIL_CONSTRAINT = "users_email_key";
+
     @Id
     @Column(name = "user_id", unique = true)
-    @GeneratedValue(generator = "increment")
-    @org.hibernate.annotations.GenericGenerator(name = "increment", strategy = "increment")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_user_id_seq")
+    @SequenceGenerator(name = "users_user_id_seq",
+            sequenceName = "users_user_id_seq",
+            schema = "portal_schema", allocationSize = 50)
     Long id;
 
 
-    @Column(name = "username", length = 32, unique = true)
+    @Column(name = "username", length = 32)
     String username;
 
-    @Column(name = "email", length = 64, unique = true)
+    @Column(name = "email", length = 64)
     String email;
 
     @Column(name = "password", length = 256)
@@ -28,14 +28,17 @@ import java.time.ZonedDateTime;
         indexes = {
                 @Index(columnList = "token"),
                 @Index(columnList = "confirmation_id"),
+                @Index(columnList = "lifetime"),
                 @Index(columnList = "user_id")
         })
 public class ConfirmationToken implements Serializable {
 
     @Id
     @Column(name = "confirmation_id", unique = true)
-    @GeneratedValue(strategy = GenerationType.IDENTITY, generator = "increment")
-    @org.hibernate.annotations.GenericGenerator(name = "increment", strategy = "increment")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "confirmation_tokens_confirmation_id_seq")
+    @SequenceGenerator(name = "confirmation_tokens_confirmation_id_seq",
+            sequenceName = "confirmation_tokens_confirmation_id_seq",
+            schema = "portal_schema", allocationSize = 50)
     Long id;
 
     @Column(name = "token", length = 60, unique = true)
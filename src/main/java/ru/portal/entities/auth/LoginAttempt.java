@@ -33,8 +33,10 @@ public class LoginAttempt implements Serializable {
 
     @Id
     @Column(name = "attempt_id", unique = true)
-    @GeneratedValue(strategy = GenerationType.IDENTITY, generator = "increment")
-    @org.hibernate.annotations.GenericGenerator(name = "increment", strategy = "increment")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attempts_login_attempt_id_seq")
+    @SequenceGenerator(name = "attempts_login_attempt_id_seq",
+            sequenceName = "attempts_login_attempt_id_seq",
+            schema = "portal_schema", allocationSize = 50)
     Long id;
 
     @Column(name = "number_attempts")
@@ -3,6 +3,7 @@ package ru.portal.entities.auth;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 import ru.portal.entities.User;
+import ru.portal.security.utilities.TokenDigest;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -10,6 +11,9 @@ import java.time.ZonedDateTime;
 
 /**
  * Класс сущности токена обновления из БД.
+ * Строка находится по селектору токена {@link ru.portal.security.utilities.SplitToken}
+ * через первичный ключ, в БД хранится только SHA-256 от верификатора,
+ * сам токен известен лишь при выпуске.
  *
  * @author Федорышин К.В.
  */
@@ -20,22 +24,25 @@ import java.time.ZonedDateTime;
 @NoArgsConstructor
 @Entity
 @Table(name = "refresh_tokens", schema = "portal_schema",
-        uniqueConstraints = {
-                @UniqueConstraint(columnNames = "token")
-        },
         indexes = {
-                @Index(columnList = "token"),
+                @Index(columnList = "lifetime"),
+                @Index(columnList = "user_id, lifetime"),
                 @Index(columnList = "token_id")
         })
 public class RefreshToken implements Serializable {
 
     @Id
     @Column(name = "token_id", unique = true)
-    @GeneratedValue(generator = "increment", strategy = GenerationType.IDENTITY)
-    @org.hibernate.annotations.GenericGenerator(name = "increment", strategy = "increment")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_token_id_seq")
+    @SequenceGenerator(name = "refresh_tokens_token_id_seq",
+            sequenceName = "refresh_tokens_token_id_seq",
+            schema = "portal_schema", allocationSize = 50)
     Long id;
 
-    @Column(name = "token", length = 80, unique = true)
+    @Column(name = "token_hash", length = TokenDigest.LENGTH, nullable = false)
+    byte[] tokenHash;
+
+    @Transient
     String token;
 
     @Column(name = "lifetime")
@@ -53,9 +60,4 @@ public class RefreshToken implements Serializable {
     @Column(name = "update_at")
     ZonedDateTime updateAt;
 
-    public RefreshToken(String token, User user) {
-        this.token = token;
-        this.user = user;
-    }
-
 }
@@ -0,0 +1,28 @@
+package ru.portal.entities.dto.response.admin;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.OffsetDateTime;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DtoPasswordEncoderResponse {
+
+    Integer previousStrength;
+
+    Integer strength;
+
+    Long hashTimeInMs;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    @Builder.Default
+    OffsetDateTime timestamp = OffsetDateTime.now();
+
+}
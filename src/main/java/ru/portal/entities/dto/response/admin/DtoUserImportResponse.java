@@ -0,0 +1,32 @@
+package ru.portal.entities.dto.response.admin;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.OffsetDateTime;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DtoUserImportResponse {
+
+    Long imported;
+
+    Long skipped;
+
+    Long rejected;
+
+    Long failed;
+
+    Long durationInMs;
+
+    Double usersPerSecond;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    @Builder.Default
+    OffsetDateTime timestamp = OffsetDateTime.now();
+
+}
@@ -0,0 +1,24 @@
+package ru.portal.entities.dto.response.auth;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.ZonedDateTime;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DtoSessionResponse {
+
+    Long id;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    ZonedDateTime createAt;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    ZonedDateTime expiresAt;
+
+}
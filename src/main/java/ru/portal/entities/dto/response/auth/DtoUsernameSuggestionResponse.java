@@ -0,0 +1,25 @@
+package ru.portal.entities.dto.response.auth;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DtoUsernameSuggestionResponse {
+
+    String username;
+
+    List<String> suggestions;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    @Builder.Default
+    ZonedDateTime timestamp = ZonedDateTime.now();
+
+}
@@ -0,0 +1,15 @@
+package ru.portal.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.portal.entities.Setting;
+
+/**
+ * Репозиторий для взамодействия с таблицей общих настроек в БД.
+ *
+ * @author Федорышин К.В.
+ */
+@Repository
+public interface SettingRepository extends JpaRepository<Setting, String> {
+
+}
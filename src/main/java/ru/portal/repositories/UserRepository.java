@@ -1,11 +1,21 @@
 package ru.portal.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 import ru.portal.entities.User;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 /**
@@ -34,16 +44,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByUsername(@NonNull String username);
 
-    /**
-     * Извлекает пользвателя по имени и адресу электронной почты.
-     *
-     * @param username имя пользователя.
-     * @param email    электронный адрес пользователя.
-     * @return пользователя с заданым электронным адресом и именем пользователя
-     * или {@link Optional#empty()}, если ничего не найдено.
-     */
-    Optional<User> findByUsernameOrEmail(@NonNull String username, @NonNull String email);
-
     /**
      * Проверка содержит ли хранилище данных пользователя
      * с заданым электронным адресом.
@@ -64,4 +64,64 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByUsername(@NonNull String username);
 
+    /**
+     * Извлекает пользователя с блокировкой строки до конца транзакции
+     * ({@code SELECT ... FOR UPDATE}). Используется, чтобы параллельные
+     * транзакции одного пользователя выполнялись по очереди.
+     *
+     * @param id идентификатор пользователя.
+     * @return пользователя или {@link Optional#empty()}, если ничего не найдено.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") long id);
+
+    /**
+     * Обновляет хэш пароля пользователя без предварительного чтения.
+     *
+     * @param username имя пользователя.
+     * @param password новый хэш пароля.
+     */
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    void updatePassword(@NonNull @Param("username") String username, @NonNull @Param("password") String password);
+
+    /**
+     * Извлекает из переданных имен те, что уже заняты.
+     *
+     * @param usernames имена пользователей.
+     * @return занятые имена.
+     */
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@NonNull @Param("usernames") Collection<String> usernames);
+
+    /**
+     * Извлекает из переданных электронных адресов те, что уже заняты.
+     *
+     * @param emails электронные адреса.
+     * @return занятые адреса.
+     */
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@NonNull @Param("emails") Collection<String> emails);
+
+    /**
+     * Потоково извлекает имена и электронные адреса всех пользователей без загрузки сущностей.
+     * Должен вызываться в транзакции, поток нужно закрыть после чтения.
+     *
+     * @return поток имен и адресов пользователей.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select u.username as username, u.email as email from User u")
+    Stream<Identity> streamIdentities();
+
+    /**
+     * Имя и электронный адрес пользователя.
+     */
+    interface Identity {
+
+        String getUsername();
+
+        String getEmail();
+    }
+
 }
@@ -1,8 +1,12 @@
 package ru.portal.repositories.auth;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.portal.entities.auth.ConfirmationToken;
 
 import java.util.Optional;
@@ -31,4 +35,19 @@ public interface ConfirmationTokenRepository extends JpaRepository<ConfirmationT
      * @param token токен подтверждения.
      */
     void deleteByToken(@NonNull String token);
+
+    /**
+     * Удаляет не больше {@code limit} истекших токенов в отдельной транзакции.
+     * Строки выбираются по индексу на {@code lifetime}.
+     *
+     * @param now   текущее время в миллисекундах.
+     * @param limit максимальное количество удаляемых строк.
+     * @return количество удаленных строк.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM portal_schema.confirmation_tokens WHERE confirmation_id IN " +
+            "(SELECT confirmation_id FROM portal_schema.confirmation_tokens WHERE lifetime < :now LIMIT :limit)",
+            nativeQuery = true)
+    int deleteExpired(@Param("now") long now, @Param("limit") int limit);
 }
@@ -1,6 +1,9 @@
 package ru.portal.repositories.auth;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 import ru.portal.entities.User;
@@ -24,4 +27,75 @@ public interface LoginAttemptRepository extends JpaRepository<LoginAttempt, Long
      */
     Optional<LoginAttempt> findByUser(@NonNull User user);
 
+    /**
+     * Извлекает попытки входа вместе с пользователем одним запросом.
+     *
+     * @param username имя пользователя.
+     * @return попытки входа с загруженным пользователем или {@link Optional#empty()},
+     * если пользователь не найден.
+     */
+    @Query("select a from LoginAttempt a join fetch a.user u where u.username = :username")
+    Optional<LoginAttempt> findWithUserByUsername(@NonNull @Param("username") String username);
+
+    /**
+     * Обнуляет счетчик попыток входа без предварительного чтения.
+     * Строка изменяется только если счетчик больше нуля.
+     *
+     * @param id идентификатор попыток входа.
+     * @return количество измененных строк.
+     */
+    @Modifying
+    @Query("update LoginAttempt a set a.numberAttempt = 0 where a.id = :id and a.numberAttempt > 0")
+    int resetNumberAttempt(@NonNull @Param("id") Long id);
+
+    /**
+     * Увеличивает счетчик попыток входа на единицу одним запросом, пока он меньше
+     * максимального значения. Параллельные запросы к одной строке выполняются
+     * по очереди, поэтому увеличения не теряются.
+     *
+     * @param username   имя пользователя.
+     * @param maxAttempt максимальное количество попыток.
+     * @return 1 если счетчик увеличен, 0 если счетчик уже равен максимальному
+     * значению или пользователь не найден.
+     */
+    @Modifying
+    @Query("update LoginAttempt a set a.numberAttempt = a.numberAttempt + 1 " +
+            "where a.user.id = (select u.id from User u where u.username = :username) " +
+            "and a.numberAttempt < :maxAttempt")
+    int incrementNumberAttempt(@NonNull @Param("username") String username,
+                               @NonNull @Param("maxAttempt") Integer maxAttempt);
+
+    /**
+     * Обнуляет счетчик и выставляет время окончания блокировки одним запросом,
+     * если счетчик достиг максимального значения. Из параллельных запросов строку
+     * изменяет только первый.
+     *
+     * @param username   имя пользователя.
+     * @param maxAttempt максимальное количество попыток, 0 - блокировать безусловно.
+     * @param lockTime   время окончания блокировки в миллисекундах.
+     * @return 1 если блокировка выставлена, иначе 0.
+     */
+    @Modifying
+    @Query("update LoginAttempt a set a.numberAttempt = 0, a.lockTime = :lockTime " +
+            "where a.user.id = (select u.id from User u where u.username = :username) " +
+            "and a.numberAttempt >= :maxAttempt")
+    int lock(@NonNull @Param("username") String username,
+             @NonNull @Param("maxAttempt") Integer maxAttempt,
+             @NonNull @Param("lockTime") Long lockTime);
+
+    /**
+     * Учитывает неудачную попытку входа без чтения строки: увеличивает счетчик, а если
+     * он уже равен максимальному значению, блокирует. Обычная попытка стоит одного запроса,
+     * блокирующая - двух.
+     *
+     * @param username   имя пользователя.
+     * @param maxAttempt максимальное количество попыток.
+     * @param lockTime   время окончания блокировки в миллисекундах.
+     * @return true если эта попытка выставила блокировку.
+     */
+    default boolean incrementOrLock(@NonNull String username, @NonNull Integer maxAttempt, @NonNull Long lockTime) {
+        return incrementNumberAttempt(username, maxAttempt) == 0
+                && lock(username, maxAttempt, lockTime) == 1;
+    }
+
 }
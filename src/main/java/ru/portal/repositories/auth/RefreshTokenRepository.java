@@ -1,11 +1,16 @@
 package ru.portal.repositories.auth;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.lang.NonNull;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.portal.entities.auth.RefreshToken;
 
-import java.util.Optional;
+import java.time.ZonedDateTime;
+import java.util.List;
 
 /**
  * Репозиторий для взамодействия с таблицей токенов обновления в БД.
@@ -16,18 +21,70 @@ import java.util.Optional;
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
     /**
-     * Извлекает токен обновления по токену обновления.
+     * Удаляет не больше {@code limit} истекших токенов в отдельной транзакции.
+     * Строки выбираются по индексу на {@code lifetime}.
      *
-     * @param token токен обновления
-     * @return токен обновления или {@link Optional#empty()}, если ничего не найдено.
+     * @param now   текущее время в миллисекундах.
+     * @param limit максимальное количество удаляемых строк.
+     * @return количество удаленных строк.
      */
-    Optional<RefreshToken> findByToken(@NonNull String token);
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM portal_schema.refresh_tokens WHERE token_id IN " +
+            "(SELECT token_id FROM portal_schema.refresh_tokens WHERE lifetime < :now LIMIT :limit)",
+            nativeQuery = true)
+    int deleteExpired(@Param("now") long now, @Param("limit") int limit);
 
     /**
-     * Удаляет токен обновления из БД по токеном обновления.
+     * Удаляет самые старые токены пользователя, оставляя {@code keep} последних по времени жизни.
+     * Выполняется одним запросом по индексу {@code (user_id, lifetime)} и должен вызываться
+     * в той же транзакции, что и сохранение нового токена.
      *
-     * @param token токен обновления
+     * @param userId идентификатор пользователя.
+     * @param keep   количество оставляемых токенов.
+     * @return количество удаленных строк.
      */
-    void deleteByToken(@NonNull String token);
+    @Modifying
+    @Query(value = "DELETE FROM portal_schema.refresh_tokens WHERE token_id IN " +
+            "(SELECT token_id FROM portal_schema.refresh_tokens WHERE user_id = :userId " +
+            "ORDER BY lifetime DESC, token_id DESC OFFSET :keep ROWS)",
+            nativeQuery = true)
+    int evictOldest(@Param("userId") long userId, @Param("keep") int keep);
+
+    /**
+     * Заменяет хэш и время жизни токена, если его текущий хэш равен {@code expectedHash}.
+     *
+     * @param id           идентификатор токена.
+     * @param expectedHash текущий хэш токена.
+     * @param tokenHash    новый хэш токена.
+     * @param lifetime     новое время жизни в миллисекундах.
+     * @param updateAt     время обновления.
+     * @return 1 если токен обновлен, иначе 0.
+     */
+    @Modifying
+    @Query("update RefreshToken t set t.tokenHash = :tokenHash, t.lifetime = :lifetime, t.updateAt = :updateAt " +
+            "where t.id = :id and t.tokenHash = :expectedHash")
+    int rotate(@Param("id") long id, @Param("expectedHash") byte[] expectedHash,
+               @Param("tokenHash") byte[] tokenHash, @Param("lifetime") long lifetime,
+               @Param("updateAt") ZonedDateTime updateAt);
+
+    /**
+     * Извлекает страницу действующих токенов пользователя по ключу, начиная после
+     * токена с временем жизни {@code lifetime} и идентификатором {@code id}.
+     * Токены упорядочены по убыванию времени жизни, затем идентификатора.
+     *
+     * @param username имя пользователя.
+     * @param now      текущее время в миллисекундах.
+     * @param lifetime время жизни последнего токена предыдущей страницы.
+     * @param id       идентификатор последнего токена предыдущей страницы.
+     * @param pageable размер страницы, номер страницы всегда 0.
+     * @return токены страницы.
+     */
+    @Query("select t from RefreshToken t where t.user.username = :username and t.lifetime >= :now " +
+            "and (t.lifetime < :lifetime or (t.lifetime = :lifetime and t.id < :id)) " +
+            "order by t.lifetime desc, t.id desc")
+    List<RefreshToken> findSessionsAfter(@Param("username") String username, @Param("now") long now,
+                                         @Param("lifetime") long lifetime, @Param("id") long id,
+                                         Pageable pageable);
 
 }
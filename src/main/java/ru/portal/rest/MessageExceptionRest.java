@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.portal.entities.dto.response.auth.DtoFailedResponse;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.validation.ConstraintViolationException;
 
 /**
  * Обработчик ошибок.
@@ -22,7 +23,7 @@ public class MessageExceptionRest {
 
 
     @ResponseStatus(code = HttpStatus.BAD_REQUEST)
-    @ExceptionHandler(MethodArgumentNotValidException.class)
+    @ExceptionHandler({MethodArgumentNotValidException.class, ConstraintViolationException.class})
     public DtoFailedResponse getErrorValidMessage(HttpServletRequest request) {
         return DtoFailedResponse.builder()
                 .message("Неверные данные!")
@@ -0,0 +1,64 @@
+package ru.portal.rest.admin;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.portal.entities.dto.response.admin.DtoPasswordEncoderResponse;
+import ru.portal.security.crypto.AdaptiveBCryptPasswordEncoder;
+import ru.portal.security.crypto.PasswordEncoderCalibrator;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * Конечные точки администратора для настройки сложности хэширования паролей.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RestController
+@Validated
+@RequestMapping(path = "/admin/password-encoder")
+public class PasswordEncoderRest {
+
+    AdaptiveBCryptPasswordEncoder encoder;
+    PasswordEncoderCalibrator calibrator;
+
+    @Autowired
+    public PasswordEncoderRest(AdaptiveBCryptPasswordEncoder encoder,
+                               PasswordEncoderCalibrator calibrator) {
+        this.encoder = encoder;
+        this.calibrator = calibrator;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public DtoPasswordEncoderResponse getStrength() {
+        return DtoPasswordEncoderResponse.builder()
+                .strength(encoder.getStrength())
+                .build();
+    }
+
+    @PostMapping(path = "/calibrate", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DtoPasswordEncoderResponse calibrate() {
+        var calibration = calibrator.calibrate();
+        return DtoPasswordEncoderResponse.builder()
+                .previousStrength(calibration.getPreviousStrength())
+                .strength(calibration.getStrength())
+                .hashTimeInMs(calibration.getDuration().toMillis())
+                .build();
+    }
+
+    @PutMapping(produces = MediaType.APPLICATION_JSON_VALUE, params = "strength")
+    public DtoPasswordEncoderResponse setStrength(
+            @RequestParam(name = "strength") @Min(4) @Max(31) Integer strength
+    ) {
+        var previous = calibrator.setStrength(strength);
+        return DtoPasswordEncoderResponse.builder()
+                .previousStrength(previous)
+                .strength(encoder.getStrength())
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package ru.portal.rest.admin;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import ru.portal.entities.dto.response.admin.DtoUserImportResponse;
+import ru.portal.security.services.UserImportFormat;
+import ru.portal.security.services.UserImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Конечные точки администратора для массового импорта пользователей.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RestController
+@RequestMapping(path = "/admin/users")
+public class UserImportRest {
+
+    static final String TEXT_CSV = "text/csv";
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    UserImportService importService;
+
+    @Autowired
+    public UserImportRest(UserImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * Тело запроса читается потоком, файл целиком в память не загружается.
+     */
+    @PostMapping(path = "/import", consumes = {TEXT_CSV, APPLICATION_NDJSON},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public DtoUserImportResponse importUsers(
+            @RequestHeader(name = HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) throws IOException {
+        var format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))
+                ? UserImportFormat.CSV
+                : UserImportFormat.NDJSON;
+        return importService.importUsers(body, format);
+    }
+}
@@ -10,10 +10,14 @@ import org.springframework.web.bind.annotation.*;
 import ru.portal.entities.dto.request.auth.DtoUserRequest;
 import ru.portal.entities.dto.response.auth.DtoAuthenticationResponse;
 import ru.portal.entities.dto.response.auth.DtoSuccessRegResponse;
+import ru.portal.entities.dto.response.auth.DtoUsernameSuggestionResponse;
+import ru.portal.security.PasswordHashingExecutor;
 import ru.portal.security.services.ConfirmationService;
 import ru.portal.security.services.UserService;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Конечные точки для регистрации и аутентификации пользователя.
@@ -26,29 +30,41 @@ public class AuthenticationRest {
 
     UserService userService;
     ConfirmationService confirmationService;
+    PasswordHashingExecutor hashingExecutor;
 
     @Autowired
     public AuthenticationRest(UserService userService,
-                              ConfirmationService confirmationService) {
+                              ConfirmationService confirmationService,
+                              PasswordHashingExecutor hashingExecutor) {
         this.userService = userService;
         this.confirmationService = confirmationService;
+        this.hashingExecutor = hashingExecutor;
     }
 
+    /**
+     * Регистрация выполняется в пуле хэширования паролей, поток Tomcat освобождается сразу.
+     */
     @PostMapping(path = "/registration", produces = MediaType.APPLICATION_JSON_VALUE,
             consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(code = HttpStatus.CREATED)
-    public DtoSuccessRegResponse registrationUser(
+    public CompletableFuture<DtoSuccessRegResponse> registrationUser(
             @Valid @RequestBody DtoUserRequest request
     ) {
-        return userService.registrationUser(request);
+        return hashingExecutor.supply(() -> userService.registrationUser(request));
     }
 
+    /**
+     * Авторизация выполняется в пуле хэширования паролей, поток Tomcat освобождается сразу.
+     * Адрес клиента читается до передачи в пул, пока запрос еще принадлежит потоку Tomcat.
+     */
     @PostMapping(path = "/login", produces = MediaType.APPLICATION_JSON_VALUE,
             consumes = MediaType.APPLICATION_JSON_VALUE)
-    public DtoAuthenticationResponse login(
-            @Valid @RequestBody DtoUserRequest request
+    public CompletableFuture<DtoAuthenticationResponse> login(
+            @Valid @RequestBody DtoUserRequest request,
+            HttpServletRequest servletRequest
     ) {
-        return userService.login(request);
+        var clientAddress = servletRequest.getRemoteAddr();
+        return hashingExecutor.supply(() -> userService.login(request, clientAddress));
     }
 
     @GetMapping(path = "/confirmation/{token}")
@@ -68,6 +84,17 @@ public class AuthenticationRest {
         return ResponseEntity.ok("Username not exist");
     }
 
+    /**
+     * Свободные варианты занятого имени, подбираются в памяти без обращения к БД.
+     */
+    @GetMapping(path = "/suggestname", params = "username", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DtoUsernameSuggestionResponse suggestUsername(
+            @RequestParam(name = "username") String username,
+            @RequestParam(name = "count", defaultValue = "5") int count
+    ) {
+        return userService.suggestUsernames(username, count);
+    }
+
     @GetMapping(path = "/checkemail", params = "email")
     public ResponseEntity<String> checkEmail(
             @RequestParam(name = "email") String email
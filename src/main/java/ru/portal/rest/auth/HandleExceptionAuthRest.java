@@ -2,7 +2,10 @@ package ru.portal.rest.auth;
 
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -10,11 +13,18 @@ import ru.portal.entities.dto.response.auth.DtoFailedResponse;
 import ru.portal.security.services.exception.*;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.RejectedExecutionException;
 
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @RestControllerAdvice
 public class HandleExceptionAuthRest {
 
+    String retryAfter;
+
+    public HandleExceptionAuthRest(@Value("${security.hashing.retryAfterInSecond}") String retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
     @ResponseStatus(code = HttpStatus.CONFLICT)
     @ExceptionHandler({UserExistsException.class, IncorrectCredentialsException.class, UserBannedException.class})
     public DtoFailedResponse getMessageExAuthentication(Throwable throwable, HttpServletRequest request) {
@@ -35,6 +45,27 @@ public class HandleExceptionAuthRest {
                 .build();
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<DtoFailedResponse> getMessageExOverloaded(HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfter)
+                .body(DtoFailedResponse.builder()
+                        .message("Сервер перегружен, повторите попытку позже")
+                        .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .path(request.getContextPath() + request.getServletPath())
+                        .build());
+    }
+
+    @ResponseStatus(code = HttpStatus.CONFLICT)
+    @ExceptionHandler(ImportInProgressException.class)
+    public DtoFailedResponse getMessageExImportRunning(Throwable throwable, HttpServletRequest request) {
+        return DtoFailedResponse.builder()
+                .message(throwable.getMessage())
+                .status(HttpStatus.CONFLICT.value())
+                .path(request.getContextPath() + request.getServletPath())
+                .build();
+    }
+
     @ResponseStatus(code = HttpStatus.UNAUTHORIZED)
     @ExceptionHandler({ConfirmationTokenNotExistException.class, ConfirmationTokenTimeExpiredException.class})
     public DtoFailedResponse getMessageExConfirmationToken(HttpServletRequest request) {
@@ -45,6 +76,14 @@ public class HandleExceptionAuthRest {
                 .build();
     }
 
-
+    @ResponseStatus(code = HttpStatus.BAD_REQUEST)
+    @ExceptionHandler({UsernameSuggestionException.class, SessionPageException.class, ImportFormatException.class})
+    public DtoFailedResponse getMessageExBadRequest(Throwable throwable, HttpServletRequest request) {
+        return DtoFailedResponse.builder()
+                .message(throwable.getMessage())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .path(request.getContextPath() + request.getServletPath())
+                .build();
+    }
 
 }
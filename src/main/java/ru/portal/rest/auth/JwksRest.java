@@ -0,0 +1,45 @@
+package ru.portal.rest.auth;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.portal.security.codec.SigningKeyRing;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конечная точка с открытыми ключами проверки токенов доступа.
+ * Доступна только при подписи токенов ключами ES256.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@RestController
+@ConditionalOnProperty(name = "security.token.algorithm", havingValue = "ES256")
+public class JwksRest {
+
+    @Value("${security.token.keyRing.jwksMaxAgeInSecond}")
+    Long maxAge;
+
+    final SigningKeyRing keyRing;
+
+    @Autowired
+    public JwksRest(SigningKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @GetMapping(path = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic())
+                .body(keyRing.getJwks());
+    }
+}
@@ -5,10 +5,11 @@ import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestHeader;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
 import ru.portal.entities.dto.response.auth.DtoAuthenticationResponse;
+import ru.portal.entities.dto.response.auth.DtoSessionPageResponse;
 import ru.portal.security.services.TokenRefreshService;
 import ru.portal.security.services.UserService;
 
@@ -33,9 +34,10 @@ public class RefreshTokenRest {
 
     @PostMapping(path = "/exit")
     public ResponseEntity<String> logout(
-            @RequestHeader(name = "RefreshToken") String refreshToken
+            @RequestHeader(name = "RefreshToken") String refreshToken,
+            @RequestHeader(name = "Authorization") String accessToken
     ) {
-        userService.logout(refreshToken);
+        userService.logout(refreshToken, accessToken);
         return ResponseEntity.ok("Logout success");
     }
 
@@ -46,4 +48,12 @@ public class RefreshTokenRest {
         return refreshService.refreshToken(refreshToken);
     }
 
+    @GetMapping(path = "/sessions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DtoSessionPageResponse sessions(
+            @AuthenticationPrincipal UserDetails principal,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "size", defaultValue = "20") int size
+    ) {
+        return refreshService.findSessions(principal.getUsername(), after, size);
+    }
 }
@@ -0,0 +1,118 @@
+package ru.portal.security;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.portal.repositories.auth.ConfirmationTokenRepository;
+import ru.portal.repositories.auth.RefreshTokenRepository;
+
+import java.time.Instant;
+
+/**
+ * Фоновое удаление истекших токенов обновления и подтверждения.
+ * <p>
+ * Строки удаляются порциями по {@code security.purge.chunkSize}, каждая порция
+ * в своей транзакции, а между порциями выдерживается пауза
+ * {@code security.purge.pauseInMs}. Так блокировки держатся недолго, а журнал
+ * БД не получает всплеск записи. Запуск повторяется каждые
+ * {@code security.purge.intervalInMs}.
+ * <p>
+ * Для каждой таблицы публикуются метрики {@value ROWS_METRIC} (удалено строк
+ * за запуск) и {@value DURATION_METRIC} (длительность запуска) с тегом {@code table}.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+@Slf4j
+public class ExpiredTokenSweeper {
+
+    static final String ROWS_METRIC = "tokens.purge.rows";
+    static final String DURATION_METRIC = "tokens.purge.duration";
+
+    int chunkSize;
+    long pause;
+    RefreshTokenRepository refreshTokenRepository;
+    ConfirmationTokenRepository confirmationTokenRepository;
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    public ExpiredTokenSweeper(Environment environment,
+                               RefreshTokenRepository refreshTokenRepository,
+                               ConfirmationTokenRepository confirmationTokenRepository,
+                               MeterRegistry meterRegistry) {
+        this.chunkSize = environment.getRequiredProperty("security.purge.chunkSize", Integer.class);
+        this.pause = environment.getRequiredProperty("security.purge.pauseInMs", Long.class);
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.confirmationTokenRepository = confirmationTokenRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Удаляет истекшие токены из обеих таблиц.
+     */
+    @Scheduled(fixedDelayString = "${security.purge.intervalInMs}",
+            initialDelayString = "${security.purge.intervalInMs}")
+    public void sweep() {
+        var now = Instant.now().toEpochMilli();
+        purge("refresh_tokens", refreshTokenRepository::deleteExpired, now);
+        purge("confirmation_tokens", confirmationTokenRepository::deleteExpired, now);
+    }
+
+    /**
+     * Удаляет порции, пока очередная порция не окажется неполной.
+     *
+     * @param table       имя таблицы для метрик.
+     * @param deleteChunk удаление одной порции по времени и размеру.
+     * @param now         время, до которого токены считаются истекшими.
+     * @return количество удаленных строк.
+     */
+    long purge(String table, ChunkDelete deleteChunk, long now) {
+        var sample = Timer.start(meterRegistry);
+        long total = 0;
+        try {
+            int removed;
+            do {
+                removed = deleteChunk.delete(now, chunkSize);
+                total += removed;
+            } while (removed == chunkSize && sleepBetweenChunks());
+        } finally {
+            sample.stop(meterRegistry.timer(DURATION_METRIC, "table", table));
+            DistributionSummary.builder(ROWS_METRIC)
+                    .tag("table", table)
+                    .baseUnit("rows")
+                    .register(meterRegistry)
+                    .record(total);
+        }
+        if (total > 0) {
+            log.info("Удалено истекших строк из {}: {}", table, total);
+        }
+        return total;
+    }
+
+    private boolean sleepBetweenChunks() {
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Удаление одной порции истекших строк.
+     */
+    @FunctionalInterface
+    interface ChunkDelete {
+
+        int delete(long now, int limit);
+    }
+}
@@ -0,0 +1,198 @@
+package ru.portal.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Счетчик неудачных попыток входа в скользящем окне по паре
+ * (имя пользователя, адрес клиента), по имени пользователя и по адресу клиента.
+ * <p>
+ * Счетчики хранятся в памяти, поэтому неверный пароль не приводит к записи в БД.
+ * Пользователь блокируется, когда за {@code security.blocking.windowInSecond} секунд
+ * с одного адреса пришло больше {@code security.blocking.maxAttempts} неудачных попыток
+ * или со всех адресов вместе {@code security.blocking.accountMaxAttempts} попыток,
+ * так что перебор пароля со сменой адресов тоже ограничен. Окно имени пользователя
+ * не очищается успешным входом, чтобы владелец не обнулял распределенный перебор.
+ * Адрес блокируется на {@code security.blocking.blockingPeriodInSecond} секунд,
+ * когда с него пришло {@code security.blocking.addressMaxAttempts} неудачных попыток
+ * для любых пользователей.
+ * <p>
+ * Окна изменяются под одной из {@value STRIPES} блокировок, выбранной по ключу,
+ * поэтому попытки разных пользователей почти не конкурируют между собой.
+ * Число окон ограничено {@code security.blocking.maximumSize}, простаивающие окна
+ * удаляются по истечении окна.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+public class LoginFailureTracker {
+
+    static final int STRIPES = 64;
+
+    int maxAttempts;
+    int accountMaxAttempts;
+    int addressMaxAttempts;
+    long window;
+    long blockingPeriod;
+    Clock clock;
+    ReentrantLock[] locks;
+    Cache<String, Window> userWindows;
+    Cache<String, Window> accountWindows;
+    Cache<String, Window> addressWindows;
+    Cache<String, Long> blockedAddresses;
+
+    @Autowired
+    public LoginFailureTracker(Environment environment) {
+        this(environment, Clock.systemUTC());
+    }
+
+    LoginFailureTracker(Environment environment, Clock clock) {
+        this.maxAttempts = environment.getRequiredProperty("security.blocking.maxAttempts", Integer.class);
+        this.accountMaxAttempts = environment.getRequiredProperty("security.blocking.accountMaxAttempts", Integer.class);
+        this.addressMaxAttempts = environment.getRequiredProperty("security.blocking.addressMaxAttempts", Integer.class);
+        this.window = Duration.ofSeconds(
+                environment.getRequiredProperty("security.blocking.windowInSecond", Long.class)).toMillis();
+        this.blockingPeriod = Duration.ofSeconds(
+                environment.getRequiredProperty("security.blocking.blockingPeriodInSecond", Long.class)).toMillis();
+        this.clock = clock;
+
+        this.locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+
+        var maximumSize = environment.getRequiredProperty("security.blocking.maximumSize", Long.class);
+        this.userWindows = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Duration.ofMillis(window))
+                .build();
+        this.accountWindows = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Duration.ofMillis(window))
+                .build();
+        this.addressWindows = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Duration.ofMillis(window))
+                .build();
+        this.blockedAddresses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(blockingPeriod))
+                .build();
+    }
+
+    /**
+     * Учитывает неудачную попытку входа.
+     *
+     * @param username      имя пользователя.
+     * @param clientAddress адрес клиента, пустая строка если адрес неизвестен.
+     * @return true если пользователя нужно заблокировать, сработавшее окно при этом очищается.
+     */
+    public boolean onFailure(@NonNull String username, @NonNull String clientAddress) {
+        var now = clock.millis();
+
+        if (!clientAddress.isEmpty() && record(addressWindows, clientAddress, addressMaxAttempts, now)) {
+            blockedAddresses.put(clientAddress, now + blockingPeriod);
+        }
+        var pairLocked = record(userWindows, userKey(username, clientAddress), maxAttempts + 1, now);
+        var accountLocked = record(accountWindows, username, accountMaxAttempts, now);
+        return pairLocked || accountLocked;
+    }
+
+    /**
+     * Очищает окно пары пользователя и адреса после успешного входа.
+     * Окна адреса и имени пользователя не очищаются, чтобы один известный пароль
+     * не обнулял перебор с адреса, а вход владельца - перебор с разных адресов.
+     *
+     * @param username      имя пользователя.
+     * @param clientAddress адрес клиента, пустая строка если адрес неизвестен.
+     */
+    public void onSuccess(@NonNull String username, @NonNull String clientAddress) {
+        userWindows.invalidate(userKey(username, clientAddress));
+    }
+
+    /**
+     * Проверяет заблокирован ли адрес клиента.
+     *
+     * @param clientAddress адрес клиента.
+     * @return true если блокировка адреса еще не закончилась.
+     */
+    public boolean isBlocked(@NonNull String clientAddress) {
+        if (clientAddress.isEmpty()) {
+            return false;
+        }
+        var until = blockedAddresses.getIfPresent(clientAddress);
+        return until != null && until > clock.millis();
+    }
+
+    /**
+     * Добавляет попытку в окно ключа.
+     *
+     * @return true если в окне набралось {@code limit} попыток, окно при этом удаляется.
+     */
+    private boolean record(Cache<String, Window> windows, String key, int limit, long now) {
+        var lock = locks[stripe(key)];
+        lock.lock();
+        try {
+            var current = windows.get(key, k -> new Window(limit));
+            if (current.add(now, now - window) < limit) {
+                return false;
+            }
+            windows.invalidate(key);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int stripe(String key) {
+        var hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static String userKey(String username, String clientAddress) {
+        return username + '\u0000' + clientAddress;
+    }
+
+    /**
+     * Кольцевой буфер времени последних попыток. Изменяется только под блокировкой своего ключа.
+     */
+    private static final class Window {
+
+        private final long[] times;
+        private int head;
+        private int size;
+
+        private Window(int capacity) {
+            this.times = new long[capacity];
+        }
+
+        /**
+         * Удаляет попытки старше {@code since} и добавляет новую.
+         *
+         * @return количество попыток в окне.
+         */
+        private int add(long now, long since) {
+            while (size > 0 && times[head] <= since) {
+                head = (head + 1) % times.length;
+                size--;
+            }
+            if (size == times.length) {
+                head = (head + 1) % times.length;
+                size--;
+            }
+            times[(head + size) % times.length] = now;
+            return ++size;
+        }
+    }
+}
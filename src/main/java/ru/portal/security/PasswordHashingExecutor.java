@@ -0,0 +1,105 @@
+package ru.portal.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Отдельный пул потоков для операций с хэшированием паролей (вход и регистрация).
+ * <p>
+ * BCrypt нагружает процессор, поэтому потоков столько же, сколько ядер
+ * ({@code security.hashing.threads}, 0 - по числу ядер), а очередь ограничена
+ * {@code security.hashing.queueCapacity}. При заполненной очереди задача сразу
+ * отклоняется с {@link RejectedExecutionException}, и потоки Tomcat не ждут хэширования.
+ * Метрики пула публикуются под именем {@value METRIC_NAME}.
+ * <p>
+ * Класс намеренно не реализует {@link Executor}, чтобы Spring не выбрал его
+ * для {@code @Async} вместо стандартного пула.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    static final String METRIC_NAME = "passwordHashing";
+
+    ThreadPoolExecutor executor;
+    Counter rejected;
+
+    @Autowired
+    public PasswordHashingExecutor(Environment environment, MeterRegistry meterRegistry) {
+        var threads = environment.getRequiredProperty("security.hashing.threads", Integer.class);
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        var capacity = environment.getRequiredProperty("security.hashing.queueCapacity", Integer.class);
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.rejected = Counter.builder("executor.rejected")
+                .tag("name", METRIC_NAME)
+                .description("Задачи, отклоненные из-за заполненной очереди")
+                .register(meterRegistry);
+        new ExecutorServiceMetrics(executor, METRIC_NAME, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Выполняет задачу в пуле хэширования.
+     *
+     * @param task задача.
+     * @param <T>  тип результата.
+     * @return результат задачи.
+     * @throws RejectedExecutionException бросаеться если очередь заполнена.
+     */
+    @NonNull
+    public <T> CompletableFuture<T> supply(@NonNull Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Очередь хэширования паролей заполнена");
+            throw e;
+        }
+    }
+
+    /**
+     * Количество задач в очереди.
+     *
+     * @return размер очереди.
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger number = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            var thread = new Thread(runnable, "password-hashing-" + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -4,8 +4,10 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
@@ -15,8 +17,9 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
@@ -28,8 +31,12 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.GenericFilterBean;
+import ru.portal.entities.Role;
+import ru.portal.security.crypto.AdaptiveBCryptPasswordEncoder;
+import ru.portal.security.filter.JwtAuthenticationTokenFilter;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Файл конфигурации для SpringSecurity<br>
@@ -49,20 +56,28 @@ import java.util.List;
 @PropertySource(value = "classpath:security.properties", encoding = "UTF-8")
 public class SecurityConfig {
 
+    static final String BCRYPT_ID = "bcrypt";
+
     Environment environment;
     UserDetailsService userDetailsService;
+    UserDetailsPasswordService userDetailsPasswordService;
     AuthenticationEntryPoint jwtAuthenticationPoint;
     GenericFilterBean jwtAuthenticationTokenFilter;
+    GenericFilterBean rateLimitFilter;
 
     @Autowired
     public SecurityConfig(Environment environment,
                           UserDetailsService userDetailsService,
+                          UserDetailsPasswordService userDetailsPasswordService,
                           @Qualifier("jwtAuthenticationEntryPoint") AuthenticationEntryPoint jwtAuthenticationPoint,
-                          @Qualifier("jwtAuthenticationTokenFilter") GenericFilterBean jwtAuthenticationTokenFilter) {
+                          @Qualifier("jwtAuthenticationTokenFilter") GenericFilterBean jwtAuthenticationTokenFilter,
+                          @Qualifier("rateLimitFilter") GenericFilterBean rateLimitFilter) {
         this.environment = environment;
         this.userDetailsService = userDetailsService;
+        this.userDetailsPasswordService = userDetailsPasswordService;
         this.jwtAuthenticationPoint = jwtAuthenticationPoint;
         this.jwtAuthenticationTokenFilter = jwtAuthenticationTokenFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -72,10 +87,13 @@ public class SecurityConfig {
                 .exceptionHandling().authenticationEntryPoint(jwtAuthenticationPoint)
                 .and()
                 .addFilterBefore(jwtAuthenticationTokenFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, JwtAuthenticationTokenFilter.class)
                 .authenticationProvider(authenticationProvider())
                 .authorizeRequests(reqConfig -> reqConfig
                         .antMatchers("/registration", "/login", "/refreshtoken", "/confirmation/*",
-                                "/checkname", "/checkemail").permitAll()
+                                "/checkname", "/checkemail", "/suggestname", "/.well-known/jwks.json",
+                                "/actuator/health").permitAll()
+                        .antMatchers("/admin/**", "/actuator/**").hasAuthority(Role.ADMIN.name())
                         .anyRequest().authenticated())
                 .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
@@ -98,6 +116,29 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Фильтр является компонентом, поэтому Spring Boot по умолчанию регистрирует его
+     * еще и в цепочке фильтров контейнера сервлетов. Отключаем эту регистрацию, чтобы
+     * токен проверялся только в цепочке SpringSecurity.
+     */
+    @Bean
+    public FilterRegistrationBean<GenericFilterBean> jwtAuthenticationTokenFilterRegistration() {
+        var registration = new FilterRegistrationBean<>(jwtAuthenticationTokenFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * Регистрация в контейнере сервлетов отключается по той же причине,
+     * что и у {@link #jwtAuthenticationTokenFilterRegistration()}.
+     */
+    @Bean
+    public FilterRegistrationBean<GenericFilterBean> rateLimitFilterRegistration() {
+        var registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public WebSecurityCustomizer webSecurityCustomizer() {
         return web -> web.httpFirewall(httpFirewall());
@@ -120,6 +161,7 @@ public class SecurityConfig {
         var provider = new DaoAuthenticationProvider();
         provider.setPasswordEncoder(passwordEncoder());
         provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
         return provider;
     }
 
@@ -147,8 +189,21 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * Хэши сохраняются с префиксом {@code {bcrypt}}. Старые хэши без префикса
+     * проверяются тем же BCrypt и при входе пересохраняются с префиксом.
+     */
     @Bean
+    @Primary
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        var encoder = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcryptPasswordEncoder()));
+        encoder.setDefaultPasswordEncoderForMatches(bcryptPasswordEncoder());
+        return encoder;
+    }
+
+    @Bean
+    public AdaptiveBCryptPasswordEncoder bcryptPasswordEncoder() {
+        return new AdaptiveBCryptPasswordEncoder(
+                environment.getRequiredProperty("security.hashing.bcryptStrength", Integer.class));
     }
 }
@@ -0,0 +1,196 @@
+package ru.portal.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.portal.repositories.UserRepository;
+import ru.portal.security.events.ImportUsersEvent;
+import ru.portal.security.events.RegistrationUserEvent;
+import ru.portal.security.utilities.BloomFilter;
+
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Вероятностный индекс занятых имен пользователей и электронных адресов
+ * для {@code /checkname} и {@code /checkemail}.
+ * <p>
+ * Имена и адреса приводятся к нижнему регистру и кладутся в два {@link BloomFilter}
+ * на {@code security.identityIndex.expectedInsertions} элементов с долей ложных
+ * срабатываний {@code security.identityIndex.falsePositiveRate}. Если фильтр отвечает,
+ * что значения нет, оно точно свободно и БД не запрашивается. Остальные проверки
+ * уходят в {@link UserRepository}. Приведение регистра только добавляет совпадения,
+ * поэтому занятое значение никогда не считается свободным.
+ * <p>
+ * Фильтры заполняются при запуске потоковым чтением таблицы пользователей, до окончания
+ * загрузки все проверки идут в БД. Новые пользователи добавляются перед фиксацией
+ * транзакции регистрации или импорта, так что строка не становится видна раньше, чем попадает
+ * в фильтр. Удалять из фильтра нельзя, поэтому освободившиеся значения до перезапуска
+ * проверяются через БД.
+ * <p>
+ * Публикуются счетчик {@value LOOKUPS_METRIC} с тегами {@code kind} и {@code result}
+ * ({@code skipped} - БД не запрашивалась, {@code confirmed} - значение занято,
+ * {@code false_positive} - ложное срабатывание) и наблюдаемая доля ложных срабатываний
+ * {@value FALSE_POSITIVE_METRIC} с тегом {@code kind}.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+@Slf4j
+public class UserIdentityIndex {
+
+    static final String LOOKUPS_METRIC = "identity.index.lookups";
+    static final String FALSE_POSITIVE_METRIC = "identity.index.false.positive.rate";
+
+    boolean enabled;
+    UserRepository userRepository;
+    Filter usernames;
+    Filter emails;
+
+    @Autowired
+    public UserIdentityIndex(Environment environment, UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.enabled = environment.getRequiredProperty("security.identityIndex.enabled", Boolean.class);
+        this.userRepository = userRepository;
+
+        var expectedInsertions = environment.getRequiredProperty(
+                "security.identityIndex.expectedInsertions", Long.class);
+        var falsePositiveRate = environment.getRequiredProperty(
+                "security.identityIndex.falsePositiveRate", Double.class);
+        this.usernames = new Filter("username", expectedInsertions, falsePositiveRate, meterRegistry);
+        this.emails = new Filter("email", expectedInsertions, falsePositiveRate, meterRegistry);
+    }
+
+    /**
+     * Заполняет фильтры всеми пользователями из БД.
+     */
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        var start = System.nanoTime();
+        try (var identities = userRepository.streamIdentities()) {
+            identities.forEach(identity -> add(identity.getUsername(), identity.getEmail()));
+        }
+        usernames.ready = true;
+        emails.ready = true;
+        log.info("Индекс имен и адресов загружен за {} мс",
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Добавляет зарегистрированного пользователя перед фиксацией транзакции регистрации.
+     *
+     * @param event событие регистрации пользователя.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRegistration(RegistrationUserEvent event) {
+        add(event.getUser().getUsername(), event.getUser().getEmail());
+    }
+
+    /**
+     * Добавляет импортированных пользователей перед фиксацией транзакции пачки.
+     *
+     * @param event событие импорта пользователей.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onImport(ImportUsersEvent event) {
+        event.getUsers().forEach(user -> add(user.getUsername(), user.getEmail()));
+    }
+
+    /**
+     * Проверяет занято ли имя пользователя.
+     *
+     * @param username имя пользователя.
+     * @param lookup   точная проверка в БД.
+     * @return true если имя занято.
+     */
+    public boolean usernameExists(@NonNull String username, @NonNull Predicate<String> lookup) {
+        return usernames.exists(username, lookup);
+    }
+
+    /**
+     * Проверяет занят ли электронный адрес.
+     *
+     * @param email  электронный адрес.
+     * @param lookup точная проверка в БД.
+     * @return true если адрес занят.
+     */
+    public boolean emailExists(@NonNull String email, @NonNull Predicate<String> lookup) {
+        return emails.exists(email, lookup);
+    }
+
+    void add(String username, String email) {
+        if (username != null) {
+            usernames.filter.put(normalize(username));
+        }
+        if (email != null) {
+            emails.filter.put(normalize(email));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Фильтр одного вида значений и его метрики.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Filter {
+
+        final BloomFilter filter;
+        final Counter skipped;
+        final Counter confirmed;
+        final Counter falsePositives;
+        volatile boolean ready;
+
+        private Filter(String kind, long expectedInsertions, double falsePositiveRate, MeterRegistry meterRegistry) {
+            this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+            this.skipped = meterRegistry.counter(LOOKUPS_METRIC, "kind", kind, "result", "skipped");
+            this.confirmed = meterRegistry.counter(LOOKUPS_METRIC, "kind", kind, "result", "confirmed");
+            this.falsePositives = meterRegistry.counter(LOOKUPS_METRIC, "kind", kind, "result", "false_positive");
+            Gauge.builder(FALSE_POSITIVE_METRIC, this, Filter::falsePositiveRate)
+                    .tag("kind", kind)
+                    .register(meterRegistry);
+        }
+
+        private boolean exists(String value, Predicate<String> lookup) {
+            if (!ready) {
+                return lookup.test(value);
+            }
+            if (!filter.mightContain(normalize(value))) {
+                skipped.increment();
+                return false;
+            }
+            if (lookup.test(value)) {
+                confirmed.increment();
+                return true;
+            }
+            falsePositives.increment();
+            return false;
+        }
+
+        /**
+         * Доля ложных срабатываний среди проверок свободных значений.
+         */
+        private double falsePositiveRate() {
+            var negatives = skipped.count() + falsePositives.count();
+            return negatives == 0 ? 0 : falsePositives.count() / negatives;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package ru.portal.security;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.portal.repositories.UserRepository;
+import ru.portal.security.events.ImportUsersEvent;
+import ru.portal.security.events.RegistrationUserEvent;
+import ru.portal.security.services.exception.UsernameSuggestionException;
+import ru.portal.security.utilities.RadixTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Подбор свободных вариантов занятого имени пользователя без обращения к БД.
+ * <p>
+ * Имена всех пользователей в нижнем регистре лежат в {@link RadixTree}, которое
+ * заполняется при запуске потоковым чтением таблицы пользователей и пополняется
+ * перед фиксацией транзакции регистрации или импорта. Варианты строятся добавлением к имени
+ * номера {@code 1, 2, 3, ...}: среди первых {@code count + k} номеров, где {@code k} -
+ * количество имен с таким префиксом, гарантированно есть {@code count} свободных,
+ * так что подбор стоит O(количество вариантов × длина имени). Слишком длинное имя
+ * обрезается, чтобы вариант поместился в {@value MAX_LENGTH} символа.
+ * <p>
+ * Варианты не резервируются: имя могут занять между подбором и регистрацией,
+ * уникальность по-прежнему проверяет регистрация.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+@Slf4j
+public class UsernameSuggester {
+
+    /**
+     * Максимальная длина имени пользователя, как в {@link ru.portal.entities.dto.request.auth.DtoUserRequest}.
+     */
+    static final int MAX_LENGTH = 32;
+
+    RadixTree usernames = new RadixTree();
+    UserRepository userRepository;
+    int maxCount;
+
+    @Autowired
+    public UsernameSuggester(Environment environment, UserRepository userRepository) {
+        this.userRepository = userRepository;
+        this.maxCount = environment.getRequiredProperty("security.suggestion.maxCount", Integer.class);
+    }
+
+    /**
+     * Заполняет дерево именами всех пользователей из БД.
+     */
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        var start = System.nanoTime();
+        try (var identities = userRepository.streamIdentities()) {
+            identities.forEach(identity -> add(identity.getUsername()));
+        }
+        log.info("Загружено имен для подбора: {} за {} мс", usernames.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Добавляет имя зарегистрированного пользователя перед фиксацией транзакции регистрации.
+     *
+     * @param event событие регистрации пользователя.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRegistration(RegistrationUserEvent event) {
+        add(event.getUser().getUsername());
+    }
+
+    /**
+     * Добавляет имена импортированных пользователей перед фиксацией транзакции пачки.
+     *
+     * @param event событие импорта пользователей.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onImport(ImportUsersEvent event) {
+        event.getUsers().forEach(user -> add(user.getUsername()));
+    }
+
+    /**
+     * Подбирает свободные варианты имени пользователя.
+     *
+     * @param username занятое имя пользователя.
+     * @param count    количество вариантов.
+     * @return варианты в порядке возрастания номера.
+     * @throws UsernameSuggestionException если имя пустое или количество вне {@code 1..maxCount}.
+     */
+    @NonNull
+    public List<String> suggest(@NonNull String username, int count) {
+        var base = username.strip();
+        if (base.isEmpty()) {
+            throw new UsernameSuggestionException("Имя не должно быть пустым");
+        }
+        if (count < 1 || count > maxCount) {
+            throw new UsernameSuggestionException("Количество вариантов должно быть от 1 до " + maxCount);
+        }
+
+        var limit = count + usernames.countWithPrefix(normalize(base));
+        var maxBase = MAX_LENGTH - Integer.toString(limit).length();
+        if (base.length() > maxBase) {
+            base = base.substring(0, maxBase);
+            limit = count + usernames.countWithPrefix(normalize(base));
+        }
+
+        var result = new ArrayList<String>(count);
+        for (int number = 1; number <= limit && result.size() < count; number++) {
+            var candidate = base + number;
+            if (candidate.length() <= MAX_LENGTH && !usernames.contains(normalize(candidate))) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    void add(String username) {
+        if (username != null) {
+            usernames.add(normalize(username));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,155 @@
+package ru.portal.security.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Base64URL без дополнения (RFC 4648 §5) с записью в готовые буферы.
+ * В отличие от {@link java.util.Base64} работает с частью массива и строки
+ * и не создает промежуточных массивов.
+ *
+ * @author Федорышин К.В.
+ */
+final class Base64Url {
+
+    private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base64Url() {
+
+    }
+
+    /**
+     * Длина кодированного представления без дополнения.
+     *
+     * @param length количество байт.
+     * @return количество символов.
+     */
+    static int encodedLength(int length) {
+        var tail = length % 3;
+        return length / 3 * 4 + (tail == 0 ? 0 : tail + 1);
+    }
+
+    /**
+     * Кодирует часть массива.
+     *
+     * @param src    исходные байты.
+     * @param offset начало в исходном массиве.
+     * @param length количество байт.
+     * @param dst    буфер для символов, должен вмещать {@link #encodedLength(int)} байт.
+     * @param dstOff начало в буфере.
+     * @return позиция в буфере после последнего записанного символа.
+     */
+    static int encode(byte[] src, int offset, int length, byte[] dst, int dstOff) {
+        var end = offset + length;
+        var i = offset;
+        var j = dstOff;
+        for (; i + 2 < end; i += 3) {
+            var bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[j++] = ALPHABET[bits >>> 18];
+            dst[j++] = ALPHABET[bits >>> 12 & 0x3F];
+            dst[j++] = ALPHABET[bits >>> 6 & 0x3F];
+            dst[j++] = ALPHABET[bits & 0x3F];
+        }
+        var tail = end - i;
+        if (tail == 1) {
+            var bits = (src[i] & 0xFF) << 16;
+            dst[j++] = ALPHABET[bits >>> 18];
+            dst[j++] = ALPHABET[bits >>> 12 & 0x3F];
+        } else if (tail == 2) {
+            var bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+            dst[j++] = ALPHABET[bits >>> 18];
+            dst[j++] = ALPHABET[bits >>> 12 & 0x3F];
+            dst[j++] = ALPHABET[bits >>> 6 & 0x3F];
+        }
+        return j;
+    }
+
+    /**
+     * Кодирует массив целиком.
+     *
+     * @param src исходные байты.
+     * @return символы в кодировке ASCII.
+     */
+    static byte[] encode(byte[] src) {
+        var dst = new byte[encodedLength(src.length)];
+        encode(src, 0, src.length, dst, 0);
+        return dst;
+    }
+
+    /**
+     * Длина декодированного представления.
+     *
+     * @param length количество символов.
+     * @return количество байт или -1, если такой длины не бывает.
+     */
+    static int decodedLength(int length) {
+        var tail = length % 4;
+        if (tail == 1) {
+            return -1;
+        }
+        return length / 4 * 3 + (tail == 0 ? 0 : tail - 1);
+    }
+
+    /**
+     * Декодирует часть строки. Отклоняет посторонние символы и ненулевые
+     * неиспользуемые биты, поэтому у каждого значения одно представление.
+     *
+     * @param src  строка.
+     * @param from начало, включительно.
+     * @param to   конец, не включительно.
+     * @param dst  буфер, должен вмещать {@link #decodedLength(int)} байт.
+     * @return количество байт или -1, если строка не в Base64URL.
+     */
+    static int decode(CharSequence src, int from, int to, byte[] dst) {
+        if (decodedLength(to - from) < 0) {
+            return -1;
+        }
+        var i = from;
+        var j = 0;
+        for (; i + 3 < to; i += 4) {
+            var bits = value(src.charAt(i)) << 18 | value(src.charAt(i + 1)) << 12
+                    | value(src.charAt(i + 2)) << 6 | value(src.charAt(i + 3));
+            if (bits < 0) {
+                return -1;
+            }
+            dst[j++] = (byte) (bits >> 16);
+            dst[j++] = (byte) (bits >> 8);
+            dst[j++] = (byte) bits;
+        }
+        var tail = to - i;
+        if (tail == 2) {
+            var bits = value(src.charAt(i)) << 18 | value(src.charAt(i + 1)) << 12;
+            if (bits < 0 || (bits & 0xFFFF) != 0) {
+                return -1;
+            }
+            dst[j++] = (byte) (bits >> 16);
+        } else if (tail == 3) {
+            var bits = value(src.charAt(i)) << 18 | value(src.charAt(i + 1)) << 12
+                    | value(src.charAt(i + 2)) << 6;
+            if (bits < 0 || (bits & 0xFF) != 0) {
+                return -1;
+            }
+            dst[j++] = (byte) (bits >> 16);
+            dst[j++] = (byte) (bits >> 8);
+        }
+        return j;
+    }
+
+    /**
+     * Значение символа или -1 для посторонних символов. После сдвига
+     * -1 остается отрицательным, поэтому ошибку видно по знаку группы.
+     */
+    private static int value(char c) {
+        return c < 128 ? DECODE[c] : -1;
+    }
+}
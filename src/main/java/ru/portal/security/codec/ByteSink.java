@@ -0,0 +1,46 @@
+package ru.portal.security.codec;
+
+import java.util.Arrays;
+
+/**
+ * Растущий байтовый буфер, который переиспользуется между вызовами
+ * в пределах одного потока.
+ *
+ * @author Федорышин К.В.
+ */
+final class ByteSink {
+
+    byte[] array;
+    int length;
+
+    ByteSink(int capacity) {
+        this.array = new byte[capacity];
+    }
+
+    void reset() {
+        length = 0;
+    }
+
+    /**
+     * Гарантирует место еще для {@code extra} байт.
+     *
+     * @param extra количество байт.
+     */
+    void ensure(int extra) {
+        var required = length + extra;
+        if (required > array.length) {
+            array = Arrays.copyOf(array, Math.max(required, array.length * 2));
+        }
+    }
+
+    void write(int value) {
+        ensure(1);
+        array[length++] = (byte) value;
+    }
+
+    void write(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, array, length, bytes.length);
+        length += bytes.length;
+    }
+}
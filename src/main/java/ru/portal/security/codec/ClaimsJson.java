@@ -0,0 +1,413 @@
+package ru.portal.security.codec;
+
+import io.jsonwebtoken.Claims;
+import ru.portal.security.services.TokenClaims;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Запись и чтение утверждений токена в виде плоского JSON-объекта
+ * со строковыми, целыми и логическими значениями.
+ * <p>
+ * Все, что выходит за эти рамки (вложенные объекты, массивы, дробные числа,
+ * {@code nbf}), не разбирается: методы возвращают {@code false} или {@code null},
+ * и кодек обрабатывает такой токен через jjwt.
+ *
+ * @author Федорышин К.В.
+ */
+final class ClaimsJson {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Названия утверждений, которые не создаются заново при каждом разборе.
+     */
+    private static final String[] KNOWN_NAMES = {
+            Claims.SUBJECT, Claims.ISSUED_AT, Claims.EXPIRATION, Claims.NOT_BEFORE,
+            TokenClaims.USER_ID, TokenClaims.ROLE, TokenClaims.STATUS, TokenClaims.TOKEN_ID
+    };
+
+    private ClaimsJson() {
+
+    }
+
+    /**
+     * Записывает утверждения в UTF-8.
+     *
+     * @param claims утверждения токена.
+     * @param out    буфер.
+     * @return false если утверждения нельзя записать плоским объектом.
+     */
+    static boolean write(TokenClaims claims, ByteSink out) {
+        if (Objects.isNull(claims.getSubject()) || Objects.isNull(claims.getIssuedAt())
+                || Objects.isNull(claims.getExpiration())) {
+            return false;
+        }
+        out.write('{');
+        writeName(out, Claims.SUBJECT);
+        writeString(out, claims.getSubject());
+        out.write(',');
+        writeName(out, Claims.ISSUED_AT);
+        writeLong(out, claims.getIssuedAt().getEpochSecond());
+        out.write(',');
+        writeName(out, Claims.EXPIRATION);
+        writeLong(out, claims.getExpiration().getEpochSecond());
+
+        for (var claim : claims.getClaims().entrySet()) {
+            var value = claim.getValue();
+            out.write(',');
+            writeName(out, claim.getKey());
+            if (value instanceof String string) {
+                writeString(out, string);
+            } else if (value instanceof Long || value instanceof Integer
+                    || value instanceof Short || value instanceof Byte) {
+                writeLong(out, ((Number) value).longValue());
+            } else if (value instanceof Boolean bool) {
+                writeAscii(out, bool ? "true" : "false");
+            } else {
+                return false;
+            }
+        }
+        out.write('}');
+        return true;
+    }
+
+    /**
+     * Читает утверждения из UTF-8.
+     *
+     * @param json    буфер.
+     * @param length  длина JSON в буфере.
+     * @param scratch буфер для строк с экранированием.
+     * @return утверждения или null, если JSON нельзя разобрать как плоский объект
+     * или в нем нет {@code sub}, {@code iat} и {@code exp}.
+     */
+    static TokenClaims read(byte[] json, int length, StringBuilder scratch) {
+        return new Reader(json, length, scratch).read();
+    }
+
+    private static void writeName(ByteSink out, String name) {
+        writeString(out, name);
+        out.write(':');
+    }
+
+    private static void writeAscii(ByteSink out, String value) {
+        out.ensure(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            out.array[out.length++] = (byte) value.charAt(i);
+        }
+    }
+
+    private static void writeLong(ByteSink out, long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(out, Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+        var digits = 1;
+        for (var rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        out.ensure(digits);
+        for (int i = out.length + digits - 1; i >= out.length; i--) {
+            out.array[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        out.length += digits;
+    }
+
+    private static void writeString(ByteSink out, String value) {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write('\\');
+                out.write('u');
+                out.write('0');
+                out.write('0');
+                out.write(HEX[c >> 4]);
+                out.write(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                out.write(c);
+            } else if (c < 0x800) {
+                out.write(0xC0 | c >> 6);
+                out.write(0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    var codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    out.write(0xF0 | codePoint >> 18);
+                    out.write(0x80 | codePoint >> 12 & 0x3F);
+                    out.write(0x80 | codePoint >> 6 & 0x3F);
+                    out.write(0x80 | codePoint & 0x3F);
+                } else {
+                    out.write('?');
+                }
+            } else {
+                out.write(0xE0 | c >> 12);
+                out.write(0x80 | c >> 6 & 0x3F);
+                out.write(0x80 | c & 0x3F);
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * Разбор одного объекта. Любая неожиданность прекращает разбор с результатом null.
+     */
+    private static final class Reader {
+
+        private final byte[] json;
+        private final int length;
+        private final StringBuilder scratch;
+        private int position;
+        private boolean failed;
+
+        Reader(byte[] json, int length, StringBuilder scratch) {
+            this.json = json;
+            this.length = length;
+            this.scratch = scratch;
+        }
+
+        TokenClaims read() {
+            var builder = TokenClaims.builder();
+            String subject = null;
+            var issuedAt = Long.MIN_VALUE;
+            var expiration = Long.MIN_VALUE;
+
+            skipWhitespace();
+            if (!consume('{')) {
+                return null;
+            }
+            skipWhitespace();
+            if (!consume('}')) {
+                do {
+                    skipWhitespace();
+                    var name = readName();
+                    skipWhitespace();
+                    if (failed || !consume(':')) {
+                        return null;
+                    }
+                    skipWhitespace();
+                    var value = readValue();
+                    if (failed) {
+                        return null;
+                    }
+
+                    switch (name) {
+                        case Claims.SUBJECT -> {
+                            if (!(value instanceof String string)) {
+                                return null;
+                            }
+                            subject = string;
+                        }
+                        case Claims.ISSUED_AT -> {
+                            if (!(value instanceof Long seconds)) {
+                                return null;
+                            }
+                            issuedAt = seconds;
+                        }
+                        case Claims.EXPIRATION -> {
+                            if (!(value instanceof Long seconds)) {
+                                return null;
+                            }
+                            expiration = seconds;
+                        }
+                        case Claims.NOT_BEFORE -> {
+                            return null;
+                        }
+                        default -> builder.claim(name, value);
+                    }
+                    skipWhitespace();
+                } while (consume(','));
+
+                if (!consume('}')) {
+                    return null;
+                }
+            }
+            skipWhitespace();
+            if (position != length || Objects.isNull(subject)
+                    || issuedAt == Long.MIN_VALUE || expiration == Long.MIN_VALUE) {
+                return null;
+            }
+            return builder
+                    .subject(subject)
+                    .issuedAt(Instant.ofEpochSecond(issuedAt))
+                    .expiration(Instant.ofEpochSecond(expiration))
+                    .build();
+        }
+
+        private String readName() {
+            if (position >= length || json[position] != '"') {
+                failed = true;
+                return "";
+            }
+            var start = position + 1;
+            var end = start;
+            while (end < length && json[end] != '"' && json[end] != '\\') {
+                end++;
+            }
+            if (end < length && json[end] == '"') {
+                for (var known : KNOWN_NAMES) {
+                    if (matches(known, start, end)) {
+                        position = end + 1;
+                        return known;
+                    }
+                }
+            }
+            return readString();
+        }
+
+        private boolean matches(String name, int start, int end) {
+            if (name.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (json[start + i] != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Object readValue() {
+            if (position >= length) {
+                failed = true;
+                return null;
+            }
+            var c = json[position];
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                return readLong();
+            }
+            if (consumeLiteral("true")) {
+                return Boolean.TRUE;
+            }
+            if (consumeLiteral("false")) {
+                return Boolean.FALSE;
+            }
+            failed = true;
+            return null;
+        }
+
+        private Long readLong() {
+            var negative = consume('-');
+            var start = position;
+            var value = 0L;
+            while (position < length && json[position] >= '0' && json[position] <= '9') {
+                var digit = json[position++] - '0';
+                if (value > (Long.MAX_VALUE - digit) / 10) {
+                    failed = true;
+                    return null;
+                }
+                value = value * 10 + digit;
+            }
+            if (position == start || (position < length
+                    && (json[position] == '.' || json[position] == 'e' || json[position] == 'E'))) {
+                failed = true;
+                return null;
+            }
+            return negative ? -value : value;
+        }
+
+        private String readString() {
+            position++;
+            var start = position;
+            while (position < length && json[position] != '"' && json[position] != '\\') {
+                if ((json[position] & 0xFF) < 0x20) {
+                    failed = true;
+                    return "";
+                }
+                position++;
+            }
+            if (position < length && json[position] == '"') {
+                return new String(json, start, position++ - start, StandardCharsets.UTF_8);
+            }
+
+            scratch.setLength(0);
+            scratch.append(new String(json, start, position - start, StandardCharsets.UTF_8));
+            while (position < length) {
+                var c = json[position];
+                if (c == '"') {
+                    position++;
+                    return scratch.toString();
+                }
+                if (c != '\\') {
+                    var chunk = position;
+                    while (position < length && json[position] != '"' && json[position] != '\\') {
+                        position++;
+                    }
+                    scratch.append(new String(json, chunk, position - chunk, StandardCharsets.UTF_8));
+                    continue;
+                }
+                if (position + 1 >= length) {
+                    break;
+                }
+                var escaped = json[position + 1];
+                position += 2;
+                switch (escaped) {
+                    case '"', '\\', '/' -> scratch.append((char) escaped);
+                    case 'b' -> scratch.append('\b');
+                    case 'f' -> scratch.append('\f');
+                    case 'n' -> scratch.append('\n');
+                    case 'r' -> scratch.append('\r');
+                    case 't' -> scratch.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > length) {
+                            failed = true;
+                            return "";
+                        }
+                        var code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            var digit = Character.digit(json[position++], 16);
+                            if (digit < 0) {
+                                failed = true;
+                                return "";
+                            }
+                            code = code << 4 | digit;
+                        }
+                        scratch.append((char) code);
+                    }
+                    default -> {
+                        failed = true;
+                        return "";
+                    }
+                }
+            }
+            failed = true;
+            return "";
+        }
+
+        private boolean consumeLiteral(String literal) {
+            if (!matches(literal, position, Math.min(position + literal.length(), length))) {
+                return false;
+            }
+            position += literal.length();
+            return true;
+        }
+
+        private boolean consume(char expected) {
+            if (position < length && json[position] == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < length && (json[position] == ' ' || json[position] == '\t'
+                    || json[position] == '\n' || json[position] == '\r')) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package ru.portal.security.codec;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import ru.portal.configuration.VirtualThreads;
+import ru.portal.security.services.TokenClaims;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Кодек токенов доступа с симметричной подписью HMAC ключом
+ * из {@code security.token.key}. Используется по умолчанию.
+ * <p>
+ * Токены привычного вида (заголовок только с {@code alg}, плоские утверждения)
+ * подписываются и проверяются без jjwt и Jackson: заголовок закодирован заранее,
+ * {@link Mac} и буферы переиспользуются, Base64URL пишется прямо в буфер.
+ * На обычных потоках {@link Mac} и буферы свои у каждого потока. На виртуальных
+ * потоках каждый запрос идет в новом потоке, поэтому они берутся из общего пула
+ * размером с число процессоров: больше токенов одновременно не обрабатывается.
+ * Алгоритм выбирается по длине ключа так же, как в jjwt, поэтому токены
+ * совместимы в обе стороны. Остальные токены обрабатываются через jjwt.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+@ConditionalOnProperty(name = "security.token.algorithm", havingValue = "HS", matchIfMissing = true)
+public class HmacTokenCodec extends JwsTokenCodec {
+
+    SecretKey secretKey;
+    JwtParser parser;
+    SignatureAlgorithm algorithm;
+
+    /**
+     * Закодированный заголовок {@code {"alg":"HSxxx"}}.
+     */
+    byte[] header;
+    String headerSegment;
+    int macLength;
+
+    Workspaces workspaces;
+
+    @Autowired
+    public HmacTokenCodec(Environment environment) {
+        this.secretKey = Keys.hmacShaKeyFor(environment.getRequiredProperty("security.token.key")
+                .getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.algorithm = SignatureAlgorithm.forSigningKey(secretKey);
+        this.header = Base64Url.encode(("{\"alg\":\"" + algorithm.getValue() + "\"}")
+                .getBytes(StandardCharsets.US_ASCII));
+        this.headerSegment = new String(header, StandardCharsets.US_ASCII);
+        this.macLength = newMac().getMacLength();
+        Supplier<Workspace> factory = () -> new Workspace(newMac(), macLength);
+        this.workspaces = VirtualThreads.isEnabled(environment)
+                ? new PooledWorkspaces(factory, Runtime.getRuntime().availableProcessors())
+                : new ThreadWorkspaces(factory);
+    }
+
+    @Override
+    protected JwtParser getParser() {
+        return parser;
+    }
+
+    @Override
+    protected JwtBuilder sign(JwtBuilder builder) {
+        return builder.signWith(secretKey, algorithm);
+    }
+
+    @NonNull
+    @Override
+    public String encode(@NonNull TokenClaims claims) {
+        var workspace = workspaces.acquire();
+        try {
+            return encodeCompact(claims, workspace);
+        } finally {
+            workspaces.release(workspace);
+        }
+    }
+
+    private String encodeCompact(TokenClaims claims, Workspace workspace) {
+        var json = workspace.json;
+        json.reset();
+        if (!ClaimsJson.write(claims, json)) {
+            return super.encode(claims);
+        }
+
+        var token = workspace.token;
+        token.reset();
+        token.ensure(header.length + Base64Url.encodedLength(json.length)
+                + Base64Url.encodedLength(macLength) + 2);
+        token.write(header);
+        token.write('.');
+        token.length = Base64Url.encode(json.array, 0, json.length, token.array, token.length);
+
+        workspace.sign(token.array, token.length);
+        token.write('.');
+        token.length = Base64Url.encode(workspace.digest, 0, macLength, token.array, token.length);
+        return new String(token.array, 0, token.length, StandardCharsets.US_ASCII);
+    }
+
+    @NonNull
+    @Override
+    public TokenClaims decode(@NonNull String token) {
+        var headerLength = headerSegment.length();
+        if (token.length() <= headerLength || token.charAt(headerLength) != '.'
+                || !token.startsWith(headerSegment)) {
+            return super.decode(token);
+        }
+        var payloadEnd = token.indexOf('.', headerLength + 1);
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw new MalformedJwtException("Токен должен состоять из трех частей");
+        }
+
+        var workspace = workspaces.acquire();
+        try {
+            return decodeCompact(token, payloadEnd, workspace);
+        } finally {
+            workspaces.release(workspace);
+        }
+    }
+
+    private TokenClaims decodeCompact(String token, int payloadEnd, Workspace workspace) {
+        var headerLength = headerSegment.length();
+        var input = workspace.token;
+        input.reset();
+        input.ensure(payloadEnd);
+        for (int i = 0; i < payloadEnd; i++) {
+            var c = token.charAt(i);
+            if (c >= 0x80) {
+                throw new MalformedJwtException("Токен содержит недопустимые символы");
+            }
+            input.array[i] = (byte) c;
+        }
+        workspace.sign(input.array, payloadEnd);
+
+        var signatureStart = payloadEnd + 1;
+        if (token.length() - signatureStart != Base64Url.encodedLength(macLength)
+                || Base64Url.decode(token, signatureStart, token.length(), workspace.signature) != macLength
+                || !workspace.signatureMatches()) {
+            throw new SignatureException("Подпись токена недействительна");
+        }
+
+        var payload = workspace.payload;
+        payload.reset();
+        payload.ensure(Math.max(Base64Url.decodedLength(payloadEnd - headerLength - 1), 0));
+        payload.length = Base64Url.decode(token, headerLength + 1, payloadEnd, payload.array);
+        if (payload.length < 0) {
+            throw new MalformedJwtException("Утверждения токена не в Base64URL");
+        }
+
+        var claims = ClaimsJson.read(payload.array, payload.length, workspace.text);
+        if (claims == null) {
+            return super.decode(token);
+        }
+        if (claims.isExpired(Instant.now())) {
+            throw new ExpiredJwtException(null, null, "Время жизни токена истекло");
+        }
+        return claims;
+    }
+
+    private Mac newMac() {
+        try {
+            var mac = Mac.getInstance(algorithm.getJcaName());
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Источник {@link Workspace} для одной операции.
+     */
+    private interface Workspaces {
+
+        Workspace acquire();
+
+        void release(Workspace workspace);
+    }
+
+    /**
+     * {@link Workspace} свой у каждого потока.
+     */
+    private static final class ThreadWorkspaces implements Workspaces {
+
+        final ThreadLocal<Workspace> workspaces;
+
+        ThreadWorkspaces(Supplier<Workspace> factory) {
+            this.workspaces = ThreadLocal.withInitial(factory);
+        }
+
+        @Override
+        public Workspace acquire() {
+            return workspaces.get();
+        }
+
+        @Override
+        public void release(Workspace workspace) {
+
+        }
+    }
+
+    /**
+     * Ограниченный пул {@link Workspace}. Если пул пуст, создается новый экземпляр,
+     * если полон, возвращаемый экземпляр отбрасывается.
+     */
+    private static final class PooledWorkspaces implements Workspaces {
+
+        final Supplier<Workspace> factory;
+        final ArrayBlockingQueue<Workspace> pool;
+
+        PooledWorkspaces(Supplier<Workspace> factory, int capacity) {
+            this.factory = factory;
+            this.pool = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public Workspace acquire() {
+            var workspace = pool.poll();
+            return workspace != null ? workspace : factory.get();
+        }
+
+        @Override
+        public void release(Workspace workspace) {
+            pool.offer(workspace);
+        }
+    }
+
+    /**
+     * {@link Mac} и буферы одной операции.
+     */
+    private static final class Workspace {
+
+        final Mac mac;
+        final byte[] digest;
+        final byte[] signature;
+        final ByteSink json = new ByteSink(256);
+        final ByteSink token = new ByteSink(512);
+        final ByteSink payload = new ByteSink(256);
+        final StringBuilder text = new StringBuilder();
+
+        Workspace(Mac mac, int macLength) {
+            this.mac = mac;
+            this.digest = new byte[macLength];
+            this.signature = new byte[Base64Url.decodedLength(Base64Url.encodedLength(macLength))];
+        }
+
+        void sign(byte[] input, int length) {
+            mac.reset();
+            mac.update(input, 0, length);
+            try {
+                mac.doFinal(digest, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Сравнивает подписи за время, не зависящее от места первого отличия.
+         */
+        boolean signatureMatches() {
+            var difference = 0;
+            for (int i = 0; i < digest.length; i++) {
+                difference |= digest[i] ^ signature[i];
+            }
+            return difference == 0;
+        }
+    }
+}
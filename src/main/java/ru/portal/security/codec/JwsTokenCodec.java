@@ -0,0 +1,74 @@
+package ru.portal.security.codec;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import org.springframework.lang.NonNull;
+import ru.portal.security.services.TokenClaims;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Общая часть кодеков на основе jjwt. Наследники задают ключ подписи
+ * и способ выбора ключа проверки.
+ *
+ * @author Федорышин К.В.
+ */
+public abstract class JwsTokenCodec implements TokenCodec {
+
+    static final Set<String> REGISTERED_CLAIMS = Set.of(Claims.SUBJECT, Claims.ISSUED_AT, Claims.EXPIRATION);
+
+    /**
+     * Парсер потокобезопасен, поэтому наследники создают его один раз.
+     *
+     * @return парсер токенов доступа.
+     */
+    protected abstract JwtParser getParser();
+
+    /**
+     * Добавляет к токену заголовки и подпись.
+     *
+     * @param builder токен с утверждениями.
+     * @return подписанный токен.
+     */
+    protected abstract JwtBuilder sign(JwtBuilder builder);
+
+    @NonNull
+    @Override
+    public String encode(@NonNull TokenClaims claims) {
+        var builder = Jwts.builder()
+                .setSubject(claims.getSubject())
+                .setIssuedAt(Date.from(claims.getIssuedAt()))
+                .setExpiration(Date.from(claims.getExpiration()))
+                .addClaims(claims.getClaims());
+        return sign(builder).compact();
+    }
+
+    @NonNull
+    @Override
+    public TokenClaims decode(@NonNull String token) {
+        return toTokenClaims(getParser().parseClaimsJws(token).getBody());
+    }
+
+    static TokenClaims toTokenClaims(Claims body) {
+        if (Objects.isNull(body.getSubject()) || Objects.isNull(body.getIssuedAt())
+                || Objects.isNull(body.getExpiration())) {
+            throw new MalformedJwtException("В токене нет имени пользователя или времени жизни");
+        }
+        var builder = TokenClaims.builder()
+                .subject(body.getSubject())
+                .issuedAt(body.getIssuedAt().toInstant())
+                .expiration(body.getExpiration().toInstant());
+
+        body.forEach((name, value) -> {
+            if (!REGISTERED_CLAIMS.contains(name)) {
+                builder.claim(name, value);
+            }
+        });
+        return builder.build();
+    }
+}
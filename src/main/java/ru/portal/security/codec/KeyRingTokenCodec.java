@@ -0,0 +1,69 @@
+package ru.portal.security.codec;
+
+import io.jsonwebtoken.*;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+
+/**
+ * Кодек токенов доступа с асимметричной подписью ES256. Токен подписывается
+ * активным ключом из {@link SigningKeyRing} и содержит его {@code kid} в заголовке,
+ * ключ проверки выбирается по {@code kid} за O(1). Другие сервисы могут проверять
+ * токены сами по открытым ключам из JWKS.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+@ConditionalOnProperty(name = "security.token.algorithm", havingValue = "ES256")
+public class KeyRingTokenCodec extends JwsTokenCodec {
+
+    SigningKeyRing keyRing;
+    JwtParser parser;
+
+    @Autowired
+    public KeyRingTokenCodec(SigningKeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyIdResolver(keyRing))
+                .build();
+    }
+
+    @Override
+    protected JwtParser getParser() {
+        return parser;
+    }
+
+    @Override
+    protected JwtBuilder sign(JwtBuilder builder) {
+        var signingKey = keyRing.getSigningKey();
+        return builder
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.getKid())
+                .signWith(signingKey.getPrivateKey(), SignatureAlgorithm.ES256);
+    }
+
+    /**
+     * Выбирает ключ проверки по {@code kid}, токены с другим алгоритмом отклоняются.
+     */
+    private static final class KeyIdResolver extends SigningKeyResolverAdapter {
+
+        private final SigningKeyRing keyRing;
+
+        KeyIdResolver(SigningKeyRing keyRing) {
+            this.keyRing = keyRing;
+        }
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            if (!SignatureAlgorithm.ES256.getValue().equals(header.getAlgorithm())) {
+                throw new UnsupportedJwtException("Неподдерживаемый алгоритм подписи " + header.getAlgorithm());
+            }
+            return keyRing.getVerificationKey(header.getKeyId())
+                    .orElseThrow(() -> new UnsupportedJwtException("Неизвестный ключ " + header.getKeyId()));
+        }
+    }
+}
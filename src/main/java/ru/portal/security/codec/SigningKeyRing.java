@@ -0,0 +1,258 @@
+package ru.portal.security.codec;
+
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Набор ключей ES256 для подписи токенов доступа, индексированный по {@code kid}.
+ * <p>
+ * Ключи читаются из каталога {@code security.token.keyRing.directory}: для каждого
+ * {@code kid} открытый ключ лежит в {@code <kid>.pub.pem} (X.509), закрытый в
+ * {@code <kid>.pem} (PKCS#8). Узлы, которые только проверяют токены, могут
+ * хранить одни открытые ключи.
+ * <p>
+ * Ротация без простоя: новый ключ сначала публикуется в JWKS и начинает подписывать
+ * токены только через {@code security.token.keyRing.publishDelayInSecond} секунд после
+ * появления файла, чтобы другие сервисы успели обновить закэшированный JWKS. Старый ключ
+ * продолжает проверять токены, пока его файлы не удалены; удалять их стоит не раньше,
+ * чем истечет время жизни последнего подписанного им токена.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Component
+@ConditionalOnProperty(name = "security.token.algorithm", havingValue = "ES256")
+@Slf4j
+public class SigningKeyRing {
+
+    static final String PUBLIC_KEY_SUFFIX = ".pub.pem";
+    static final String PRIVATE_KEY_SUFFIX = ".pem";
+
+    final Path directory;
+    final Duration publishDelay;
+    final KeyFactory keyFactory;
+
+    volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @Autowired
+    public SigningKeyRing(Environment environment) throws GeneralSecurityException {
+        this.directory = Path.of(environment.getRequiredProperty("security.token.keyRing.directory"));
+        this.publishDelay = Duration.ofSeconds(
+                environment.getRequiredProperty("security.token.keyRing.publishDelayInSecond", Long.class));
+        this.keyFactory = KeyFactory.getInstance("EC");
+    }
+
+    /**
+     * Ключ, которым сейчас подписываются токены.
+     *
+     * @return активный ключ подписи.
+     * @throws IllegalStateException бросаеться если на узле нет закрытых ключей.
+     */
+    @NonNull
+    public SigningKey getSigningKey() {
+        var active = snapshot.active;
+        if (Objects.isNull(active)) {
+            throw new IllegalStateException("Нет закрытого ключа для подписи токенов");
+        }
+        return active;
+    }
+
+    /**
+     * Ищет открытый ключ проверки по {@code kid} из заголовка токена.
+     *
+     * @param kid идентификатор ключа.
+     * @return открытый ключ или {@link Optional#empty()}, если ключа нет в наборе.
+     */
+    public Optional<PublicKey> getVerificationKey(String kid) {
+        if (Objects.isNull(kid)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(snapshot.publicKeys.get(kid));
+    }
+
+    /**
+     * Набор открытых ключей в формате JWKS (RFC 7517).
+     *
+     * @return тело ответа JWKS.
+     */
+    @NonNull
+    public Map<String, Object> getJwks() {
+        return snapshot.jwks;
+    }
+
+    /**
+     * Перечитывает каталог ключей и заново выбирает активный ключ.
+     * Новый набор подменяет старый целиком, поэтому чтение ключей не блокируется.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${security.token.keyRing.reloadIntervalInMs}")
+    public void reload() {
+        try (var files = Files.list(directory)) {
+            var entries = new ArrayList<KeyEntry>();
+            files.filter(file -> file.getFileName().toString().endsWith(PUBLIC_KEY_SUFFIX))
+                    .forEach(file -> readEntry(file).ifPresent(entries::add));
+
+            var next = Snapshot.of(entries, selectActive(entries));
+            if (!next.jwks.equals(snapshot.jwks) || !sameKid(next.active, snapshot.active)) {
+                log.info("Набор ключей обновлен: ключей {}, активный {}", entries.size(),
+                        Objects.isNull(next.active) ? "нет" : next.active.getKid());
+            }
+            snapshot = next;
+        } catch (IOException e) {
+            log.error("Не удалось прочитать каталог ключей {}", directory, e);
+        }
+    }
+
+    private SigningKey selectActive(List<KeyEntry> entries) {
+        var publishedBefore = Instant.now().minus(publishDelay);
+        var comparator = Comparator.comparing((KeyEntry entry) -> entry.publishedAt)
+                .thenComparing(entry -> entry.kid);
+
+        var signing = entries.stream()
+                .filter(entry -> Objects.nonNull(entry.privateKey))
+                .toList();
+
+        return signing.stream()
+                .filter(entry -> !entry.publishedAt.isAfter(publishedBefore))
+                .max(comparator)
+                .or(() -> signing.stream().max(comparator))
+                .map(entry -> new SigningKey(entry.kid, entry.privateKey))
+                .orElse(null);
+    }
+
+    private Optional<KeyEntry> readEntry(Path publicFile) {
+        var name = publicFile.getFileName().toString();
+        var kid = name.substring(0, name.length() - PUBLIC_KEY_SUFFIX.length());
+        try {
+            var publicKey = (ECPublicKey) keyFactory.generatePublic(new X509EncodedKeySpec(readPem(publicFile)));
+            if (publicKey.getParams().getCurve().getField().getFieldSize() != 256) {
+                log.error("Ключ {} не на кривой P-256 и пропущен", kid);
+                return Optional.empty();
+            }
+
+            var privateFile = publicFile.resolveSibling(kid + PRIVATE_KEY_SUFFIX);
+            PrivateKey privateKey = null;
+            if (Files.exists(privateFile)) {
+                privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readPem(privateFile)));
+            }
+
+            var publishedAt = Files.getLastModifiedTime(publicFile).toInstant();
+            return Optional.of(new KeyEntry(kid, publicKey, privateKey, publishedAt));
+        } catch (IOException | GeneralSecurityException | ClassCastException e) {
+            log.error("Не удалось прочитать ключ {}", kid, e);
+            return Optional.empty();
+        }
+    }
+
+    private static byte[] readPem(Path file) throws IOException {
+        var base64 = new StringBuilder();
+        for (var line : Files.readAllLines(file, StandardCharsets.US_ASCII)) {
+            if (!line.startsWith("-----")) {
+                base64.append(line.trim());
+            }
+        }
+        return Base64.getDecoder().decode(base64.toString());
+    }
+
+    private static boolean sameKid(SigningKey first, SigningKey second) {
+        return Objects.equals(Objects.isNull(first) ? null : first.getKid(),
+                Objects.isNull(second) ? null : second.getKid());
+    }
+
+    /**
+     * Ключ подписи вместе с его идентификатором.
+     */
+    @Value
+    public static class SigningKey {
+        String kid;
+        PrivateKey privateKey;
+    }
+
+    private static final class KeyEntry {
+
+        final String kid;
+        final ECPublicKey publicKey;
+        final PrivateKey privateKey;
+        final Instant publishedAt;
+
+        KeyEntry(String kid, ECPublicKey publicKey, PrivateKey privateKey, Instant publishedAt) {
+            this.kid = kid;
+            this.publicKey = publicKey;
+            this.privateKey = privateKey;
+            this.publishedAt = publishedAt;
+        }
+
+        Map<String, String> toJwk() {
+            var point = publicKey.getW();
+            return Map.of(
+                    "kty", "EC",
+                    "crv", "P-256",
+                    "use", "sig",
+                    "alg", "ES256",
+                    "kid", kid,
+                    "x", coordinate(point.getAffineX()),
+                    "y", coordinate(point.getAffineY()));
+        }
+
+        private static String coordinate(BigInteger value) {
+            var bytes = value.toByteArray();
+            var result = new byte[32];
+            var length = Math.min(bytes.length, result.length);
+            System.arraycopy(bytes, bytes.length - length, result, result.length - length, length);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(result);
+        }
+    }
+
+    /**
+     * Неизменяемый снимок набора ключей.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), null, Map.of("keys", List.of()));
+
+        final Map<String, PublicKey> publicKeys;
+        final SigningKey active;
+        final Map<String, Object> jwks;
+
+        Snapshot(Map<String, PublicKey> publicKeys, SigningKey active, Map<String, Object> jwks) {
+            this.publicKeys = publicKeys;
+            this.active = active;
+            this.jwks = jwks;
+        }
+
+        static Snapshot of(List<KeyEntry> entries, SigningKey active) {
+            var publicKeys = new HashMap<String, PublicKey>();
+            var jwks = new ArrayList<Map<String, String>>();
+            for (var entry : entries) {
+                publicKeys.put(entry.kid, entry.publicKey);
+                jwks.add(entry.toJwk());
+            }
+            return new Snapshot(Map.copyOf(publicKeys), active, Map.of("keys", List.copyOf(jwks)));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.portal.security.codec;
+
+import org.springframework.lang.NonNull;
+import ru.portal.security.services.TokenClaims;
+
+/**
+ * Интерфейс для подписи и проверки токенов доступа в компактном формате JWS.
+ *
+ * @author Федорышин К.В.
+ */
+public interface TokenCodec {
+
+    /**
+     * Подписывает утверждения и формирует токен доступа.
+     *
+     * @param claims утверждения токена.
+     * @return токен доступа без "Bearer_".
+     */
+    @NonNull
+    String encode(@NonNull TokenClaims claims);
+
+    /**
+     * Проверяет подпись и время жизни токена и извлекает из него утверждения.
+     *
+     * @param token токен доступа без "Bearer_".
+     * @return утверждения токена.
+     * @throws io.jsonwebtoken.ExpiredJwtException бросаеться если время жизни токена истекло.
+     * @throws io.jsonwebtoken.JwtException        бросаеться если токен недействителен.
+     */
+    @NonNull
+    TokenClaims decode(@NonNull String token);
+}
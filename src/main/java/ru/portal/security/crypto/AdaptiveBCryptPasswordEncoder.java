@@ -0,0 +1,103 @@
+package ru.portal.security.crypto;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt с изменяемой во время работы сложностью.
+ * <p>
+ * Новые хэши создаются с текущей сложностью, проверяются хэши любой сложности.
+ * {@link #upgradeEncoding(String)} возвращает true, только если сложность хэша меньше
+ * текущей, поэтому {@link org.springframework.security.authentication.dao.DaoAuthenticationProvider}
+ * пересчитывает хэш при успешном входе и сложность можно повышать без сброса паролей.
+ * Хэш большей сложности не понижается: после снижения сложности он остается прежним.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    static final int MIN_STRENGTH = 4;
+    static final int MAX_STRENGTH = 31;
+
+    /**
+     * Сложность и кодировщик меняются вместе одной записью.
+     */
+    volatile Current current;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        setStrength(strength);
+    }
+
+    /**
+     * Текущая сложность для новых хэшей.
+     *
+     * @return логарифм количества раундов.
+     */
+    public int getStrength() {
+        return current.strength;
+    }
+
+    /**
+     * Меняет сложность для новых хэшей. Уже сохраненные хэши будут
+     * пересчитаны при следующем успешном входе пользователя.
+     *
+     * @param strength логарифм количества раундов от 4 до 31.
+     */
+    public void setStrength(int strength) {
+        if (strength < MIN_STRENGTH || strength > MAX_STRENGTH) {
+            throw new IllegalArgumentException("Сложность BCrypt должна быть от 4 до 31");
+        }
+        this.current = new Current(strength, new BCryptPasswordEncoder(strength));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return current.encoder.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return current.encoder.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * Проверяет, что строка является хэшем BCrypt без префикса алгоритма.
+     *
+     * @param value строка.
+     * @return true если строка - хэш BCrypt.
+     */
+    public static boolean isBCryptHash(String value) {
+        return value != null && BCRYPT_PATTERN.matcher(value).matches();
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (Objects.isNull(encodedPassword)) {
+            return false;
+        }
+        var matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(1)) < getStrength();
+    }
+
+    private static final class Current {
+
+        final int strength;
+        final BCryptPasswordEncoder encoder;
+
+        Current(int strength, BCryptPasswordEncoder encoder) {
+            this.strength = strength;
+            this.encoder = encoder;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ru.portal.security.crypto;
+
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import ru.portal.entities.Setting;
+import ru.portal.repositories.SettingRepository;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Подбирает сложность BCrypt под целевое время хэширования и держит ее общей для всех узлов.
+ * <p>
+ * Сложность перебирается от {@code security.hashing.calibration.minStrength} вверх,
+ * для каждой берется медиана из нескольких замеров. Выбирается наибольшая сложность,
+ * укладывающаяся в {@code security.hashing.calibration.targetInMs}, но не меньше
+ * минимальной. Калибровка выполняется по запросу администратора и при запуске, если
+ * {@code security.hashing.calibration.enabled=true} и общая сложность еще не сохранена.
+ * <p>
+ * Выбранная или заданная администратором сложность сохраняется в таблицу настроек
+ * под именем {@value STRENGTH_SETTING}, каждый узел перечитывает ее раз в
+ * {@code security.hashing.strengthRefreshInMs} мс. Поэтому все узлы хэшируют с одной
+ * сложностью независимо от своего оборудования, и хэши пользователей не пересчитываются
+ * туда и обратно при входе через разные узлы.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+@Slf4j
+public class PasswordEncoderCalibrator {
+
+    static final int SAMPLES = 3;
+    static final String SAMPLE_PASSWORD = "calibration-password";
+    static final String STRENGTH_SETTING = "security.hashing.bcryptStrength";
+
+    AdaptiveBCryptPasswordEncoder encoder;
+    SettingRepository settingRepository;
+    boolean enabled;
+    Duration target;
+    int minStrength;
+    int maxStrength;
+
+    @Autowired
+    public PasswordEncoderCalibrator(AdaptiveBCryptPasswordEncoder encoder,
+                                     SettingRepository settingRepository,
+                                     Environment environment) {
+        this.encoder = encoder;
+        this.settingRepository = settingRepository;
+        this.enabled = environment.getRequiredProperty("security.hashing.calibration.enabled", Boolean.class);
+        this.target = Duration.ofMillis(
+                environment.getRequiredProperty("security.hashing.calibration.targetInMs", Long.class));
+        this.minStrength = environment.getRequiredProperty("security.hashing.calibration.minStrength", Integer.class);
+        this.maxStrength = environment.getRequiredProperty("security.hashing.calibration.maxStrength", Integer.class);
+    }
+
+    /**
+     * Применяет общую сложность, а если ее еще нет, калибрует и сохраняет свою.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!refresh() && enabled) {
+            calibrate();
+        }
+    }
+
+    /**
+     * Перечитывает общую сложность из таблицы настроек.
+     *
+     * @return true если общая сложность сохранена.
+     */
+    @Scheduled(fixedDelayString = "${security.hashing.strengthRefreshInMs}")
+    public boolean refresh() {
+        var setting = settingRepository.findById(STRENGTH_SETTING);
+        if (setting.isEmpty()) {
+            return false;
+        }
+        try {
+            var strength = Integer.parseInt(setting.get().getValue());
+            if (strength != encoder.getStrength()) {
+                var previous = encoder.getStrength();
+                encoder.setStrength(strength);
+                log.info("Сложность BCrypt {} -> {} из общих настроек", previous, strength);
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("Неверная общая сложность BCrypt: {}", setting.get().getValue());
+        }
+        return true;
+    }
+
+    /**
+     * Устанавливает сложность на всех узлах.
+     *
+     * @param strength логарифм количества раундов от 4 до 31.
+     * @return сложность до изменения.
+     * @throws IllegalArgumentException если сложность вне допустимых границ.
+     */
+    public int setStrength(int strength) {
+        var previous = encoder.getStrength();
+        encoder.setStrength(strength);
+        publish(strength);
+        return previous;
+    }
+
+    /**
+     * Подбирает сложность на оборудовании этого узла и устанавливает ее на всех узлах.
+     *
+     * @return результат калибровки.
+     */
+    @NonNull
+    public Calibration calibrate() {
+        var strength = minStrength;
+        var duration = measure(minStrength);
+        while (strength < maxStrength) {
+            var next = measure(strength + 1);
+            if (next.compareTo(target) > 0) {
+                break;
+            }
+            strength++;
+            duration = next;
+        }
+
+        var previous = encoder.getStrength();
+        encoder.setStrength(strength);
+        publish(strength);
+        log.info("Сложность BCrypt {} -> {}, хэширование {} мс при цели {} мс",
+                previous, strength, duration.toMillis(), target.toMillis());
+        return new Calibration(previous, strength, duration);
+    }
+
+    private void publish(int strength) {
+        settingRepository.save(Setting.builder()
+                .name(STRENGTH_SETTING)
+                .value(Integer.toString(strength))
+                .build());
+    }
+
+    private static Duration measure(int strength) {
+        var bcrypt = new BCryptPasswordEncoder(strength);
+        var hash = bcrypt.encode(SAMPLE_PASSWORD);
+        var samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            var start = System.nanoTime();
+            bcrypt.matches(SAMPLE_PASSWORD, hash);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return Duration.ofNanos(samples[SAMPLES / 2]);
+    }
+
+    /**
+     * Результат калибровки: сложность до и после и время хэширования с выбранной сложностью.
+     */
+    @Value
+    public static class Calibration {
+        int previousStrength;
+        int strength;
+        Duration duration;
+    }
+}
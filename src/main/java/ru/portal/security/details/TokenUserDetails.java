@@ -0,0 +1,100 @@
+package ru.portal.security.details;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import ru.portal.entities.Role;
+import ru.portal.entities.Status;
+import ru.portal.security.services.TokenClaims;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * Реализация {@link UserDetails}, собранная из проверенных утверждений токена доступа
+ * без обращения к хранилищу. Пароль не хранится.
+ *
+ * @author Федорышин К.В.
+ * @see ru.portal.security.details.UserDetailsImpl
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class TokenUserDetails implements UserDetails {
+
+    @Getter
+    Long id;
+    String username;
+    Role role;
+    Status status;
+
+    private TokenUserDetails(Long id, String username, Role role, Status status) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.status = status;
+    }
+
+    /**
+     * Фабричный метод для создания {@link UserDetails} из утверждений токена.
+     *
+     * @param claims проверенные утверждения токена доступа.
+     * @return информация о пользователе или {@link Optional#empty()},
+     * если в токене нет идентификатора, роли или статуса пользователя.
+     */
+    public static Optional<UserDetails> of(@NonNull TokenClaims claims) {
+        var id = claims.getClaim(TokenClaims.USER_ID, Number.class);
+        var role = claims.getClaim(TokenClaims.ROLE, String.class);
+        var status = claims.getClaim(TokenClaims.STATUS, String.class);
+
+        if (id.isEmpty() || role.isEmpty() || status.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new TokenUserDetails(id.get().longValue(), claims.getSubject(),
+                    Role.valueOf(role.get()), Status.valueOf(status.get())));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority(role.toString()));
+    }
+
+    @Override
+    public String getPassword() {
+        return "";
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return !status.equals(Status.BLOCK)
+                && !status.equals(Status.DELETE);
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !status.equals(Status.AWAIT);
+    }
+}
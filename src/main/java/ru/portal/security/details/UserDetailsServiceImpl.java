@@ -3,22 +3,34 @@ package ru.portal.security.details;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.portal.repositories.UserRepository;
+import ru.portal.security.services.LoginContext;
 
 /**
  * Сервис для извлечения пользователя из хранилища и предоставления SpringSecurity
- * {@link UserDetails}
+ * {@link UserDetails}. Результат кэшируется в {@value CACHE_NAME}, записи удаляются
+ * при изменении статуса пользователя. Во время авторизации пользователь берется
+ * из {@link LoginContext} без запроса к БД.
+ * <p>
+ * Реализует {@link UserDetailsPasswordService}, чтобы хэш пароля пересчитывался
+ * при входе, если сложность хэширования изменилась.
  *
  * @author Федорышин К.В.
  * @see ru.portal.security.details.UserDetailsImpl
  */
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    public static final String CACHE_NAME = "userDetails";
 
     UserRepository userRepository;
 
@@ -28,9 +40,30 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     }
 
 
+    @Cacheable(cacheNames = CACHE_NAME)
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return UserDetailsImpl.of(userRepository.findByUsername(username)
+        return UserDetailsImpl.of(LoginContext.getUser(username)
+                .or(() -> userRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("Такого пользователя не существует!")));
     }
+
+    /**
+     * Сохраняет пересчитанный хэш пароля и удаляет пользователя из кэша.
+     *
+     * @param user        пользователь.
+     * @param newPassword новый хэш пароля.
+     * @return пользователь с новым хэшем пароля.
+     */
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#user.username")
+    @Transactional
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        var updated = LoginContext.getUser(user.getUsername())
+                .or(() -> userRepository.findByUsername(user.getUsername()))
+                .orElseThrow(() -> new UsernameNotFoundException("Такого пользователя не существует!"));
+        updated.setPassword(newPassword);
+        return UserDetailsImpl.of(updated);
+    }
 }
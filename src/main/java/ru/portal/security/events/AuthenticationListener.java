@@ -14,14 +14,17 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import ru.portal.entities.Status;
 import ru.portal.entities.auth.ConfirmationToken;
+import ru.portal.entities.auth.LoginAttempt;
 import ru.portal.mail.EmailService;
-import ru.portal.repositories.UserRepository;
+import ru.portal.security.LoginFailureTracker;
 import ru.portal.repositories.auth.ConfirmationTokenRepository;
 import ru.portal.repositories.auth.LoginAttemptRepository;
+import ru.portal.security.services.LoginContext;
 import ru.portal.security.services.UserService;
 import ru.portal.security.utilities.RandomToken;
 
 import java.time.Instant;
+import java.util.Optional;
 
 /**
  * Слушатели для событий авторизации и регистрации
@@ -42,30 +45,36 @@ public class AuthenticationListener {
     @Value("${security.blocking.maxAttempts}")
     Integer maxAttempt;
 
-    final UserRepository userRepository;
+    @Value("${security.blocking.sharedCounter}")
+    boolean sharedCounter;
+
     final LoginAttemptRepository attemptRepository;
     final UserService userService;
     final ConfirmationTokenRepository confirmationTokenRepository;
     final EmailService emailService;
+    final LoginFailureTracker failureTracker;
 
     @Autowired
-    public AuthenticationListener(UserRepository userRepository,
-                                  LoginAttemptRepository attemptRepository,
+    public AuthenticationListener(LoginAttemptRepository attemptRepository,
                                   UserService userService,
                                   ConfirmationTokenRepository confirmationTokenRepository,
-                                  EmailService emailService) {
-        this.userRepository = userRepository;
+                                  EmailService emailService,
+                                  LoginFailureTracker failureTracker) {
         this.attemptRepository = attemptRepository;
         this.userService = userService;
         this.confirmationTokenRepository = confirmationTokenRepository;
         this.emailService = emailService;
+        this.failureTracker = failureTracker;
     }
 
     /**
-     * При неверных учетных данных, метод исщет пользователя в БД
-     * и в случае его сущестования увеличивает счетчик попыток на единицу, если
-     * счетчик равен максимальному допустимому значению обнуляет счетчик и блокирует
-     * пользователя на заданое время.
+     * При неверных учетных данных учитывает попытку в {@link LoginFailureTracker}.
+     * Если включен {@code security.blocking.sharedCounter}, попытки пользователя
+     * считаются в БД одним атомарным запросом, чтобы счетчик был общим для всех узлов.
+     * Когда счетчик требует блокировки, метод блокирует пользователя на заданое время
+     * без чтения строки попыток. Статус обновляется через {@link UserService#updateStatus},
+     * чтобы пользователь был удален из кэша.
+     * Пользователь берется из {@link LoginContext}, если он открыт.
      *
      * @param event событие неверных учетных данных пользователя.
      */
@@ -74,31 +83,29 @@ public class AuthenticationListener {
     public void onApplicationFailure(AbstractAuthenticationEvent event) {
 
         var username = (String) event.getAuthentication().getPrincipal();
-        var user = userRepository.findByUsername(username);
 
         log.info("{}", username);
 
-        user.ifPresent(u -> {
-
-            var attempt = attemptRepository.findByUser(u)
-                    .orElseThrow(IllegalArgumentException::new);
-
-            if (attempt.getNumberAttempt().equals(maxAttempt)) {
-                attempt.setNumberAttempt(0);
-                attempt.setLockTime(Instant.now().plusSeconds(blockingPeriod).toEpochMilli());
-                u.setStatus(Status.BLOCK);
-                userRepository.save(u);
-            } else {
-                attempt.setNumberAttempt(attempt.getNumberAttempt() + 1);
-            }
-            attemptRepository.save(attempt);
-        });
+        var lockTime = Instant.now().plusSeconds(blockingPeriod).toEpochMilli();
+        var locked = failureTracker.onFailure(username, clientAddress(event));
+        if (sharedCounter) {
+            locked = attemptRepository.incrementOrLock(username, maxAttempt, lockTime);
+        } else if (locked) {
+            locked = attemptRepository.lock(username, 0, lockTime) == 1;
+        }
+
+        if (locked) {
+            findAttempt(username).ifPresent(attempt ->
+                    userService.updateStatus(Status.BLOCK, attempt.getUser()));
+        }
     }
 
 
     /**
-     * При успешной авторизации находит пользователя и его количество
-     * попыток входа после чего обнуляет счетчик.
+     * При успешной авторизации очищает окно неудачных попыток пользователя,
+     * находит пользователя и его количество попыток входа после чего обнуляет счетчик.
+     * Если счетчик уже равен нулю, запрос к БД не выполняется, а сам запрос
+     * изменяет строку только при ненулевом счетчике.
      *
      * @param event событие успешной авторизации пользователя.
      */
@@ -107,14 +114,15 @@ public class AuthenticationListener {
     public void onApplicationSuccess(AbstractAuthenticationEvent event) {
 
         var userDetails = (UserDetails) event.getAuthentication().getPrincipal();
-        var user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(IllegalArgumentException::new);
+        failureTracker.onSuccess(userDetails.getUsername(), clientAddress(event));
 
-        var attempt = attemptRepository.findByUser(user)
+        var attempt = findAttempt(userDetails.getUsername())
                 .orElseThrow(IllegalArgumentException::new);
 
-        attempt.setNumberAttempt(0);
-        attemptRepository.save(attempt);
+        if (attempt.getNumberAttempt() != 0) {
+            attempt.setNumberAttempt(0);
+            attemptRepository.resetNumberAttempt(attempt.getId());
+        }
     }
 
     /**
@@ -131,15 +139,33 @@ public class AuthenticationListener {
 
         var request = event.getRequest();
 
-        userRepository.findByUsername(request.getUsername())
-                .ifPresent(u -> {
-                    if (userService.isTimeBlock(u)) {
-                        userService.updateStatus(Status.ACTIVE, u);
+        findAttempt(request.getUsername())
+                .ifPresent(attempt -> {
+                    if (userService.isTimeBlock(attempt)) {
+                        userService.updateStatus(Status.ACTIVE, attempt.getUser());
                     }
                 });
 
     }
 
+    /**
+     * Адрес клиента передается в деталях аутентификации из
+     * {@link UserService#login(ru.portal.entities.dto.request.auth.DtoUserRequest, String)}.
+     */
+    private static String clientAddress(AbstractAuthenticationEvent event) {
+        var details = event.getAuthentication().getDetails();
+        return details instanceof String ? (String) details : "";
+    }
+
+    /**
+     * Берет попытки входа из {@link LoginContext}, а вне авторизации
+     * загружает их вместе с пользователем одним запросом.
+     */
+    private Optional<LoginAttempt> findAttempt(String username) {
+        return LoginContext.getAttempt(username)
+                .or(() -> attemptRepository.findWithUserByUsername(username));
+    }
+
     /**
      * Создает токен подтверждения аккаунта и сохранят в БД
      * Формирует ссылку на подтверждение регистрации и
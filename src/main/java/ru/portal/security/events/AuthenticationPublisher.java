@@ -4,6 +4,8 @@ import org.springframework.lang.NonNull;
 import ru.portal.entities.User;
 import ru.portal.entities.dto.request.auth.DtoUserRequest;
 
+import java.util.List;
+
 /**
  * Интерфейс предоставляет методы связанные с событиями регистрацией
  * и авторизацией пользователя.
@@ -26,4 +28,11 @@ public interface AuthenticationPublisher {
      */
     void publishEventRegistration(@NonNull User user);
 
+    /**
+     * Метод издает событие после импорта пачки пользователей.
+     *
+     * @param users импортированные пользователи.
+     */
+    void publishEventImport(@NonNull List<User> users);
+
 }
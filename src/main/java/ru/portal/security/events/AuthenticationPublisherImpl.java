@@ -9,9 +9,11 @@ import org.springframework.stereotype.Component;
 import ru.portal.entities.User;
 import ru.portal.entities.dto.request.auth.DtoUserRequest;
 
+import java.util.List;
+
 /**
  * Издает события связаные с регистрацией и авторизацией пользователя
- * Издает события {@link  RegistrationUserEvent} и {@link LoginUserEvent}.
+ * Издает события {@link  RegistrationUserEvent}, {@link ImportUsersEvent} и {@link LoginUserEvent}.
  *
  * @author Федорышин К.В.
  * @see ru.portal.security.events.AuthenticationPublisher
@@ -47,4 +49,14 @@ public class AuthenticationPublisherImpl implements AuthenticationPublisher {
         applicationEventPublisher.publishEvent(new RegistrationUserEvent(this, user));
     }
 
+    /**
+     * Издает событие после импорта пачки пользователей.
+     *
+     * @param users импортированные пользователи.
+     */
+    @Override
+    public void publishEventImport(@NonNull List<User> users) {
+        applicationEventPublisher.publishEvent(new ImportUsersEvent(this, users));
+    }
+
 }
@@ -0,0 +1,29 @@
+package ru.portal.security.events;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.lang.NonNull;
+import ru.portal.entities.User;
+
+import java.util.List;
+
+/**
+ * Событие импорта пачки пользователей, хранит в себе
+ * сущности пользователей {@link User}. Издается в транзакции пачки,
+ * письма подтверждения импортированным пользователям не отправляются.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Getter
+public class ImportUsersEvent extends ApplicationEvent {
+
+    List<User> users;
+
+    public ImportUsersEvent(@NonNull Object source, @NonNull List<User> users) {
+        super(source);
+        this.users = users;
+    }
+}
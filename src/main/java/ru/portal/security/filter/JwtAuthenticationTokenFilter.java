@@ -6,9 +6,13 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.GenericFilterBean;
+import ru.portal.security.details.TokenUserDetails;
+import ru.portal.security.services.TokenClaims;
+import ru.portal.security.services.TokenRevocationService;
 import ru.portal.security.services.TokenService;
 import ru.portal.security.utilities.AuthenticatedUtility;
 
@@ -19,11 +23,21 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Objects;
 
 /**
  * Фильтр аутентифицирует пользователя для доступа к защищенным ресурсам
  * Проверяет наличие заголовка Authorization и время жизни токена.
+ * Подпись токена проверяется один раз за запрос.
+ * <p>
+ * В режиме без сохранения состояния пользователь собирается из утверждений
+ * токена без обращения к БД, пока с момента выпуска токена не прошло
+ * {@code security.token.stateless.maxAgeInSecond} секунд. Более старые токены
+ * проверяются по БД, поэтому блокировка пользователя вступает в силу
+ * не позже этого окна.
+ * <p>
+ * Отозванные при выходе токены отклоняются.
  *
  * @author Федорышин К.В.
  */
@@ -35,14 +49,24 @@ public class JwtAuthenticationTokenFilter extends GenericFilterBean {
     @Value("${security.token.headerAuthorizationName}")
     String headerName;
 
+    @Value("${security.token.stateless.enabled}")
+    boolean stateless;
+
+    @Value("${security.token.stateless.maxAgeInSecond}")
+    Long statelessMaxAge;
+
     final TokenService tokenService;
 
     final UserDetailsService userDetailsService;
 
+    final TokenRevocationService revocationService;
+
     @Autowired
-    public JwtAuthenticationTokenFilter(TokenService tokenService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationTokenFilter(TokenService tokenService, UserDetailsService userDetailsService,
+                                        TokenRevocationService revocationService) {
         this.tokenService = tokenService;
         this.userDetailsService = userDetailsService;
+        this.revocationService = revocationService;
     }
 
 
@@ -60,11 +84,25 @@ public class JwtAuthenticationTokenFilter extends GenericFilterBean {
 
             var token = tokenService.getToken(header);
 
-            if (tokenService.isValidToken(token)) {
-                var user = userDetailsService.loadUserByUsername(tokenService.getUsername(token));
-                AuthenticatedUtility.authentication(user);
-            }
+            tokenService.parseToken(token)
+                    .filter(claims -> !revocationService.isRevoked(claims))
+                    .ifPresent(claims -> {
+                        var user = loadUser(claims);
+                        if (user.isAccountNonLocked() && user.isEnabled()) {
+                            AuthenticatedUtility.authentication(user);
+                        }
+                    });
         }
         chain.doFilter(request, response);
     }
+
+    private UserDetails loadUser(TokenClaims claims) {
+        if (stateless && claims.getIssuedAt().plusSeconds(statelessMaxAge).isAfter(Instant.now())) {
+            var user = TokenUserDetails.of(claims);
+            if (user.isPresent()) {
+                return user.get();
+            }
+        }
+        return userDetailsService.loadUserByUsername(claims.getSubject());
+    }
 }
@@ -0,0 +1,157 @@
+package ru.portal.security.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+import ru.portal.entities.dto.response.auth.DtoFailedResponse;
+import ru.portal.security.utilities.TokenBucket;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничивает частоту запросов к открытым конечным точкам аутентификации
+ * отдельно для каждого маршрута и адреса клиента.
+ * <p>
+ * Маршруты объединены в группы с общими настройками {@code security.rateLimit.<группа>.capacity}
+ * и {@code security.rateLimit.<группа>.refillPerSecond}: {@code hashing} для
+ * {@code /login} и {@code /registration}, {@code refresh} для {@code /refreshtoken},
+ * {@code lookup} для {@code /checkname}, {@code /checkemail} и {@code /suggestname}.
+ * Ведра хранятся в ограниченном {@code security.rateLimit.maximumSize} кэше и
+ * удаляются после {@code security.rateLimit.idleInSecond} секунд простоя.
+ * <p>
+ * Маршрут берется из пути внутри приложения без параметров {@code ;jsessionid},
+ * с объединенными повторными {@code /} и без завершающего {@code /}, поэтому
+ * варианты пути, которые Spring MVC сопоставляет тому же обработчику, попадают
+ * в то же ведро. Повторная асинхронная отправка запросов {@code /login} и
+ * {@code /registration} не фильтруется и второй токен не расходует.
+ * <p>
+ * При превышении лимита возвращается 429 с заранее сериализованным телом
+ * и заголовком {@code Retry-After}, запрос дальше по цепочке не передается.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static String MESSAGE = "Слишком много запросов, повторите попытку позже";
+
+    static Map<String, String> ROUTE_GROUPS = Map.of(
+            "/login", "hashing",
+            "/registration", "hashing",
+            "/refreshtoken", "refresh",
+            "/checkname", "lookup",
+            "/checkemail", "lookup",
+            "/suggestname", "lookup");
+
+    boolean enabled;
+    Map<String, Limit> limits;
+    Cache<String, TokenBucket> buckets;
+
+    @Autowired
+    public RateLimitFilter(Environment environment, ObjectMapper mapper) throws JsonProcessingException {
+        this.enabled = environment.getRequiredProperty("security.rateLimit.enabled", Boolean.class);
+
+        var contextPath = environment.getProperty("server.servlet.context-path", "");
+        var limits = new HashMap<String, Limit>();
+        for (var route : ROUTE_GROUPS.entrySet()) {
+            var prefix = "security.rateLimit." + route.getValue();
+            var body = mapper.writeValueAsBytes(DtoFailedResponse.builder()
+                    .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                    .message(MESSAGE)
+                    .path(contextPath + route.getKey())
+                    .timestamp(null)
+                    .build());
+            limits.put(route.getKey(), new Limit(
+                    environment.getRequiredProperty(prefix + ".capacity", Long.class),
+                    environment.getRequiredProperty(prefix + ".refillPerSecond", Double.class),
+                    body));
+        }
+        this.limits = Map.copyOf(limits);
+
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(environment.getRequiredProperty("security.rateLimit.maximumSize", Long.class))
+                .expireAfterAccess(Duration.ofSeconds(
+                        environment.getRequiredProperty("security.rateLimit.idleInSecond", Long.class)))
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws IOException, ServletException {
+
+        if (enabled) {
+            var path = route(request);
+            var limit = limits.get(path);
+            if (limit != null) {
+                var now = System.nanoTime();
+                var bucket = buckets.get(path + ' ' + request.getRemoteAddr(),
+                        key -> new TokenBucket(limit.capacity, limit.refillPerSecond, now));
+                var wait = bucket.tryConsume(now);
+                if (wait > 0) {
+                    reject(response, limit, wait);
+                    return;
+                }
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Путь запроса внутри приложения в том виде, в каком он задан в {@link #ROUTE_GROUPS}.
+     */
+    static String route(HttpServletRequest request) {
+        var path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        var end = path.length();
+        while (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return path.substring(0, end);
+    }
+
+    private static void reject(HttpServletResponse response, Limit limit, long wait) throws IOException {
+        var retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(limit.body.length);
+        response.getOutputStream().write(limit.body);
+    }
+
+    /**
+     * Настройки ведра маршрута и готовое тело ответа 429.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Limit {
+
+        long capacity;
+        double refillPerSecond;
+        byte[] body;
+
+        private Limit(long capacity, double refillPerSecond, byte[] body) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+            this.body = body;
+        }
+    }
+}
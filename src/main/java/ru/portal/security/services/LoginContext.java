@@ -0,0 +1,77 @@
+package ru.portal.security.services;
+
+import org.springframework.lang.NonNull;
+import ru.portal.entities.User;
+import ru.portal.entities.auth.LoginAttempt;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Пользователь и его попытки входа, загруженные один раз на время авторизации.
+ * Слушатели событий авторизации, {@link org.springframework.security.core.userdetails.UserDetailsService}
+ * и выпуск токенов берут их отсюда вместо повторных запросов к БД.
+ * <p>
+ * Контекст привязан к потоку и живет от {@link #open(LoginAttempt)} до {@link #close()},
+ * поэтому события авторизации должны обрабатываться синхронно.
+ *
+ * @author Федорышин К.В.
+ */
+public final class LoginContext {
+
+    private static final ThreadLocal<LoginAttempt> CURRENT = new ThreadLocal<>();
+
+    private LoginContext() {
+
+    }
+
+    /**
+     * Открывает контекст авторизации.
+     *
+     * @param attempt попытки входа вместе с пользователем.
+     */
+    public static void open(@NonNull LoginAttempt attempt) {
+        CURRENT.set(attempt);
+    }
+
+    /**
+     * Закрывает контекст авторизации.
+     */
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Попытки входа пользователя из текущего контекста.
+     *
+     * @return попытки входа или {@link Optional#empty()}, если контекст не открыт.
+     */
+    public static Optional<LoginAttempt> getAttempt() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Пользователь из текущего контекста с заданным именем.
+     *
+     * @param username имя пользователя.
+     * @return пользователь или {@link Optional#empty()}, если контекст не открыт
+     * или открыт для другого пользователя.
+     */
+    public static Optional<User> getUser(@NonNull String username) {
+        return getAttempt()
+                .map(LoginAttempt::getUser)
+                .filter(user -> Objects.equals(user.getUsername(), username));
+    }
+
+    /**
+     * Попытки входа пользователя из текущего контекста с заданным именем.
+     *
+     * @param username имя пользователя.
+     * @return попытки входа или {@link Optional#empty()}, если контекст не открыт
+     * или открыт для другого пользователя.
+     */
+    public static Optional<LoginAttempt> getAttempt(@NonNull String username) {
+        return getAttempt()
+                .filter(attempt -> Objects.equals(attempt.getUser().getUsername(), username));
+    }
+}
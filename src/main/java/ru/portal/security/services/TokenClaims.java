@@ -0,0 +1,73 @@
+package ru.portal.security.services;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+import org.springframework.lang.NonNull;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Неизменяемое представление утверждений токена доступа, подпись
+ * которого уже проверена.
+ *
+ * @author Федорышин К.В.
+ */
+@Value
+@Builder
+public class TokenClaims {
+
+    /**
+     * Идентификатор пользователя, добавляется в режиме без сохранения состояния.
+     */
+    public static final String USER_ID = "uid";
+
+    /**
+     * Роль пользователя, добавляется в режиме без сохранения состояния.
+     */
+    public static final String ROLE = "role";
+
+    /**
+     * Статус пользователя, добавляется в режиме без сохранения состояния.
+     */
+    public static final String STATUS = "status";
+
+    /**
+     * Идентификатор токена, по нему токен отзывается.
+     */
+    public static final String TOKEN_ID = "jti";
+
+    String subject;
+
+    Instant issuedAt;
+
+    Instant expiration;
+
+    @Singular
+    Map<String, Object> claims;
+
+    /**
+     * Получает дополнительное утверждение токена заданного типа.
+     *
+     * @param name название утверждения.
+     * @param type тип значения утверждения.
+     * @return значение утверждения или {@link Optional#empty()},
+     * если утверждения нет или оно другого типа.
+     */
+    public <T> Optional<T> getClaim(@NonNull String name, @NonNull Class<T> type) {
+        var value = claims.get(name);
+        return type.isInstance(value) ? Optional.of(type.cast(value)) : Optional.empty();
+    }
+
+    /**
+     * Проверяет истекло ли время жизни токена.
+     *
+     * @param now текущий момент времени.
+     * @return true если время жизни истекло иначе false.
+     */
+    public boolean isExpired(@NonNull Instant now) {
+        return expiration.isBefore(now);
+    }
+}
@@ -1,9 +1,12 @@
 package ru.portal.security.services;
 
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import ru.portal.entities.User;
 import ru.portal.entities.auth.RefreshToken;
 import ru.portal.entities.dto.response.auth.DtoAuthenticationResponse;
+import ru.portal.entities.dto.response.auth.DtoSessionPageResponse;
+import ru.portal.security.services.exception.SessionPageException;
 
 import java.util.Optional;
 
@@ -27,6 +30,8 @@ public interface TokenRefreshService {
 
     /**
      * Добавляет токен обновления к пользователю и возращает его.
+     * Если у пользователя становится больше {@code security.token.maxSessionsPerUser}
+     * токенов, самые старые удаляются в той же транзакции.
      *
      * @param user пользователь.
      * @return токен обновления.
@@ -41,5 +46,18 @@ public interface TokenRefreshService {
      */
     void deleteRefreshToken(@NonNull String token);
 
+    /**
+     * Возвращает страницу действующих сессий пользователя, от новых к старым.
+     *
+     * @param username имя пользователя.
+     * @param after    курсор {@link DtoSessionPageResponse#getNext()} предыдущей страницы
+     *                 или null для первой страницы.
+     * @param size     размер страницы.
+     * @return страница сессий.
+     * @throws SessionPageException если курсор или размер страницы неверны.
+     */
+    @NonNull
+    DtoSessionPageResponse findSessions(@NonNull String username, @Nullable String after, int size);
+
     boolean isLifetimeRefreshToken(@NonNull RefreshToken token);
 }
@@ -0,0 +1,26 @@
+package ru.portal.security.services;
+
+import org.springframework.lang.NonNull;
+
+/**
+ * Интерфейс предоставляет методы для отзыва токенов доступа до истечения их времени жизни.
+ *
+ * @author Федорышин К.В.
+ */
+public interface TokenRevocationService {
+
+    /**
+     * Отзывает токен доступа. Токен остается отозванным до истечения его времени жизни.
+     *
+     * @param claims проверенные утверждения токена доступа.
+     */
+    void revoke(@NonNull TokenClaims claims);
+
+    /**
+     * Проверяет отозван ли токен доступа.
+     *
+     * @param claims проверенные утверждения токена доступа.
+     * @return true если токен отозван иначе false.
+     */
+    boolean isRevoked(@NonNull TokenClaims claims);
+}
@@ -1,8 +1,10 @@
 package ru.portal.security.services;
 
 import org.springframework.lang.NonNull;
+import ru.portal.entities.User;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.Optional;
 
 /**
  * Интерфейс с методами для взаимодействия с токенами доступа
@@ -31,6 +33,17 @@ public interface TokenService {
     @NonNull
     String createToken(@NonNull String username, @NonNull Long time);
 
+    /**
+     * Создает токен доступа со стандартным временем для пользователя.
+     * В режиме без сохранения состояния добавляет в токен идентификатор,
+     * роль и статус пользователя.
+     *
+     * @param user пользователь.
+     * @return токен доступа с "Bearer_".
+     */
+    @NonNull
+    String createToken(@NonNull User user);
+
     /**
      * Извлекает из запроса токен доступа и удаляет "Bearer_".
      *
@@ -66,4 +79,16 @@ public interface TokenService {
     @NonNull
     String getUsername(@NonNull String token);
 
+    /**
+     * Проверяет подпись и время жизни токена и за один разбор
+     * извлекает из него утверждения.
+     *
+     * @param token токен доступа.
+     * @return утверждения токена или {@link Optional#empty()},
+     * если токен недействителен.
+     * @see TokenClaims
+     */
+    @NonNull
+    Optional<TokenClaims> parseToken(@NonNull String token);
+
 }
@@ -0,0 +1,21 @@
+package ru.portal.security.services;
+
+/**
+ * Формат файла импорта пользователей.
+ *
+ * @author Федорышин К.В.
+ */
+public enum UserImportFormat {
+
+    /**
+     * CSV с заголовком: {@code username}, {@code email} и {@code password}
+     * или {@code passwordHash}, необязательный {@code status}.
+     */
+    CSV,
+
+    /**
+     * JSON-объект с теми же полями на каждой строке.
+     */
+    NDJSON
+
+}
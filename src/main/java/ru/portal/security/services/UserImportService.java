@@ -0,0 +1,32 @@
+package ru.portal.security.services;
+
+import org.springframework.lang.NonNull;
+import ru.portal.entities.dto.response.admin.DtoUserImportResponse;
+import ru.portal.security.services.exception.ImportFormatException;
+import ru.portal.security.services.exception.ImportInProgressException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Массовый импорт пользователей.
+ *
+ * @author Федорышин К.В.
+ */
+public interface UserImportService {
+
+    /**
+     * Потоково импортирует пользователей. Занятые и повторяющиеся имена и адреса
+     * пропускаются, некорректные записи отклоняются, импорт при этом продолжается.
+     *
+     * @param input  поток файла импорта в UTF-8.
+     * @param format формат файла.
+     * @return итоги импорта.
+     * @throws IOException               если поток не удалось прочитать.
+     * @throws ImportFormatException     если заголовок CSV не разобран или в нем нет обязательных колонок.
+     * @throws ImportInProgressException если импорт уже выполняется.
+     * @see DtoUserImportResponse
+     */
+    DtoUserImportResponse importUsers(@NonNull InputStream input, @NonNull UserImportFormat format) throws IOException;
+
+}
@@ -3,12 +3,15 @@ package ru.portal.security.services;
 import org.springframework.lang.NonNull;
 import ru.portal.entities.Status;
 import ru.portal.entities.User;
+import ru.portal.entities.auth.LoginAttempt;
 import ru.portal.entities.dto.request.auth.DtoUserRequest;
 import ru.portal.entities.dto.response.auth.DtoAuthenticationResponse;
 import ru.portal.entities.dto.response.auth.DtoSuccessRegResponse;
+import ru.portal.entities.dto.response.auth.DtoUsernameSuggestionResponse;
 import ru.portal.security.services.exception.IncorrectCredentialsException;
 import ru.portal.security.services.exception.UserBannedException;
 import ru.portal.security.services.exception.UserExistsException;
+import ru.portal.security.services.exception.UsernameSuggestionException;
 
 /**
  * Интерфейс предоставляет методы для взаимодействия с пользователем.
@@ -42,6 +45,21 @@ public interface UserService {
     DtoAuthenticationResponse login(@NonNull DtoUserRequest request)
             throws IncorrectCredentialsException, UserBannedException;
 
+    /**
+     * Авторизация пользователя в системе с учетом адреса клиента.
+     *
+     * @param request       тело запроса.
+     * @param clientAddress адрес клиента, пустая строка если адрес неизвестен.
+     * @return ответ об успешной авторизации.
+     * @throws IncorrectCredentialsException бросаеться если данные пользователя неверны.
+     * @throws UserBannedException           бросаеться если пользователь или адрес заблокирован.
+     * @see DtoAuthenticationResponse
+     * @see DtoUserRequest
+     */
+    @NonNull
+    DtoAuthenticationResponse login(@NonNull DtoUserRequest request, @NonNull String clientAddress)
+            throws IncorrectCredentialsException, UserBannedException;
+
     /**
      * Проверяет закончилась ли блокировка аккаунта.
      *
@@ -51,6 +69,15 @@ public interface UserService {
      */
     boolean isTimeBlock(@NonNull User user);
 
+    /**
+     * Проверяет закончилась ли блокировка аккаунта по уже загруженным попыткам входа.
+     *
+     * @param attempt попытки входа вместе с пользователем.
+     * @return true если блокировка закончилась иначе false.
+     * @see ru.portal.entities.auth.LoginAttempt
+     */
+    boolean isTimeBlock(@NonNull LoginAttempt attempt);
+
     /**
      * Обновляет стату пользователя.
      *
@@ -68,6 +95,14 @@ public interface UserService {
      */
     void logout(@NonNull String refreshToken);
 
+    /**
+     * Выход пользователя из аккаунта с отзывом токена доступа.
+     *
+     * @param refreshToken токен обновления.
+     * @param accessToken  токен доступа с "Bearer_".
+     */
+    void logout(@NonNull String refreshToken, @NonNull String accessToken);
+
     /**
      * Проверяет существует ли имя пользователя.
      *
@@ -83,4 +118,14 @@ public interface UserService {
      * @return true если адрес существует, false если нет.
      */
     boolean checkEmail(@NonNull String email);
+
+    /**
+     * Подбирает свободные варианты имени пользователя без обращения к БД.
+     *
+     * @param username занятое имя пользователя.
+     * @param count    количество вариантов.
+     * @return ответ со свободными вариантами имени.
+     * @throws UsernameSuggestionException бросаеться если имя пустое или количество вне допустимого диапазона.
+     */
+    DtoUsernameSuggestionResponse suggestUsernames(@NonNull String username, int count);
 }
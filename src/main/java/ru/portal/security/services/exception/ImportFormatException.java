@@ -0,0 +1,32 @@
+package ru.portal.security.services.exception;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Исключение бросаеться если формат файла импорта пользователей не позволяет его прочитать.<br>
+ * Сообщение по умолчанию {@value MESSAGE}
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ImportFormatException extends RuntimeException {
+
+    static String MESSAGE = "Неверный формат файла импорта!";
+
+    public ImportFormatException() {
+        super(MESSAGE);
+    }
+
+    public ImportFormatException(String message) {
+        super(message);
+    }
+
+    public ImportFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ImportFormatException(Throwable cause) {
+        super(MESSAGE, cause);
+    }
+}
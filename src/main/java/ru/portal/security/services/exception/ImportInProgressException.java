@@ -0,0 +1,32 @@
+package ru.portal.security.services.exception;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Исключение бросаеться если импорт пользователей уже выполняется.<br>
+ * Сообщение по умолчанию {@value MESSAGE}
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ImportInProgressException extends RuntimeException {
+
+    static String MESSAGE = "Импорт пользователей уже выполняется!";
+
+    public ImportInProgressException() {
+        super(MESSAGE);
+    }
+
+    public ImportInProgressException(String message) {
+        super(message);
+    }
+
+    public ImportInProgressException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ImportInProgressException(Throwable cause) {
+        super(MESSAGE, cause);
+    }
+}
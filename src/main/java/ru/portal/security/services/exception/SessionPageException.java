@@ -0,0 +1,32 @@
+package ru.portal.security.services.exception;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Исключение бросаеться если курсор или размер страницы сессий неверны.<br>
+ * Сообщение по умолчанию {@value MESSAGE}
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SessionPageException extends RuntimeException {
+
+    static String MESSAGE = "Неверные параметры страницы сессий!";
+
+    public SessionPageException() {
+        super(MESSAGE);
+    }
+
+    public SessionPageException(String message) {
+        super(message);
+    }
+
+    public SessionPageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public SessionPageException(Throwable cause) {
+        super(MESSAGE, cause);
+    }
+}
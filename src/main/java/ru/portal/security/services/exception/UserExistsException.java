@@ -16,6 +16,10 @@ public class UserExistsException extends RuntimeException {
 
     static String MESSAGE = "Такой пользователь уже существует!";
 
+    public static final String LOGIN_EXIST = "Пользователь с таким именем уже существует!";
+
+    public static final String EMAIL_EXIST = "Пользователь с таким электронным адресом уже существует!";
+
     public UserExistsException() {
         super(MESSAGE);
     }
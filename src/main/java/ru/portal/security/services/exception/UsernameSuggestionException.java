@@ -0,0 +1,32 @@
+package ru.portal.security.services.exception;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Исключение бросаеться если параметры подбора имени пользователя неверны.<br>
+ * Сообщение по умолчанию {@value MESSAGE}
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class UsernameSuggestionException extends RuntimeException {
+
+    static String MESSAGE = "Неверные параметры подбора имени!";
+
+    public UsernameSuggestionException() {
+        super(MESSAGE);
+    }
+
+    public UsernameSuggestionException(String message) {
+        super(message);
+    }
+
+    public UsernameSuggestionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public UsernameSuggestionException(Throwable cause) {
+        super(MESSAGE, cause);
+    }
+}
@@ -42,6 +42,8 @@ public class ConfirmationServiceImpl implements ConfirmationService {
     /**
      * Проверяет токен на существования и время жизни пользователя, в случае успеха
      * удаляет токен подтверждения из БД и активирует учетную запись пользователя.
+     * Активация выполняется через {@link UserService#updateStatus}, который удаляет
+     * пользователя из кэша.
      * Если время жизни токена подтверждения истекло то удаляет его из БД и выбрасывает исключения
      * {@link ConfirmationTokenTimeExpiredException}
      *
@@ -0,0 +1,197 @@
+package ru.portal.security.services.impl;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Снимок отозванных токенов в файле, отображенном в память.
+ * <p>
+ * Формат: заголовок из сигнатуры и позиции конца данных, затем записи
+ * {@code [exp: long][длина: byte][jti: ASCII]}. Позиция конца обновляется после
+ * записи, поэтому недописанная при аварии запись просто не читается.
+ * Перезапись готовит новый файл рядом, сбрасывает его на диск и атомарно
+ * подменяет им прежний, так что после аварии остается один из двух полных снимков.
+ * Записывает один поток за раз, чтение выполняется только при запуске.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
+final class RevocationSnapshot {
+
+    static final int MAGIC = 0x52564B31;
+    static final int HEADER_SIZE = 8;
+    static final int END_OFFSET = 4;
+    static final int MAX_ID_LENGTH = 255;
+
+    final Path file;
+    final int size;
+    final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Текущий снимок, заменяется при перезаписи под блокировкой.
+     */
+    MappedByteBuffer buffer;
+
+    RevocationSnapshot(@NonNull Path file, int size) throws IOException {
+        this.file = file;
+        this.size = size;
+        this.buffer = map(file, size);
+        var end = end(buffer);
+        if (buffer.getInt(0) != MAGIC || end < HEADER_SIZE || end > buffer.capacity()) {
+            clear(buffer);
+        }
+    }
+
+    /**
+     * Читает действующие записи.
+     *
+     * @param now текущее время в секундах.
+     * @return идентификаторы токенов и время истечения в секундах.
+     */
+    Map<String, Long> load(long now) {
+        lock.lock();
+        try {
+            return load(buffer, now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Дописывает запись в конец файла.
+     *
+     * @param id         идентификатор токена.
+     * @param expiration время истечения в секундах.
+     * @return false если места нет.
+     */
+    boolean append(@NonNull String id, long expiration) {
+        lock.lock();
+        try {
+            if (write(buffer, id, expiration)) {
+                return true;
+            }
+            log.warn("Файл отозванных токенов заполнен, токен сохранится только до перезапуска");
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Перезаписывает файл только действующими записями: записи пишутся в соседний
+     * временный файл, который после сброса на диск атомарно заменяет снимок.
+     * Если перезапись не удалась, остается прежний снимок. Запись, добавленная
+     * во время перезаписи, может попасть в файл дважды, при чтении повтор схлопнется.
+     *
+     * @param entries идентификаторы токенов и время истечения в секундах.
+     */
+    void rewrite(@NonNull Map<String, Long> entries) {
+        lock.lock();
+        try {
+            var temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.deleteIfExists(temp);
+            var next = map(temp, size);
+            clear(next);
+            var dropped = 0;
+            for (var entry : entries.entrySet()) {
+                if (!write(next, entry.getKey(), entry.getValue())) {
+                    dropped++;
+                }
+            }
+            next.force();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            buffer = next;
+            if (dropped > 0) {
+                log.warn("В файл отозванных токенов не поместилось {} из {} записей, "
+                        + "они сохранятся только до перезапуска", dropped, entries.size());
+            }
+        } catch (IOException e) {
+            log.error("Не удалось перезаписать файл отозванных токенов, остается прежний снимок", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void force() {
+        lock.lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static void clear(MappedByteBuffer buffer) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(END_OFFSET, HEADER_SIZE);
+    }
+
+    private static Map<String, Long> load(MappedByteBuffer buffer, long now) {
+        var result = new HashMap<String, Long>();
+        var end = end(buffer);
+        var position = HEADER_SIZE;
+        while (position + Long.BYTES + 1 <= end) {
+            var expiration = buffer.getLong(position);
+            var length = buffer.get(position + Long.BYTES) & 0xFF;
+            var start = position + Long.BYTES + 1;
+            if (start + length > end) {
+                break;
+            }
+            if (expiration >= now) {
+                var id = new byte[length];
+                buffer.get(start, id);
+                result.put(new String(id, StandardCharsets.US_ASCII), expiration);
+            }
+            position = start + length;
+        }
+        return result;
+    }
+
+    /**
+     * Дописывает запись в конец снимка.
+     *
+     * @return false если места нет.
+     */
+    private static boolean write(MappedByteBuffer buffer, String id, long expiration) {
+        var bytes = id.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length > MAX_ID_LENGTH) {
+            return true;
+        }
+        var position = end(buffer);
+        var next = position + Long.BYTES + 1 + bytes.length;
+        if (next > buffer.capacity()) {
+            return false;
+        }
+        buffer.putLong(position, expiration);
+        buffer.put(position + Long.BYTES, (byte) bytes.length);
+        buffer.put(position + Long.BYTES + 1, bytes);
+        buffer.putInt(END_OFFSET, next);
+        return true;
+    }
+
+    private static int end(MappedByteBuffer buffer) {
+        return buffer.getInt(END_OFFSET);
+    }
+}
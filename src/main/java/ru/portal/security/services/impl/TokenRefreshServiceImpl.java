@@ -6,19 +6,27 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.portal.entities.User;
 import ru.portal.entities.auth.RefreshToken;
 import ru.portal.entities.dto.response.auth.DtoAuthenticationResponse;
-import ru.portal.repositories.auth.RefreshTokenRepository;
+import ru.portal.entities.dto.response.auth.DtoSessionPageResponse;
+import ru.portal.entities.dto.response.auth.DtoSessionResponse;
+import ru.portal.repositories.UserRepository;
 import ru.portal.security.services.TokenRefreshService;
 import ru.portal.security.services.TokenService;
 import ru.portal.security.services.exception.RefreshTokenNotExistsException;
 import ru.portal.security.services.exception.RefreshTokenTimeUpException;
+import ru.portal.security.services.exception.SessionPageException;
+import ru.portal.security.store.RefreshTokenStore;
 import ru.portal.security.utilities.RandomToken;
+import ru.portal.security.utilities.SplitToken;
+import ru.portal.security.utilities.TokenDigest;
 
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Optional;
 
 /**
@@ -34,20 +42,34 @@ public class TokenRefreshServiceImpl implements TokenRefreshService {
     @Value("${security.token.validTimeRefreshTokenSecond}")
     Long validTimeRefreshToken;
 
-    final RefreshTokenRepository refreshTokenRepository;
+    @Value("${security.token.maxSessionsPerUser}")
+    Integer maxSessionsPerUser;
+
+    @Value("${security.token.sessionsPageMaxSize}")
+    Integer sessionsPageMaxSize;
+
+    final RefreshTokenStore refreshTokenStore;
     final TokenService tokenService;
+    final UserRepository userRepository;
 
     @Autowired
-    public TokenRefreshServiceImpl(RefreshTokenRepository refreshTokenRepository,
-                                   TokenService tokenService) {
-        this.refreshTokenRepository = refreshTokenRepository;
+    public TokenRefreshServiceImpl(RefreshTokenStore refreshTokenStore,
+                                   TokenService tokenService,
+                                   UserRepository userRepository) {
+        this.refreshTokenStore = refreshTokenStore;
         this.tokenService = tokenService;
+        this.userRepository = userRepository;
     }
 
     /**
      * Проверяет токен обновления на существование и на время жизни, в случае усеха
      * создает новый токен доступа и токен обновления и возвращает его в ответе.
-     * Если время токена обновления вышло удаляет его из БД и выкидывает исключение.
+     * Строка находится по селектору через первичный ключ, при обновлении меняются
+     * только верификатор и время жизни, селектор остается прежним. Если токен
+     * одновременно обновили по тому же верификатору, успешно только одно обновление.
+     * Пользователь читается по идентификатору из токена, поэтому новый токен доступа
+     * получает текущие роль и статус при любом хранилище токенов.
+     * Если время токена обновления вышло удаляет его из хранилища и выкидывает исключение.
      *
      * @param refreshToken токен обновления.
      * @return ответ обновления токена.
@@ -60,49 +82,59 @@ public class TokenRefreshServiceImpl implements TokenRefreshService {
     @NonNull
     @Override
     public DtoAuthenticationResponse refreshToken(@NonNull String refreshToken) {
-        var refToken = refreshTokenRepository.findByToken(refreshToken)
+        var refToken = findVerified(refreshToken)
                 .orElseThrow(RefreshTokenNotExistsException::new);
 
         if (isLifetimeRefreshToken(refToken)) {
-            var newRefreshToken = RandomToken.getToken();
-            refToken.setToken(newRefreshToken);
+            var user = userRepository.findById(refToken.getUser().getId())
+                    .orElseThrow(RefreshTokenNotExistsException::new);
+            var verifier = RandomToken.getToken();
+            var newRefreshToken = SplitToken.format(refToken.getId(), verifier);
 
-            var user = refToken.getUser();
-            refToken.setLifetime(Instant.now().plusSeconds(validTimeRefreshToken).toEpochMilli());
+            var lifetime = Instant.now().plusSeconds(validTimeRefreshToken).toEpochMilli();
+            if (!refreshTokenStore.rotate(refToken.getId(), refToken.getTokenHash(),
+                    TokenDigest.sha256(verifier), lifetime)) {
+                throw new RefreshTokenNotExistsException();
+            }
 
-            var token = tokenService.createToken(user.getUsername());
-
-            refreshTokenRepository.save(refToken);
+            var token = tokenService.createToken(user);
 
             return DtoAuthenticationResponse.builder()
                     .authorization(token)
                     .refreshToken(newRefreshToken)
                     .build();
         }
-        deleteRefreshToken(refToken.getToken());
+        refreshTokenStore.delete(refToken);
         throw new RefreshTokenTimeUpException();
     }
 
 
     /**
      * Добавляет токен обновления к пользователю и возвращает его.
+     * Токен имеет вид {@link SplitToken}: селектор - идентификатор строки, в БД
+     * сохраняется только хэш верификатора, сам токен есть лишь в возвращаемой сущности.
+     * Вместе со вставкой атомарно удаляются самые старые токены
+     * пользователя сверх {@code security.token.maxSessionsPerUser}.
      *
      * @param user пользователь.
      * @return токен обновления {@link RefreshToken}.
      */
+    @Transactional
     @Override
     public Optional<RefreshToken> addRefreshToken(@NonNull User user) {
-        var refreshToken = RandomToken.getToken();
+        var verifier = RandomToken.getToken();
 
         var validTime = Instant.now().plusSeconds(validTimeRefreshToken).toEpochMilli();
 
         var tokenRefresh = RefreshToken.builder()
-                .token(refreshToken)
+                .tokenHash(TokenDigest.sha256(verifier))
                 .lifetime(validTime)
                 .user(user)
                 .build();
 
-        return Optional.of(refreshTokenRepository.save(tokenRefresh));
+        var saved = refreshTokenStore.add(tokenRefresh, maxSessionsPerUser);
+        saved.setToken(SplitToken.format(saved.getId(), verifier));
+        return Optional.of(saved);
     }
 
     /**
@@ -113,7 +145,74 @@ public class TokenRefreshServiceImpl implements TokenRefreshService {
     @Transactional
     @Override
     public void deleteRefreshToken(@NonNull String token) {
-        refreshTokenRepository.deleteByToken(token);
+        findVerified(token).ifPresent(refreshTokenStore::delete);
+    }
+
+    /**
+     * Находит токен обновления по селектору и проверяет верификатор.
+     *
+     * @param token токен обновления.
+     * @return токен обновления или {@link Optional#empty()}, если токен не найден
+     * или верификатор не подходит.
+     */
+    private Optional<RefreshToken> findVerified(String token) {
+        return SplitToken.parse(token)
+                .flatMap(split -> refreshTokenStore.find(split.getSelector())
+                        .filter(refToken -> split.matches(refToken.getTokenHash())));
+    }
+
+    /**
+     * Возвращает страницу действующих сессий пользователя. Страницы выбираются по ключу
+     * {@code (lifetime, id)} последней сессии предыдущей страницы, поэтому стоимость
+     * запроса не зависит от номера страницы. Курсор имеет вид {@code <lifetime>_<id>}
+     * и возвращается только для полной страницы.
+     *
+     * @param username имя пользователя.
+     * @param after    курсор предыдущей страницы или null для первой страницы.
+     * @param size     размер страницы.
+     * @return страница сессий.
+     * @throws SessionPageException если курсор или размер страницы неверны.
+     */
+    @Transactional(readOnly = true)
+    @NonNull
+    @Override
+    public DtoSessionPageResponse findSessions(@NonNull String username, @Nullable String after, int size) {
+        if (size < 1 || size > sessionsPageMaxSize) {
+            throw new SessionPageException("Размер страницы должен быть от 1 до " + sessionsPageMaxSize);
+        }
+
+        var lifetime = Long.MAX_VALUE;
+        var id = Long.MAX_VALUE;
+        if (after != null) {
+            var separator = after.indexOf('_');
+            try {
+                lifetime = Long.parseLong(after.substring(0, Math.max(0, separator)));
+                id = Long.parseLong(after.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw new SessionPageException("Неверный курсор страницы", e);
+            }
+        }
+
+        var tokens = refreshTokenStore.findSessions(username, Instant.now().toEpochMilli(), lifetime, id, size);
+
+        var sessions = tokens.stream()
+                .map(token -> DtoSessionResponse.builder()
+                        .id(token.getId())
+                        .createAt(token.getCreateAt())
+                        .expiresAt(Instant.ofEpochMilli(token.getLifetime()).atZone(ZoneOffset.UTC))
+                        .build())
+                .toList();
+
+        String next = null;
+        if (tokens.size() == size) {
+            var last = tokens.get(size - 1);
+            next = last.getLifetime() + "_" + last.getId();
+        }
+
+        return DtoSessionPageResponse.builder()
+                .sessions(sessions)
+                .next(next)
+                .build();
     }
 
     @Override
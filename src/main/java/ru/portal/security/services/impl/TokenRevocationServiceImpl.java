@@ -0,0 +1,124 @@
+package ru.portal.security.services.impl;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.portal.security.services.TokenClaims;
+import ru.portal.security.services.TokenRevocationService;
+import ru.portal.security.utilities.BloomFilter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реализация интерфейса {@link TokenRevocationService} в памяти.
+ * <p>
+ * Отозванные токены разложены по интервалам времени истечения длиной
+ * {@code security.token.revocation.bucketInSecond}. У каждого интервала свой
+ * фильтр Блума, поэтому проверка токена смотрит ровно в один фильтр, а фильтр
+ * целиком удаляется, когда истекли все токены интервала. Ложные срабатывания
+ * фильтра отсекаются точным набором идентификаторов.
+ * <p>
+ * Состояние сохраняется в файл {@code security.token.revocation.snapshotFile},
+ * отображенный в память, и читается при запуске, чтобы перезапуск не возвращал
+ * силу отозванным токенам. Набор не разделяется между узлами.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Service
+@Slf4j
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    long bucketSize;
+    long expectedInsertions;
+    double falsePositiveRate;
+
+    ConcurrentHashMap<Long, BloomFilter> filters = new ConcurrentHashMap<>();
+    ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    RevocationSnapshot snapshot;
+
+    public TokenRevocationServiceImpl(Environment environment) {
+        this.bucketSize = environment.getRequiredProperty("security.token.revocation.bucketInSecond", Long.class);
+        this.expectedInsertions = environment.getRequiredProperty(
+                "security.token.revocation.expectedInsertions", Long.class);
+        this.falsePositiveRate = environment.getRequiredProperty(
+                "security.token.revocation.falsePositiveRate", Double.class);
+        try {
+            this.snapshot = new RevocationSnapshot(
+                    Path.of(environment.getRequiredProperty("security.token.revocation.snapshotFile")),
+                    environment.getRequiredProperty("security.token.revocation.snapshotSizeInBytes", Integer.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        snapshot.load(Instant.now().getEpochSecond()).forEach(this::remember);
+        log.info("Загружено отозванных токенов: {}", revoked.size());
+    }
+
+    @Override
+    public void revoke(@NonNull TokenClaims claims) {
+        var id = claims.getClaim(TokenClaims.TOKEN_ID, String.class);
+        if (id.isEmpty()) {
+            log.warn("Токен без идентификатора нельзя отозвать");
+            return;
+        }
+        var expiration = claims.getExpiration().getEpochSecond();
+        if (remember(id.get(), expiration)) {
+            snapshot.append(id.get(), expiration);
+        }
+    }
+
+    @Override
+    public boolean isRevoked(@NonNull TokenClaims claims) {
+        var id = claims.getClaim(TokenClaims.TOKEN_ID, String.class);
+        if (id.isEmpty()) {
+            return false;
+        }
+        var filter = filters.get(bucket(claims.getExpiration().getEpochSecond()));
+        return filter != null
+                && filter.mightContain(id.get())
+                && revoked.containsKey(id.get());
+    }
+
+    /**
+     * Удаляет истекшие токены и фильтры, все токены которых истекли,
+     * после чего перезаписывает снимок.
+     */
+    @Scheduled(fixedDelayString = "${security.token.revocation.pruneIntervalInMs}")
+    public void prune() {
+        var now = Instant.now().getEpochSecond();
+        var removed = revoked.values().removeIf(expiration -> expiration < now);
+        filters.keySet().removeIf(bucket -> (bucket + 1) * bucketSize <= now);
+        if (removed) {
+            snapshot.rewrite(revoked);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshot.force();
+    }
+
+    private boolean remember(String id, long expiration) {
+        if (revoked.putIfAbsent(id, expiration) != null) {
+            return false;
+        }
+        filters.computeIfAbsent(bucket(expiration), bucket -> new BloomFilter(expectedInsertions, falsePositiveRate))
+                .put(id);
+        return true;
+    }
+
+    private long bucket(long expiration) {
+        return Math.floorDiv(expiration, bucketSize);
+    }
+}
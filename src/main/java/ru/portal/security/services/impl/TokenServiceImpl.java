@@ -1,8 +1,8 @@
 package ru.portal.security.services.impl;
 
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
@@ -10,13 +10,18 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import ru.portal.entities.User;
+import ru.portal.security.codec.TokenCodec;
+import ru.portal.security.services.TokenClaims;
 import ru.portal.security.services.TokenService;
 
-import javax.crypto.SecretKey;
 import javax.servlet.http.HttpServletRequest;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.time.Instant;
-import java.util.Date;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Реализация интерфейса {@link TokenService} для
@@ -38,11 +43,17 @@ public class TokenServiceImpl implements TokenService {
     @Value("${security.token.headerAuthorizationName}")
     String headerToken;
 
-    final SecretKey secretKey;
+    @Value("${security.token.stateless.enabled}")
+    boolean stateless;
 
-    public TokenServiceImpl(Environment environment) {
-        this.secretKey = Keys.hmacShaKeyFor(environment.getRequiredProperty("security.token.key")
-                .getBytes(StandardCharsets.UTF_8));
+    final TokenCodec tokenCodec;
+
+    final VerifiedTokenCache verifiedTokens;
+
+    public TokenServiceImpl(Environment environment, MeterRegistry meterRegistry, TokenCodec tokenCodec) {
+        this.tokenCodec = tokenCodec;
+        this.verifiedTokens = new VerifiedTokenCache(
+                environment.getRequiredProperty("security.token.verifiedCacheSize", Long.class), meterRegistry);
     }
 
     /**
@@ -67,15 +78,54 @@ public class TokenServiceImpl implements TokenService {
     @NonNull
     @Override
     public String createToken(@NonNull String username, @NonNull Long time) {
+        return createToken(username, time, Map.of());
+    }
+
+    /**
+     * Создает токен доступа со стандартным временем для пользователя.
+     * В режиме без сохранения состояния добавляет в токен идентификатор,
+     * роль и статус пользователя, чтобы фильтр мог не обращаться к БД.
+     *
+     * @param user пользователь.
+     * @return токена доступа с "Bearer_".
+     */
+    @NonNull
+    @Override
+    public String createToken(@NonNull User user) {
+        if (!stateless) {
+            return createToken(user.getUsername(), validTime);
+        }
+        var claims = Map.<String, Object>of(
+                TokenClaims.USER_ID, user.getId(),
+                TokenClaims.ROLE, user.getRole().name(),
+                TokenClaims.STATUS, user.getStatus().name());
+        return createToken(user.getUsername(), validTime, claims);
+    }
+
+    private String createToken(String username, Long time, Map<String, Object> claims) {
         var timeStart = Instant.now();
         var timeStop = Instant.ofEpochSecond(timeStart.getEpochSecond() + time);
 
-        return bearer + Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(Date.from(timeStart))
-                .setExpiration(Date.from(timeStop))
-                .signWith(secretKey)
-                .compact();
+        return bearer + tokenCodec.encode(TokenClaims.builder()
+                .subject(username)
+                .issuedAt(timeStart)
+                .expiration(timeStop)
+                .claims(claims)
+                .claim(TokenClaims.TOKEN_ID, newTokenId())
+                .build());
+    }
+
+    /**
+     * Идентификатор токена нужен только для отзыва и не является секретом,
+     * поэтому берется из {@link ThreadLocalRandom} без общей блокировки.
+     */
+    private static String newTokenId() {
+        var random = ThreadLocalRandom.current();
+        var bytes = ByteBuffer.allocate(16)
+                .putLong(random.nextLong())
+                .putLong(random.nextLong())
+                .array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
 
     /**
@@ -111,20 +161,7 @@ public class TokenServiceImpl implements TokenService {
      */
     @Override
     public boolean isValidToken(@NonNull String token) {
-        var parser = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build();
-
-        try {
-            return !parser
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getExpiration()
-                    .before(Date.from(Instant.now()));
-        } catch (ExpiredJwtException e) {
-            log.error("Время жизни токен истекло");
-        }
-        return false;
+        return parseToken(token).isPresent();
     }
 
     /**
@@ -136,11 +173,47 @@ public class TokenServiceImpl implements TokenService {
     @NonNull
     @Override
     public String getUsername(@NonNull String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseToken(token)
+                .map(TokenClaims::getSubject)
+                .orElseGet(() -> tokenCodec.decode(token).getSubject());
+    }
+
+    /**
+     * Проверяет подпись и время жизни токена и извлекает из него утверждения.
+     * Подпись проверяется один раз, в отличие от последовательного вызова
+     * {@link #isValidToken(String)} и {@link #getUsername(String)}.
+     * Утверждения проверенных токенов запоминаются до истечения их времени жизни,
+     * поэтому повторный запрос с тем же токеном не проверяет подпись и не разбирает JSON.
+     *
+     * @param token токен доступа
+     * @return утверждения токена или {@link Optional#empty()}, если токен недействителен.
+     */
+    @NonNull
+    @Override
+    public Optional<TokenClaims> parseToken(@NonNull String token) {
+        var key = verifiedTokens.key(token);
+        var cached = verifiedTokens.get(key);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        var claims = verifyToken(token);
+        claims.ifPresent(c -> verifiedTokens.put(key, c));
+        return claims;
+    }
+
+    private Optional<TokenClaims> verifyToken(String token) {
+        try {
+            var claims = tokenCodec.decode(token);
+            if (claims.isExpired(Instant.now())) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (ExpiredJwtException e) {
+            log.error("Время жизни токен истекло");
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Недействительный токен доступа");
+        }
+        return Optional.empty();
     }
 }
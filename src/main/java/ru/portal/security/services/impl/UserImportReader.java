@@ -0,0 +1,236 @@
+package ru.portal.security.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import ru.portal.security.services.UserImportFormat;
+import ru.portal.security.services.exception.ImportFormatException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Построчное чтение файла импорта пользователей.
+ * <p>
+ * В памяти держится только текущая строка и запрошенная пачка записей, поэтому
+ * размер файла не влияет на расход памяти. Длина строки ограничена
+ * {@value MAX_LINE_LENGTH} символами: остаток более длинной строки пропускается
+ * без буферизации, а сама строка отклоняется. Пустые строки пропускаются. Строка,
+ * которую не удалось разобрать, отклоняется с предупреждением в журнале,
+ * содержимое строки в журнал не пишется, так как в нем может быть пароль.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
+final class UserImportReader implements Closeable {
+
+    static final String USERNAME = "username";
+    static final String EMAIL = "email";
+    static final String PASSWORD = "password";
+    static final String PASSWORD_HASH = "passwordHash";
+    static final String STATUS = "status";
+    static final int MAX_LINE_LENGTH = 4096;
+
+    final BufferedReader reader;
+    final StringBuilder buffer = new StringBuilder();
+    final UserImportFormat format;
+    final ObjectMapper mapper;
+
+    /**
+     * Номера колонок CSV по имени поля.
+     */
+    Map<String, Integer> columns;
+    int columnCount;
+    long line;
+    long rejected;
+    boolean tooLong;
+    boolean skipLineFeed;
+
+    UserImportReader(@NonNull InputStream input, @NonNull UserImportFormat format, @NonNull ObjectMapper mapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Читает следующую пачку записей.
+     *
+     * @param max максимальный размер пачки.
+     * @return записи, пустой список в конце файла.
+     * @throws IOException              если поток не удалось прочитать.
+     * @throws ImportFormatException если заголовок CSV не разобран или в нем нет обязательных колонок.
+     */
+    List<UserImportRecord> next(int max) throws IOException {
+        var records = new ArrayList<UserImportRecord>(max);
+        String text;
+        while (records.size() < max && (text = readLine()) != null) {
+            line++;
+            if (tooLong) {
+                rejected++;
+                log.warn("Строка {} файла импорта отклонена: длина больше {} символов", line, MAX_LINE_LENGTH);
+                continue;
+            }
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == UserImportFormat.CSV && columns == null) {
+                columns = header(text);
+                continue;
+            }
+            try {
+                records.add(format == UserImportFormat.CSV ? fromCsv(text) : fromJson(text));
+            } catch (IllegalArgumentException | JsonProcessingException e) {
+                rejected++;
+                log.warn("Строка {} файла импорта отклонена: не удалось разобрать запись", line);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Количество строк, которые не удалось разобрать.
+     */
+    long getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Читает строку до {@code \n}, {@code \r} или {@code \r\n}, как
+     * {@link BufferedReader#readLine()}, но хранит не больше {@value MAX_LINE_LENGTH}
+     * символов. Если строка длиннее, остаток пропускается и выставляется {@code tooLong}.
+     *
+     * @return строка без символов перевода, null в конце файла.
+     */
+    private String readLine() throws IOException {
+        buffer.setLength(0);
+        tooLong = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            if (c == '\n' || c == '\r') {
+                skipLineFeed = c == '\r';
+                return buffer.toString();
+            }
+            if (buffer.length() < MAX_LINE_LENGTH) {
+                buffer.append((char) c);
+            } else {
+                tooLong = true;
+            }
+        }
+        return buffer.length() > 0 || tooLong ? buffer.toString() : null;
+    }
+
+    private UserImportRecord fromJson(String text) throws JsonProcessingException {
+        var node = mapper.readTree(text);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Запись должна быть объектом");
+        }
+        return new UserImportRecord(line, text(node, USERNAME), text(node, EMAIL),
+                text(node, PASSWORD), text(node, PASSWORD_HASH), text(node, STATUS));
+    }
+
+    private UserImportRecord fromCsv(String text) {
+        var values = parseCsv(text);
+        if (values.size() != columnCount) {
+            throw new IllegalArgumentException("Количество значений не совпадает с заголовком");
+        }
+        return new UserImportRecord(line, value(values, USERNAME), value(values, EMAIL),
+                value(values, PASSWORD), value(values, PASSWORD_HASH), value(values, STATUS));
+    }
+
+    private Map<String, Integer> header(String text) {
+        List<String> names;
+        try {
+            names = parseCsv(text);
+        } catch (IllegalArgumentException e) {
+            throw new ImportFormatException("Не удалось разобрать заголовок CSV", e);
+        }
+        var result = new HashMap<String, Integer>();
+        for (int i = 0; i < names.size(); i++) {
+            for (var field : List.of(USERNAME, EMAIL, PASSWORD, PASSWORD_HASH, STATUS)) {
+                if (field.toLowerCase(Locale.ROOT).equals(names.get(i).strip().toLowerCase(Locale.ROOT))) {
+                    result.put(field, i);
+                }
+            }
+        }
+        if (!result.containsKey(USERNAME) || !result.containsKey(EMAIL)
+                || !(result.containsKey(PASSWORD) || result.containsKey(PASSWORD_HASH))) {
+            throw new ImportFormatException("В заголовке CSV должны быть колонки username, email "
+                    + "и password или passwordHash");
+        }
+        columnCount = names.size();
+        return result;
+    }
+
+    private String value(List<String> values, String field) {
+        var index = columns.get(field);
+        if (index == null || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    private static String text(JsonNode node, String field) {
+        var value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * Разбирает строку CSV: значения через запятую, значения в кавычках
+     * могут содержать запятые, кавычка внутри записывается двумя кавычками.
+     */
+    static List<String> parseCsv(String text) {
+        var values = new ArrayList<String>();
+        var value = new StringBuilder();
+        var quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Незакрытая кавычка");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
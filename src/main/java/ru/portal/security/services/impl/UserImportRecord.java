@@ -0,0 +1,31 @@
+package ru.portal.security.services.impl;
+
+import lombok.AccessLevel;
+import lombok.Value;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Запись файла импорта пользователей.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Value
+class UserImportRecord {
+
+    /**
+     * Номер строки файла для сообщений об ошибках.
+     */
+    long line;
+
+    String username;
+
+    String email;
+
+    String password;
+
+    String passwordHash;
+
+    String status;
+
+}
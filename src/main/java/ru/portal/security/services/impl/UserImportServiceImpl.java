@@ -0,0 +1,306 @@
+package ru.portal.security.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.NonNull;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.portal.entities.Role;
+import ru.portal.entities.Status;
+import ru.portal.entities.User;
+import ru.portal.entities.auth.LoginAttempt;
+import ru.portal.entities.dto.request.auth.DtoUserRequest;
+import ru.portal.entities.dto.response.admin.DtoUserImportResponse;
+import ru.portal.repositories.UserRepository;
+import ru.portal.security.crypto.AdaptiveBCryptPasswordEncoder;
+import ru.portal.security.events.AuthenticationPublisher;
+import ru.portal.security.services.UserImportFormat;
+import ru.portal.security.services.UserImportService;
+import ru.portal.security.services.exception.ImportInProgressException;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Реализация интерфейса {@link UserImportService}.
+ * <p>
+ * Файл читается пачками по {@code security.import.batchSize} записей. Пароли пачки
+ * хэшируются параллельно в отдельном {@link ForkJoinPool} на {@code security.import.threads}
+ * потоков (0 - по числу ядер), пока предыдущая пачка пишется в БД, поэтому пул
+ * хэширования входа и регистрации не занимается. Хэш BCrypt из поля {@code passwordHash}
+ * сохраняется как есть и получает префикс алгоритма при первом входе.
+ * <p>
+ * Каждая пачка пишется в своей транзакции: занятые имена и адреса отсеиваются двумя
+ * запросами, затем пользователи и их счетчики попыток входа вставляются JDBC-пакетами
+ * размером с пачку. В памяти одновременно не больше трех пачек, размер файла на
+ * расход памяти не влияет. Импортированные пользователи получают роль USER, статус
+ * из файла или ACTIVE, письма подтверждения не отправляются. Ход импорта пишется
+ * в журнал после каждой пачки и в счетчик {@value METRIC_NAME} с тегом {@code result}.
+ * Одновременно выполняется только один импорт.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    static final String METRIC_NAME = "users.import";
+
+    UserRepository userRepository;
+    EntityManager entityManager;
+    TransactionTemplate transactionTemplate;
+    PasswordEncoder encoder;
+    Validator validator;
+    AuthenticationPublisher authenticationPublisher;
+    ObjectMapper mapper;
+    ForkJoinPool hashingPool;
+    int batchSize;
+    ReentrantLock lock = new ReentrantLock();
+    Counter importedCounter;
+    Counter skippedCounter;
+    Counter rejectedCounter;
+    Counter failedCounter;
+
+    @Autowired
+    public UserImportServiceImpl(Environment environment,
+                                 UserRepository userRepository,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 PasswordEncoder encoder,
+                                 Validator validator,
+                                 AuthenticationPublisher authenticationPublisher,
+                                 ObjectMapper mapper,
+                                 MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.encoder = encoder;
+        this.validator = validator;
+        this.authenticationPublisher = authenticationPublisher;
+        this.mapper = mapper;
+
+        var threads = environment.getRequiredProperty("security.import.threads", Integer.class);
+        this.hashingPool = new ForkJoinPool(threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads);
+        this.batchSize = environment.getRequiredProperty("security.import.batchSize", Integer.class);
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Размер пачки импорта должен быть положительным");
+        }
+        this.importedCounter = meterRegistry.counter(METRIC_NAME, "result", "imported");
+        this.skippedCounter = meterRegistry.counter(METRIC_NAME, "result", "skipped");
+        this.rejectedCounter = meterRegistry.counter(METRIC_NAME, "result", "rejected");
+        this.failedCounter = meterRegistry.counter(METRIC_NAME, "result", "failed");
+    }
+
+    /**
+     * Потоково импортирует пользователей. Хэширование следующей пачки
+     * идет одновременно с записью предыдущей.
+     *
+     * @param input  поток файла импорта в UTF-8.
+     * @param format формат файла.
+     * @return итоги импорта.
+     * @throws IOException если поток не удалось прочитать.
+     */
+    @Override
+    public DtoUserImportResponse importUsers(@NonNull InputStream input, @NonNull UserImportFormat format)
+            throws IOException {
+        if (!lock.tryLock()) {
+            throw new ImportInProgressException();
+        }
+        try {
+            var progress = new Progress(System.nanoTime());
+            try (var reader = new UserImportReader(input, format, mapper)) {
+                CompletableFuture<List<Optional<User>>> pending = CompletableFuture.completedFuture(List.of());
+                List<UserImportRecord> records;
+                while (!(records = reader.next(batchSize)).isEmpty()) {
+                    var batch = records;
+                    var hashing = CompletableFuture.supplyAsync(
+                            () -> batch.parallelStream().map(this::prepare).toList(), hashingPool);
+                    write(pending.join(), progress);
+                    pending = hashing;
+                }
+                write(pending.join(), progress);
+                progress.rejected(reader.getRejected());
+            }
+            log.info("Импорт пользователей завершен: добавлено {}, пропущено {}, отклонено {}, с ошибкой {} за {} мс",
+                    progress.imported, progress.skipped, progress.rejected, progress.failed, progress.elapsedInMs());
+            return DtoUserImportResponse.builder()
+                    .imported(progress.imported)
+                    .skipped(progress.skipped)
+                    .rejected(progress.rejected)
+                    .failed(progress.failed)
+                    .durationInMs(progress.elapsedInMs())
+                    .usersPerSecond(progress.usersPerSecond())
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * Проверяет запись и хэширует пароль. Вызывается в пуле хэширования.
+     *
+     * @return пользователь или {@link Optional#empty()}, если запись отклонена.
+     */
+    private Optional<User> prepare(UserImportRecord record) {
+        var preHashed = record.getPasswordHash() != null;
+        var password = preHashed ? record.getPasswordHash() : record.getPassword();
+        var request = new DtoUserRequest(record.getUsername(), record.getEmail(), password);
+        if (record.getEmail() == null || !validator.validate(request).isEmpty()
+                || (preHashed && !AdaptiveBCryptPasswordEncoder.isBCryptHash(password))) {
+            log.warn("Строка {} файла импорта отклонена: некорректные данные пользователя", record.getLine());
+            return Optional.empty();
+        }
+        Status status;
+        try {
+            status = record.getStatus() == null
+                    ? Status.ACTIVE
+                    : Status.valueOf(record.getStatus().strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.warn("Строка {} файла импорта отклонена: неизвестный статус", record.getLine());
+            return Optional.empty();
+        }
+        return Optional.of(User.builder()
+                .username(record.getUsername())
+                .email(record.getEmail())
+                .password(preHashed ? password : encoder.encode(password))
+                .role(Role.USER)
+                .status(status)
+                .build());
+    }
+
+    /**
+     * Пишет пачку в отдельной транзакции. Ошибка БД отмечает всю пачку как неудачную,
+     * импорт продолжается со следующей.
+     */
+    private void write(List<Optional<User>> prepared, Progress progress) {
+        if (prepared.isEmpty()) {
+            return;
+        }
+        var users = prepared.stream().flatMap(Optional::stream).toList();
+        progress.rejected(prepared.size() - users.size());
+        if (!users.isEmpty()) {
+            try {
+                var imported = transactionTemplate.execute(status -> insert(users));
+                progress.imported(imported);
+                progress.skipped(users.size() - imported);
+            } catch (DataAccessException | PersistenceException | TransactionException e) {
+                log.error("Не удалось записать пачку из {} пользователей", users.size(), e);
+                progress.failed(users.size());
+            }
+        }
+        log.info("Импорт пользователей: обработано {}, добавлено {}, {} пользователей/с",
+                progress.processed(), progress.imported, String.format(Locale.ROOT, "%.1f", progress.usersPerSecond()));
+    }
+
+    /**
+     * Вставляет пользователей пачки, чьи имя и адрес еще не заняты ни в БД, ни в самой пачке.
+     *
+     * @return количество вставленных пользователей.
+     */
+    private int insert(List<User> users) {
+        var usernames = new HashSet<>(userRepository.findExistingUsernames(
+                users.stream().map(User::getUsername).toList()));
+        var emails = new HashSet<>(userRepository.findExistingEmails(
+                users.stream().map(User::getEmail).toList()));
+
+        var accepted = new ArrayList<User>(users.size());
+        for (var user : users) {
+            if (!usernames.contains(user.getUsername()) && !emails.contains(user.getEmail())) {
+                usernames.add(user.getUsername());
+                emails.add(user.getEmail());
+                accepted.add(user);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        for (var user : accepted) {
+            entityManager.persist(user);
+            entityManager.persist(LoginAttempt.builder().user(user).build());
+        }
+        authenticationPublisher.publishEventImport(accepted);
+        entityManager.flush();
+        return accepted.size();
+    }
+
+    /**
+     * Счетчики хода импорта. Меняются только из потока импорта.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private final class Progress {
+
+        final long start;
+        long imported;
+        long skipped;
+        long rejected;
+        long failed;
+
+        private Progress(long start) {
+            this.start = start;
+        }
+
+        private void imported(long count) {
+            imported += count;
+            importedCounter.increment(count);
+        }
+
+        private void skipped(long count) {
+            skipped += count;
+            skippedCounter.increment(count);
+        }
+
+        private void rejected(long count) {
+            rejected += count;
+            rejectedCounter.increment(count);
+        }
+
+        private void failed(long count) {
+            failed += count;
+            failedCounter.increment(count);
+        }
+
+        private long processed() {
+            return imported + skipped + rejected + failed;
+        }
+
+        private long elapsedInMs() {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+
+        private double usersPerSecond() {
+            var elapsed = System.nanoTime() - start;
+            return elapsed == 0 ? 0 : imported * 1e9 / elapsed;
+        }
+    }
+}
@@ -3,6 +3,9 @@ package ru.portal.security.services.impl;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -19,10 +22,17 @@ import ru.portal.entities.auth.LoginAttempt;
 import ru.portal.entities.dto.request.auth.DtoUserRequest;
 import ru.portal.entities.dto.response.auth.DtoAuthenticationResponse;
 import ru.portal.entities.dto.response.auth.DtoSuccessRegResponse;
+import ru.portal.entities.dto.response.auth.DtoUsernameSuggestionResponse;
 import ru.portal.repositories.UserRepository;
 import ru.portal.repositories.auth.LoginAttemptRepository;
+import ru.portal.security.LoginFailureTracker;
+import ru.portal.security.UserIdentityIndex;
+import ru.portal.security.UsernameSuggester;
+import ru.portal.security.details.UserDetailsServiceImpl;
 import ru.portal.security.events.AuthenticationPublisher;
+import ru.portal.security.services.LoginContext;
 import ru.portal.security.services.TokenRefreshService;
+import ru.portal.security.services.TokenRevocationService;
 import ru.portal.security.services.TokenService;
 import ru.portal.security.services.UserService;
 import ru.portal.security.services.exception.IncorrectCredentialsException;
@@ -30,6 +40,7 @@ import ru.portal.security.services.exception.UserBannedException;
 import ru.portal.security.services.exception.UserExistsException;
 
 import java.time.Instant;
+import java.util.Locale;
 
 /**
  * Реализация интерфейса {@link UserService} для взаимодействия
@@ -47,34 +58,49 @@ public class UserServiceImpl implements UserService {
     LoginAttemptRepository attemptRepository;
     TokenService tokenService;
     TokenRefreshService refreshService;
+    TokenRevocationService revocationService;
     AuthenticationManager authenticationManager;
     AuthenticationPublisher authenticationPublisher;
+    LoginFailureTracker failureTracker;
+    UserIdentityIndex identityIndex;
+    UsernameSuggester usernameSuggester;
 
     public UserServiceImpl(UserRepository userRepository,
                            PasswordEncoder encoder,
                            LoginAttemptRepository attemptRepository,
                            TokenService tokenService,
                            TokenRefreshService refreshService,
+                           TokenRevocationService revocationService,
                            AuthenticationManager authenticationManager,
-                           AuthenticationPublisher authenticationPublisher) {
+                           AuthenticationPublisher authenticationPublisher,
+                           LoginFailureTracker failureTracker,
+                           UserIdentityIndex identityIndex,
+                           UsernameSuggester usernameSuggester) {
         this.userRepository = userRepository;
         this.encoder = encoder;
         this.attemptRepository = attemptRepository;
         this.tokenService = tokenService;
         this.refreshService = refreshService;
+        this.revocationService = revocationService;
         this.authenticationManager = authenticationManager;
         this.authenticationPublisher = authenticationPublisher;
+        this.failureTracker = failureTracker;
+        this.identityIndex = identityIndex;
+        this.usernameSuggester = usernameSuggester;
     }
 
 
     /**
-     * Регистрирует пользователя в системе, проверяет пользователя на существование.
-     * Если пользователя не существует добавляет его в систему и создает сущность подсчет попыток входа
-     * При удачной регистрации издает событие {@link ru.portal.security.events.RegistrationUserEvent}
+     * Регистрирует пользователя в системе и создает сущность подсчета попыток входа.
+     * Пользователь вставляется сразу, без предварительного поиска: занятые имя или адрес
+     * обнаруживаются ограничениями уникальности {@link User#USERNAME_CONSTRAINT} и
+     * {@link User#EMAIL_CONSTRAINT}, поэтому одновременные регистрации с одним именем
+     * не проходят обе. При удачной регистрации издает событие {@link ru.portal.security.events.RegistrationUserEvent}
      *
      * @param request тело запроса.
      * @return ответ об успешной аутентификации.
-     * @throws UserExistsException бросаеться если пользователь уже существует в системе.
+     * @throws UserExistsException бросаеться если имя ({@link UserExistsException#LOGIN_EXIST})
+     *                             или адрес ({@link UserExistsException#EMAIL_EXIST}) уже заняты.
      * @see DtoUserRequest
      * @see DtoSuccessRegResponse
      * @see ru.portal.security.events.RegistrationUserEvent
@@ -83,41 +109,40 @@ public class UserServiceImpl implements UserService {
     @Override
     public DtoSuccessRegResponse registrationUser(@NonNull DtoUserRequest request) throws UserExistsException {
 
-        var user = userRepository.findByUsernameOrEmail(request.getUsername(), request.getEmail());
-
-
-        if (user.isEmpty()) {
-
-            var newUser = User.builder()
-                    .username(request.getUsername())
-                    .email(request.getEmail())
-                    .password(encoder.encode(request.getPassword()))
-                    .role(Role.USER)
-                    .status(Status.AWAIT)
-                    .build();
-            userRepository.save(newUser);
-
-            var attempt = LoginAttempt.builder()
-                    .user(newUser)
-                    .build();
-            attemptRepository.save(attempt);
+        var newUser = User.builder()
+                .username(request.getUsername())
+                .email(request.getEmail())
+                .password(encoder.encode(request.getPassword()))
+                .role(Role.USER)
+                .status(Status.AWAIT)
+                .build();
+        try {
+            userRepository.saveAndFlush(newUser);
+        } catch (DataIntegrityViolationException e) {
+            throw toUserExists(e);
+        }
 
-            authenticationPublisher.publishEventRegistration(newUser);
+        var attempt = LoginAttempt.builder()
+                .user(newUser)
+                .build();
+        attemptRepository.save(attempt);
 
-            return DtoSuccessRegResponse.builder()
-                    .message("Пользователь зарегистрирован проверьте почту!")
-                    .status(HttpStatus.CREATED.value())
-                    .build();
-        } else {
-            throw new UserExistsException();
-        }
+        authenticationPublisher.publishEventRegistration(newUser);
 
+        return DtoSuccessRegResponse.builder()
+                .message("Пользователь зарегистрирован проверьте почту!")
+                .status(HttpStatus.CREATED.value())
+                .build();
     }
 
     /**
      * Авторизует пользвотеля в системе, при успешной авторизации создает токен доступа и
      * токен обновления, после чего формирует ответ. До начала авторизации пробрасываеться
      * событие {@link ru.portal.security.events.LoginUserEvent}
+     * <p>
+     * Пользователь и его попытки входа загружаются одним запросом и на время авторизации
+     * кладутся в {@link LoginContext}, откуда их берут слушатели событий и
+     * {@link UserDetailsServiceImpl}.
      *
      * @param request тело запроса.
      * @return ответ об успешной авторизации.
@@ -131,17 +156,44 @@ public class UserServiceImpl implements UserService {
     @Override
     public DtoAuthenticationResponse login(@NonNull DtoUserRequest request)
             throws IncorrectCredentialsException, UserBannedException {
+        return login(request, "");
+    }
 
-        authenticationPublisher.publishEventLogin(request);
+    /**
+     * Авторизует пользвотеля так же, как {@link #login(DtoUserRequest)}, но сначала
+     * проверяет не заблокирован ли адрес клиента в {@link LoginFailureTracker}.
+     * Адрес передается слушателям событий в деталях аутентификации.
+     *
+     * @param request       тело запроса.
+     * @param clientAddress адрес клиента, пустая строка если адрес неизвестен.
+     * @return ответ об успешной авторизации.
+     * @throws IncorrectCredentialsException бросаеться если данные пользователя неверны.
+     * @throws UserBannedException           бросаеться если пользователь или адрес заблокирован.
+     */
+    @NonNull
+    @Override
+    public DtoAuthenticationResponse login(@NonNull DtoUserRequest request, @NonNull String clientAddress)
+            throws IncorrectCredentialsException, UserBannedException {
+
+        if (failureTracker.isBlocked(clientAddress)) {
+            throw new UserBannedException("Слишком много неудачных попыток входа, повторите позже!");
+        }
+
+        attemptRepository.findWithUserByUsername(request.getUsername())
+                .ifPresent(LoginContext::open);
 
         try {
+            authenticationPublisher.publishEventLogin(request);
+
             var authentication = new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword());
+            authentication.setDetails(clientAddress);
             authenticationManager.authenticate(authentication);
 
-            var user = userRepository.findByUsername(request.getUsername())
+            var user = LoginContext.getUser(request.getUsername())
+                    .or(() -> userRepository.findByUsername(request.getUsername()))
                     .orElseThrow(IllegalArgumentException::new);
 
-            var token = tokenService.createToken(request.getUsername());
+            var token = tokenService.createToken(user);
             var refreshToken = refreshService.addRefreshToken(user)
                     .orElseThrow(IllegalArgumentException::new)
                     .getToken();
@@ -155,6 +207,8 @@ public class UserServiceImpl implements UserService {
             throw new IncorrectCredentialsException(e);
         } catch (LockedException e) {
             throw new UserBannedException("Пользователь заблокирован на 5 минут!", e);
+        } finally {
+            LoginContext.close();
         }
     }
 
@@ -175,13 +229,28 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Обновления статуса пользователя.
+     * Проверяет истекло ли время блокировки пользователя без обращения к БД.
+     *
+     * @param attempt попытки входа вместе с пользователем.
+     * @return true если блокировка закончилась иначе false.
+     * @see ru.portal.entities.auth.LoginAttempt
+     */
+    @Override
+    public boolean isTimeBlock(@NonNull LoginAttempt attempt) {
+        return attempt.getUser().getStatus().equals(Status.BLOCK) &&
+                attempt.getLockTime() < Instant.now().toEpochMilli();
+    }
+
+    /**
+     * Обновления статуса пользователя, удаляет пользователя из кэша
+     * {@value UserDetailsServiceImpl#CACHE_NAME}.
      *
      * @param status стату пользователя.
      * @param user   пользователь для обновления.
      * @see ru.portal.entities.Status
      * @see ru.portal.entities.User
      */
+    @CacheEvict(cacheNames = UserDetailsServiceImpl.CACHE_NAME, key = "#user.username")
     @Override
     public void updateStatus(@NonNull Status status, @NonNull User user) {
         user.setStatus(status);
@@ -199,24 +268,73 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Проверяет существует ли имя пользователя.
+     * Выход пользвоателя из системы, удаления токена обновления из хранилища
+     * и отзыв токена доступа до истечения его времени жизни.
+     *
+     * @param refreshToken токен обновления.
+     * @param accessToken  токен доступа с "Bearer_".
+     */
+    @Override
+    public void logout(@NonNull String refreshToken, @NonNull String accessToken) {
+        logout(refreshToken);
+        tokenService.parseToken(tokenService.getToken(accessToken))
+                .ifPresent(revocationService::revoke);
+    }
+
+    /**
+     * Проверяет существует ли имя пользователя. Свободные имена
+     * отсекаются {@link UserIdentityIndex} без запроса к БД.
      *
      * @param username имя пользователя.
      * @return true если имя существует, false если нет.
      */
     @Override
     public boolean checkUsername(@NonNull String username) {
-        return userRepository.existsByUsername(username);
+        return identityIndex.usernameExists(username, userRepository::existsByUsername);
     }
 
     /**
-     * Проверяет существует ли электронный адрес пользователя.
+     * Проверяет существует ли электронный адрес пользователя. Свободные адреса
+     * отсекаются {@link UserIdentityIndex} без запроса к БД.
      *
      * @param email электронная почта пользователя.
      * @return true если адрес существует, false если нет.
      */
     @Override
     public boolean checkEmail(@NonNull String email) {
-        return userRepository.existsByEmail(email);
+        return identityIndex.emailExists(email, userRepository::existsByEmail);
+    }
+
+    /**
+     * Подбирает свободные варианты имени пользователя в {@link UsernameSuggester}.
+     *
+     * @param username занятое имя пользователя.
+     * @param count    количество вариантов.
+     * @return ответ со свободными вариантами имени.
+     */
+    @Override
+    public DtoUsernameSuggestionResponse suggestUsernames(@NonNull String username, int count) {
+        return DtoUsernameSuggestionResponse.builder()
+                .username(username)
+                .suggestions(usernameSuggester.suggest(username, count))
+                .build();
+    }
+
+    /**
+     * Определяет по имени нарушенного ограничения, какое поле уже занято.
+     * Распознаются и прежние имена ограничений, если БД еще не переведена скриптом
+     * {@code migrations/003_user_constraints.sql}. Прочие нарушения целостности пробрасываются как есть.
+     */
+    private static UserExistsException toUserExists(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+            var constraint = violation.getConstraintName().toLowerCase(Locale.ROOT);
+            if (constraint.contains(User.USERNAME_CONSTRAINT) || constraint.contains(User.LEGACY_USERNAME_CONSTRAINT)) {
+                return new UserExistsException(UserExistsException.LOGIN_EXIST, e);
+            }
+            if (constraint.contains(User.EMAIL_CONSTRAINT) || constraint.contains(User.LEGACY_EMAIL_CONSTRAINT)) {
+                return new UserExistsException(UserExistsException.EMAIL_EXIST, e);
+            }
+        }
+        throw e;
     }
 }
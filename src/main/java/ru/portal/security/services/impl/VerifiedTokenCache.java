@@ -0,0 +1,107 @@
+package ru.portal.security.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.lang.NonNull;
+import ru.portal.security.services.TokenClaims;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Ограниченный по размеру кэш уже проверенных токенов доступа.
+ * Ключом служит SHA-256 от токена, поэтому сами токены в памяти не хранятся.
+ * Каждая запись удаляется в момент истечения времени жизни своего токена.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class VerifiedTokenCache {
+
+    static String CACHE_NAME = "verifiedTokens";
+
+    Cache<ByteBuffer, TokenClaims> cache;
+    MessageDigest digestPrototype;
+
+    VerifiedTokenCache(long maximumSize, @NonNull MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        try {
+            this.digestPrototype = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Возвращает ранее проверенные утверждения токена.
+     *
+     * @param key ключ токена, полученный из {@link #key(String)}.
+     * @return утверждения или {@link Optional#empty()}, если токена нет в кэше или он истек.
+     */
+    Optional<TokenClaims> get(@NonNull ByteBuffer key) {
+        var claims = cache.getIfPresent(key);
+        if (claims == null || claims.isExpired(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(claims);
+    }
+
+    void put(@NonNull ByteBuffer key, @NonNull TokenClaims claims) {
+        cache.put(key, claims);
+    }
+
+    /**
+     * Вычисляет ключ токена. Экземпляр {@link MessageDigest} не потокобезопасен,
+     * поэтому для каждого вызова клонируется прототип.
+     *
+     * @param token токен доступа.
+     * @return SHA-256 от токена.
+     */
+    ByteBuffer key(@NonNull String token) {
+        try {
+            var digest = (MessageDigest) digestPrototype.clone();
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Время жизни записи совпадает с оставшимся временем жизни токена.
+     */
+    private static final class TokenExpiry implements Expiry<ByteBuffer, TokenClaims> {
+
+        @Override
+        public long expireAfterCreate(@NonNull ByteBuffer key, @NonNull TokenClaims claims, long currentTime) {
+            var remaining = Duration.between(Instant.now(), claims.getExpiration());
+            return remaining.isNegative() ? 0 : remaining.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(@NonNull ByteBuffer key, @NonNull TokenClaims claims,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(@NonNull ByteBuffer key, @NonNull TokenClaims claims,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
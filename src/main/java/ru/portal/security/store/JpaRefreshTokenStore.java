@@ -0,0 +1,81 @@
+package ru.portal.security.store;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.portal.entities.auth.RefreshToken;
+import ru.portal.repositories.UserRepository;
+import ru.portal.repositories.auth.RefreshTokenRepository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Хранилище токенов обновления в БД через {@link RefreshTokenRepository}.
+ * Используется по умолчанию.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+@ConditionalOnProperty(name = "security.token.store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    RefreshTokenRepository refreshTokenRepository;
+    UserRepository userRepository;
+
+    @Autowired
+    public JpaRefreshTokenStore(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Вставляет токен и в той же транзакции одним запросом удаляет лишние токены
+     * пользователя по индексу {@code (user_id, lifetime)}. Строка пользователя
+     * блокируется до вставки, иначе при READ COMMITTED параллельные входы не видят
+     * токены друг друга и оставляют больше {@code maxPerUser} сессий.
+     */
+    @Transactional
+    @NonNull
+    @Override
+    public RefreshToken add(@NonNull RefreshToken token, int maxPerUser) {
+        userRepository.findByIdForUpdate(token.getUser().getId());
+        var saved = refreshTokenRepository.saveAndFlush(token);
+        refreshTokenRepository.evictOldest(token.getUser().getId(), maxPerUser);
+        return saved;
+    }
+
+    @NonNull
+    @Override
+    public Optional<RefreshToken> find(long id) {
+        return refreshTokenRepository.findById(id);
+    }
+
+    /**
+     * Обновляет токен одним условным запросом по первичному ключу.
+     */
+    @Transactional
+    @Override
+    public boolean rotate(long id, @NonNull byte[] expectedHash, @NonNull byte[] tokenHash, long lifetime) {
+        return refreshTokenRepository.rotate(id, expectedHash, tokenHash, lifetime, ZonedDateTime.now()) == 1;
+    }
+
+    @Transactional
+    @Override
+    public void delete(@NonNull RefreshToken token) {
+        refreshTokenRepository.delete(token);
+    }
+
+    @NonNull
+    @Override
+    public List<RefreshToken> findSessions(@NonNull String username, long now, long lifetime, long id, int size) {
+        return refreshTokenRepository.findSessionsAfter(username, now, lifetime, id, PageRequest.of(0, size));
+    }
+}
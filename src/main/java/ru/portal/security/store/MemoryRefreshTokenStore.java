@@ -0,0 +1,266 @@
+package ru.portal.security.store;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.portal.entities.auth.RefreshToken;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Хранилище токенов обновления в памяти узла для одноузловых и граничных развертываний.
+ * <p>
+ * Токены лежат в {@link ConcurrentHashMap} по идентификатору, поиск не берет блокировок.
+ * Сессии каждого пользователя упорядочены по времени жизни и меняются под блокировкой
+ * пользователя, поэтому ограничение количества сессий и обновление токена атомарны.
+ * Истекшие токены удаляются {@link TimingWheel} с тиком {@code security.token.store.memory.tickInMs}.
+ * <p>
+ * Если задан {@code security.token.store.memory.journalFile}, изменения дописываются
+ * в {@link RefreshTokenJournal} и восстанавливаются при запуске, а после
+ * {@code security.token.store.memory.compactAfterRecords} записей журнал сжимается.
+ * Без журнала перезапуск завершает все сессии. Хранилище не разделяется между узлами.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Component
+@ConditionalOnProperty(name = "security.token.store.type", havingValue = "memory")
+@Slf4j
+public class MemoryRefreshTokenStore implements RefreshTokenStore {
+
+    ConcurrentHashMap<Long, StoredToken> tokens = new ConcurrentHashMap<>();
+    ConcurrentHashMap<String, Sessions> sessions = new ConcurrentHashMap<>();
+    AtomicLong sequence = new AtomicLong();
+    TimingWheel<StoredToken> wheel;
+    RefreshTokenJournal journal;
+    long compactAfterRecords;
+
+    @Autowired
+    public MemoryRefreshTokenStore(Environment environment) {
+        this(environment, Instant.now().toEpochMilli());
+    }
+
+    MemoryRefreshTokenStore(Environment environment, long now) {
+        this.wheel = new TimingWheel<>(
+                environment.getRequiredProperty("security.token.store.memory.tickInMs", Long.class), now);
+        this.compactAfterRecords = environment.getRequiredProperty(
+                "security.token.store.memory.compactAfterRecords", Long.class);
+
+        var file = environment.getProperty("security.token.store.memory.journalFile", "");
+        if (file.isBlank()) {
+            this.journal = null;
+            return;
+        }
+        this.journal = new RefreshTokenJournal(Path.of(file));
+        try {
+            for (var token : journal.replay(now).values()) {
+                tokens.put(token.getId(), token);
+                sessions.computeIfAbsent(token.getUsername(), username -> new Sessions()).tokens.add(token);
+                sequence.accumulateAndGet(token.getId(), Math::max);
+                wheel.schedule(token, token.getLifetime());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Загружено токенов обновления из журнала: {}", tokens.size());
+    }
+
+    @NonNull
+    @Override
+    public RefreshToken add(@NonNull RefreshToken token, int maxPerUser) {
+        var username = Objects.requireNonNull(token.getUser().getUsername(), "Нет имени пользователя");
+        var stored = StoredToken.of(sequence.incrementAndGet(), token, Instant.now().toEpochMilli());
+
+        var userSessions = lock(username);
+        try {
+            userSessions.tokens.add(stored);
+            tokens.put(stored.getId(), stored);
+            if (journal != null) {
+                journal.put(stored);
+            }
+            while (userSessions.tokens.size() > maxPerUser) {
+                remove(userSessions.tokens.last(), userSessions);
+            }
+        } finally {
+            unlock(username, userSessions);
+        }
+        wheel.schedule(stored, stored.getLifetime());
+        return stored.toEntity();
+    }
+
+    @NonNull
+    @Override
+    public Optional<RefreshToken> find(long id) {
+        return Optional.ofNullable(tokens.get(id)).map(StoredToken::toEntity);
+    }
+
+    @Override
+    public boolean rotate(long id, @NonNull byte[] expectedHash, @NonNull byte[] tokenHash, long lifetime) {
+        var current = tokens.get(id);
+        if (current == null) {
+            return false;
+        }
+        StoredToken rotated;
+        var userSessions = lock(current.getUsername());
+        try {
+            var stored = tokens.get(id);
+            if (stored == null || !MessageDigest.isEqual(stored.getTokenHash(), expectedHash)) {
+                return false;
+            }
+            rotated = stored.rotate(tokenHash.clone(), lifetime, Instant.now().toEpochMilli());
+            userSessions.tokens.remove(stored);
+            userSessions.tokens.add(rotated);
+            tokens.put(id, rotated);
+            if (journal != null) {
+                journal.rotate(rotated);
+            }
+        } finally {
+            unlock(current.getUsername(), userSessions);
+        }
+        wheel.schedule(rotated, lifetime);
+        return true;
+    }
+
+    @Override
+    public void delete(@NonNull RefreshToken token) {
+        var stored = tokens.get(token.getId());
+        if (stored != null) {
+            removeIfCurrent(stored);
+        }
+    }
+
+    @NonNull
+    @Override
+    public List<RefreshToken> findSessions(@NonNull String username, long now, long lifetime, long id, int size) {
+        var result = new ArrayList<RefreshToken>(size);
+        var userSessions = sessions.get(username);
+        if (userSessions == null) {
+            return result;
+        }
+        userSessions.lock.lock();
+        try {
+            for (var stored : userSessions.tokens.tailSet(StoredToken.key(lifetime, id), false)) {
+                if (stored.getLifetime() < now || result.size() == size) {
+                    break;
+                }
+                result.add(stored.toEntity());
+            }
+        } finally {
+            userSessions.lock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Удаляет истекшие токены и сжимает журнал, если в нем накопилось много записей.
+     */
+    @Scheduled(fixedDelayString = "${security.token.store.memory.tickInMs}")
+    public void expire() {
+        expire(Instant.now().toEpochMilli());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    int expire(long now) {
+        var expired = new ArrayList<StoredToken>();
+        wheel.advance(now, expired::add);
+        var removed = 0;
+        for (var stored : expired) {
+            if (removeIfCurrent(stored)) {
+                removed++;
+            }
+        }
+        if (journal != null && journal.records() > Math.max(compactAfterRecords, 2L * tokens.size())) {
+            try {
+                journal.compact(tokens.values());
+            } catch (IOException e) {
+                log.error("Не удалось сжать журнал токенов обновления", e);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Удаляет запись, если она все еще актуальна для своего идентификатора.
+     */
+    private boolean removeIfCurrent(StoredToken stored) {
+        var userSessions = lock(stored.getUsername());
+        try {
+            if (tokens.get(stored.getId()) != stored) {
+                return false;
+            }
+            remove(stored, userSessions);
+            return true;
+        } finally {
+            unlock(stored.getUsername(), userSessions);
+        }
+    }
+
+    private void remove(StoredToken stored, Sessions userSessions) {
+        userSessions.tokens.remove(stored);
+        tokens.remove(stored.getId(), stored);
+        if (journal != null) {
+            journal.remove(stored.getId());
+        }
+    }
+
+    /**
+     * Берет блокировку сессий пользователя, создавая их при необходимости.
+     */
+    private Sessions lock(String username) {
+        while (true) {
+            var userSessions = sessions.computeIfAbsent(username, key -> new Sessions());
+            userSessions.lock.lock();
+            if (!userSessions.removed) {
+                return userSessions;
+            }
+            userSessions.lock.unlock();
+        }
+    }
+
+    /**
+     * Отпускает блокировку и убирает пустые сессии пользователя из таблицы.
+     */
+    private void unlock(String username, Sessions userSessions) {
+        if (userSessions.tokens.isEmpty()) {
+            userSessions.removed = true;
+            sessions.remove(username, userSessions);
+        }
+        userSessions.lock.unlock();
+    }
+
+    /**
+     * Сессии пользователя, упорядоченные от новых к старым.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Sessions {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final TreeSet<StoredToken> tokens = new TreeSet<>(StoredToken.NEWEST_FIRST);
+        boolean removed;
+    }
+}
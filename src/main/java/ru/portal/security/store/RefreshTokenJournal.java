@@ -0,0 +1,243 @@
+package ru.portal.security.store;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import ru.portal.security.utilities.TokenDigest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Журнал изменений хранилища токенов в памяти, только дописываемый в конец файла.
+ * <p>
+ * Записи: {@code PUT} с полной записью токена, {@code ROTATE} с новым хэшем и временем
+ * жизни и {@code REMOVE} с идентификатором. При запуске журнал проигрывается,
+ * недописанная при аварии последняя запись отбрасывается, а файл переписывается
+ * только действующими токенами. Во время работы файл сжимается так же, когда
+ * в нем накапливается много записей. Запись идет в кэш страниц ОС, на диск
+ * файл сбрасывается при остановке.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Slf4j
+final class RefreshTokenJournal {
+
+    static final byte PUT = 1;
+    static final byte ROTATE = 2;
+    static final byte REMOVE = 3;
+
+    final Path file;
+    final ReentrantLock lock = new ReentrantLock();
+
+    FileChannel channel;
+    long records;
+
+    RefreshTokenJournal(@NonNull Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Проигрывает журнал и переписывает файл действующими токенами.
+     * Должен вызываться один раз до записи.
+     *
+     * @param now текущее время в миллисекундах.
+     * @return действующие токены по идентификатору.
+     * @throws IOException если файл не удалось прочитать или переписать.
+     */
+    Map<Long, StoredToken> replay(long now) throws IOException {
+        var result = new HashMap<Long, StoredToken>();
+        if (Files.exists(file)) {
+            try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                while (readRecord(input, result)) {
+                    records++;
+                }
+            } catch (EOFException e) {
+                log.warn("Журнал токенов обновления обрезан после {} записей", records);
+            }
+        }
+        result.values().removeIf(token -> token.getLifetime() < now);
+        compact(result.values());
+        return result;
+    }
+
+    void put(@NonNull StoredToken token) {
+        append(output -> {
+            output.writeByte(PUT);
+            writeToken(output, token);
+        });
+    }
+
+    void rotate(@NonNull StoredToken token) {
+        append(output -> {
+            output.writeByte(ROTATE);
+            output.writeLong(token.getId());
+            output.write(token.getTokenHash());
+            output.writeLong(token.getLifetime());
+            output.writeLong(token.getUpdateAt());
+        });
+    }
+
+    void remove(long id) {
+        append(output -> {
+            output.writeByte(REMOVE);
+            output.writeLong(id);
+        });
+    }
+
+    /**
+     * Количество записей в файле с момента последнего сжатия.
+     */
+    long records() {
+        lock.lock();
+        try {
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Атомарно заменяет файл новым, содержащим только переданные токены.
+     * Записи, которые дописываются во время сжатия, ждут его окончания
+     * и попадают уже в новый файл.
+     *
+     * @param tokens действующие токены.
+     * @throws IOException если файл не удалось переписать.
+     */
+    void compact(@NonNull Collection<StoredToken> tokens) throws IOException {
+        lock.lock();
+        try {
+            var temp = file.resolveSibling(file.getFileName() + ".tmp");
+            var count = 0L;
+            try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                for (var token : tokens) {
+                    output.writeByte(PUT);
+                    writeToken(output, token);
+                    count++;
+                }
+            }
+            try (var temporary = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                temporary.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (channel != null) {
+                channel.close();
+            }
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            records = count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            if (channel != null) {
+                channel.force(true);
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.error("Не удалось закрыть журнал токенов обновления", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(RecordWriter writer) {
+        var bytes = new ByteArrayOutputStream(128);
+        try {
+            writer.write(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        var buffer = ByteBuffer.wrap(bytes.toByteArray());
+        lock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            records++;
+        } catch (IOException e) {
+            log.error("Не удалось дописать журнал токенов обновления", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean readRecord(DataInputStream input, Map<Long, StoredToken> tokens) throws IOException {
+        var type = input.read();
+        if (type == PUT) {
+            var token = readToken(input);
+            tokens.put(token.getId(), token);
+        } else if (type == ROTATE) {
+            var id = input.readLong();
+            var tokenHash = new byte[TokenDigest.LENGTH];
+            input.readFully(tokenHash);
+            var lifetime = input.readLong();
+            var updateAt = input.readLong();
+            tokens.computeIfPresent(id, (key, stored) -> stored.rotate(tokenHash, lifetime, updateAt));
+        } else if (type == REMOVE) {
+            tokens.remove(input.readLong());
+        } else {
+            if (type != -1) {
+                log.warn("Неизвестная запись {} в журнале токенов обновления", type);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static void writeToken(DataOutputStream output, StoredToken token) throws IOException {
+        output.writeLong(token.getId());
+        output.write(token.getTokenHash());
+        output.writeLong(token.getLifetime());
+        output.writeLong(token.getUserId());
+        output.writeUTF(token.getUsername());
+        // Бывшие поля роли и статуса, оставлены пустыми ради совместимости формата
+        output.writeUTF("");
+        output.writeUTF("");
+        output.writeLong(token.getCreateAt());
+        output.writeLong(token.getUpdateAt());
+    }
+
+    private static StoredToken readToken(DataInputStream input) throws IOException {
+        var id = input.readLong();
+        var tokenHash = new byte[TokenDigest.LENGTH];
+        input.readFully(tokenHash);
+        var lifetime = input.readLong();
+        var userId = input.readLong();
+        var username = input.readUTF();
+        // Роль и статус из журналов прежнего формата не используются
+        input.readUTF();
+        input.readUTF();
+        return new StoredToken(id, tokenHash, lifetime, userId, username, input.readLong(), input.readLong());
+    }
+
+    /**
+     * Запись одной записи журнала.
+     */
+    @FunctionalInterface
+    private interface RecordWriter {
+
+        void write(DataOutputStream output) throws IOException;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.portal.security.store;
+
+import org.springframework.lang.NonNull;
+import ru.portal.entities.auth.RefreshToken;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Интерфейс хранилища токенов обновления.
+ * <p>
+ * Реализация выбирается свойством {@code security.token.store.type}: {@code jpa}
+ * (по умолчанию) хранит токены в БД, {@code memory} - в памяти узла.
+ * Токены находятся по идентификатору, который служит селектором
+ * {@link ru.portal.security.utilities.SplitToken}.
+ *
+ * @author Федорышин К.В.
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Сохраняет новый токен и удаляет самые старые токены пользователя
+     * сверх {@code maxPerUser} одной атомарной операцией.
+     *
+     * @param token      новый токен с хэшем, временем жизни и пользователем.
+     * @param maxPerUser максимальное количество токенов пользователя.
+     * @return сохраненный токен с назначенным идентификатором.
+     */
+    @NonNull
+    RefreshToken add(@NonNull RefreshToken token, int maxPerUser);
+
+    /**
+     * Извлекает токен по идентификатору.
+     *
+     * @param id идентификатор токена.
+     * @return токен или {@link Optional#empty()}, если ничего не найдено.
+     */
+    @NonNull
+    Optional<RefreshToken> find(long id);
+
+    /**
+     * Заменяет хэш и время жизни токена, если его текущий хэш равен {@code expectedHash}.
+     * Из двух одновременных обновлений одного токена успешно только одно.
+     *
+     * @param id           идентификатор токена.
+     * @param expectedHash текущий хэш токена.
+     * @param tokenHash    новый хэш токена.
+     * @param lifetime     новое время жизни в миллисекундах.
+     * @return true если токен обновлен.
+     */
+    boolean rotate(long id, @NonNull byte[] expectedHash, @NonNull byte[] tokenHash, long lifetime);
+
+    /**
+     * Удаляет токен.
+     *
+     * @param token токен.
+     */
+    void delete(@NonNull RefreshToken token);
+
+    /**
+     * Извлекает страницу действующих токенов пользователя по ключу, начиная после
+     * токена с временем жизни {@code lifetime} и идентификатором {@code id}.
+     * Токены упорядочены по убыванию времени жизни, затем идентификатора.
+     *
+     * @param username имя пользователя.
+     * @param now      текущее время в миллисекундах.
+     * @param lifetime время жизни последнего токена предыдущей страницы.
+     * @param id       идентификатор последнего токена предыдущей страницы.
+     * @param size     размер страницы.
+     * @return токены страницы.
+     */
+    @NonNull
+    List<RefreshToken> findSessions(@NonNull String username, long now, long lifetime, long id, int size);
+}
@@ -0,0 +1,84 @@
+package ru.portal.security.store;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.lang.NonNull;
+import ru.portal.entities.User;
+import ru.portal.entities.auth.RefreshToken;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Comparator;
+
+/**
+ * Неизменяемая запись токена обновления в памяти с идентификатором и именем пользователя.
+ * Роль и статус не копируются: при обновлении токена пользователь читается заново,
+ * чтобы блокировка или смена роли сразу попадали в новые токены доступа.
+ * Обновление токена создает новую запись, поэтому записи сравниваются по ссылке.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Getter
+final class StoredToken {
+
+    /**
+     * Порядок сессий: по убыванию времени жизни, затем идентификатора.
+     */
+    static final Comparator<StoredToken> NEWEST_FIRST = Comparator
+            .comparingLong((StoredToken token) -> token.lifetime)
+            .thenComparingLong(token -> token.id)
+            .reversed();
+
+    long id;
+    byte[] tokenHash;
+    long lifetime;
+    long userId;
+    String username;
+    long createAt;
+    long updateAt;
+
+    StoredToken(long id, byte[] tokenHash, long lifetime, long userId, String username,
+                long createAt, long updateAt) {
+        this.id = id;
+        this.tokenHash = tokenHash;
+        this.lifetime = lifetime;
+        this.userId = userId;
+        this.username = username;
+        this.createAt = createAt;
+        this.updateAt = updateAt;
+    }
+
+    static StoredToken of(long id, @NonNull RefreshToken token, long now) {
+        var user = token.getUser();
+        return new StoredToken(id, token.getTokenHash().clone(), token.getLifetime(), user.getId(), user.getUsername(),
+                now, now);
+    }
+
+    /**
+     * Ключ для поиска в упорядоченном наборе сессий.
+     */
+    static StoredToken key(long lifetime, long id) {
+        return new StoredToken(id, null, lifetime, 0, null, 0, 0);
+    }
+
+    StoredToken rotate(@NonNull byte[] tokenHash, long lifetime, long now) {
+        return new StoredToken(id, tokenHash, lifetime, userId, username, createAt, now);
+    }
+
+    RefreshToken toEntity() {
+        var zone = ZoneId.systemDefault();
+        return RefreshToken.builder()
+                .id(id)
+                .tokenHash(tokenHash.clone())
+                .lifetime(lifetime)
+                .user(User.builder()
+                        .id(userId)
+                        .username(username)
+                        .build())
+                .createAt(Instant.ofEpochMilli(createAt).atZone(zone))
+                .updateAt(Instant.ofEpochMilli(updateAt).atZone(zone))
+                .build();
+    }
+}
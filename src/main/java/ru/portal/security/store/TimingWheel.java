@@ -0,0 +1,153 @@
+package ru.portal.security.store;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Иерархическое колесо таймеров.
+ * <p>
+ * {@value LEVELS} уровня по {@value SLOTS} ячеек: ячейка уровня {@code L} покрывает
+ * {@code 64^L} тиков. Элемент кладется на самый нижний уровень, который дотягивается
+ * до его срока, а при переходе колеса через границу ячейки верхнего уровня ее элементы
+ * перекладываются ниже. Постановка и срабатывание стоят O(1) независимо от количества
+ * элементов, сортировка по сроку не нужна. Сроки дальше горизонта {@code 64^4} тиков
+ * кладутся в последнюю ячейку верхнего уровня и перекладываются, когда до нее дойдет колесо.
+ * <p>
+ * Элементы из колеса не удаляются: отмененный элемент просто срабатывает,
+ * а получатель сам проверяет, актуален ли он.
+ *
+ * @param <T> тип элементов.
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+final class TimingWheel<T> {
+
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = 4;
+    static final long HORIZON = 1L << (SLOT_BITS * LEVELS);
+
+    final long tickInMs;
+    final ArrayDeque<Node<T>>[][] wheel;
+    final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Следующий необработанный тик.
+     */
+    long currentTick;
+
+    /**
+     * @param tickInMs длина тика в миллисекундах.
+     * @param now      текущее время в миллисекундах.
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickInMs, long now) {
+        if (tickInMs <= 0) {
+            throw new IllegalArgumentException("Длина тика должна быть положительной");
+        }
+        this.tickInMs = tickInMs;
+        this.currentTick = now / tickInMs;
+        this.wheel = new ArrayDeque[LEVELS][SLOTS];
+        for (var level : wheel) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    /**
+     * Ставит элемент в колесо.
+     *
+     * @param item     элемент.
+     * @param deadline срок в миллисекундах.
+     */
+    void schedule(@NonNull T item, long deadline) {
+        lock.lock();
+        try {
+            place(new Node<>(item, -Math.floorDiv(-deadline, tickInMs)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Прокручивает колесо до текущего времени и отдает элементы с наступившим сроком.
+     * Элемент не отдается раньше своего срока, но может быть отдан позже не больше чем на тик.
+     * Получатель вызывается под блокировкой колеса и не должен ставить в него элементы.
+     *
+     * @param now     текущее время в миллисекундах.
+     * @param expired получатель элементов.
+     * @return количество отданных элементов.
+     */
+    int advance(long now, @NonNull Consumer<T> expired) {
+        var target = now / tickInMs;
+        var count = 0;
+        lock.lock();
+        try {
+            while (currentTick <= target) {
+                cascade();
+                var slot = wheel[0][(int) (currentTick & (SLOTS - 1))];
+                for (var node = slot.poll(); node != null; node = slot.poll()) {
+                    expired.accept(node.item);
+                    count++;
+                }
+                currentTick++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return count;
+    }
+
+    /**
+     * Перекладывает ниже ячейки верхних уровней, граница которых совпала с текущим тиком.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            var shift = SLOT_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            var slot = wheel[level][(int) ((currentTick >>> shift) & (SLOTS - 1))];
+            var size = slot.size();
+            for (int i = 0; i < size; i++) {
+                place(slot.poll());
+            }
+        }
+    }
+
+    private void place(Node<T> node) {
+        var delta = node.deadlineTick - currentTick;
+        if (delta < SLOTS) {
+            var tick = Math.max(node.deadlineTick, currentTick);
+            wheel[0][(int) (tick & (SLOTS - 1))].add(node);
+            return;
+        }
+        var tick = delta < HORIZON ? node.deadlineTick : currentTick + HORIZON - 1;
+        var level = 1;
+        while (level < LEVELS - 1 && (tick - currentTick) >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        wheel[level][(int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1))].add(node);
+    }
+
+    /**
+     * Элемент и его срок в тиках.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Node<T> {
+
+        T item;
+        long deadlineTick;
+
+        private Node(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
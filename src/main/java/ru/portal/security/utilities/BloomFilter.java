@@ -0,0 +1,112 @@
+package ru.portal.security.utilities;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.lang.NonNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасный фильтр Блума для строк. Добавление и проверка
+ * не блокируют друг друга: биты выставляются через CAS.
+ * Удалять элементы нельзя, устаревший фильтр заменяется новым целиком.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class BloomFilter {
+
+    AtomicLongArray bits;
+    long bitCount;
+    int hashCount;
+
+    /**
+     * Создает фильтр под ожидаемое количество элементов.
+     *
+     * @param expectedInsertions ожидаемое количество элементов.
+     * @param falsePositiveRate  допустимая доля ложных срабатываний.
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Неверные параметры фильтра Блума");
+        }
+        var optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate)
+                / (Math.log(2) * Math.log(2)));
+        var words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Добавляет элемент.
+     *
+     * @param value элемент.
+     */
+    public void put(@NonNull CharSequence value) {
+        var hash = hash(value);
+        var first = hash & 0xFFFFFFFFL;
+        var second = hash >>> 32;
+        for (int i = 1; i <= hashCount; i++) {
+            var index = index(first + i * second);
+            var word = (int) (index >>> 6);
+            var mask = 1L << index;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0) {
+                if (bits.compareAndSet(word, current, current | mask)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Проверяет элемент.
+     *
+     * @param value элемент.
+     * @return false если элемента точно нет, true если он, вероятно, есть.
+     */
+    public boolean mightContain(@NonNull CharSequence value) {
+        var hash = hash(value);
+        var first = hash & 0xFFFFFFFFL;
+        var second = hash >>> 32;
+        for (int i = 1; i <= hashCount; i++) {
+            var index = index(first + i * second);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Оценивает долю ложных срабатываний по заполненности фильтра.
+     *
+     * @return ожидаемая доля ложных срабатываний.
+     */
+    public double expectedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) set / bitCount, hashCount);
+    }
+
+    private long index(long combined) {
+        return (combined & Long.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * 64-битный FNV-1a с перемешиванием из SplitMix64.
+     */
+    private static long hash(CharSequence value) {
+        var hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
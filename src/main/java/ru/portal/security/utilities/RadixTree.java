@@ -0,0 +1,210 @@
+package ru.portal.security.utilities;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.lang.NonNull;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Потокобезопасное сжатое префиксное дерево строк.
+ * <p>
+ * Цепочки узлов с одним потомком склеены в одно ребро, поэтому узлов не больше,
+ * чем удвоенное количество строк. Потомки узла хранятся массивом, упорядоченным
+ * по первому символу ребра, и ищутся бинарным поиском. Каждый узел хранит
+ * количество строк в своем поддереве, так что подсчет строк с заданным префиксом
+ * стоит O(длина префикса). Проверки идут под блокировкой чтения и не мешают друг другу.
+ * Удалять строки нельзя.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class RadixTree {
+
+    Node root = new Node("");
+    ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавляет строку.
+     *
+     * @param key строка.
+     * @return true если строки еще не было.
+     */
+    public boolean add(@NonNull String key) {
+        lock.writeLock().lock();
+        try {
+            var existing = find(key);
+            if (existing != null && existing.terminal) {
+                return false;
+            }
+            var node = root;
+            node.count++;
+            var i = 0;
+            while (i < key.length()) {
+                var index = childIndex(node, key.charAt(i));
+                if (index < 0) {
+                    var leaf = new Node(key.substring(i));
+                    leaf.terminal = true;
+                    leaf.count = 1;
+                    node.insert(-index - 1, leaf);
+                    return true;
+                }
+                var child = node.children[index];
+                var common = commonPrefix(child.label, key, i);
+                if (common < child.label.length()) {
+                    var middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.children = new Node[]{child};
+                    middle.count = child.count;
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                child.count++;
+                node = child;
+                i += common;
+            }
+            node.terminal = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Проверяет наличие строки.
+     *
+     * @param key строка.
+     * @return true если строка добавлена.
+     */
+    public boolean contains(@NonNull String key) {
+        lock.readLock().lock();
+        try {
+            var node = find(key);
+            return node != null && node.terminal;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Считает строки, начинающиеся с префикса.
+     *
+     * @param prefix префикс.
+     * @return количество строк с префиксом, включая сам префикс.
+     */
+    public int countWithPrefix(@NonNull String prefix) {
+        lock.readLock().lock();
+        try {
+            var node = root;
+            var i = 0;
+            while (i < prefix.length()) {
+                var index = childIndex(node, prefix.charAt(i));
+                if (index < 0) {
+                    return 0;
+                }
+                var child = node.children[index];
+                var remaining = prefix.length() - i;
+                if (child.label.length() >= remaining) {
+                    return child.label.regionMatches(0, prefix, i, remaining) ? child.count : 0;
+                }
+                if (!prefix.startsWith(child.label, i)) {
+                    return 0;
+                }
+                node = child;
+                i += child.label.length();
+            }
+            return node.count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Количество строк в дереве.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return root.count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет узел, в котором заканчивается строка. Вызывается под блокировкой.
+     */
+    private Node find(String key) {
+        var node = root;
+        var i = 0;
+        while (i < key.length()) {
+            var index = childIndex(node, key.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+            if (!key.startsWith(node.label, i)) {
+                return null;
+            }
+            i += node.label.length();
+        }
+        return node;
+    }
+
+    /**
+     * Бинарный поиск потомка по первому символу ребра.
+     *
+     * @return индекс потомка или {@code -(точка вставки) - 1}.
+     */
+    private static int childIndex(Node node, char first) {
+        var low = 0;
+        var high = node.children.length - 1;
+        while (low <= high) {
+            var middle = (low + high) >>> 1;
+            var current = node.children[middle].label.charAt(0);
+            if (current < first) {
+                low = middle + 1;
+            } else if (current > first) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        var length = Math.min(label.length(), key.length() - offset);
+        var i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Узел дерева с меткой входящего ребра.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static final class Node {
+
+        static final Node[] EMPTY = new Node[0];
+
+        String label;
+        Node[] children = EMPTY;
+        boolean terminal;
+        int count;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private void insert(int index, Node child) {
+            var grown = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            grown[index] = child;
+            children = grown;
+        }
+    }
+}
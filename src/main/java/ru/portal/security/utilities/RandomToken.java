@@ -3,17 +3,73 @@ package ru.portal.security.utilities;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 
-import java.util.UUID;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Генератор случайных токенов из 32 шестнадцатеричных символов (128 бит).
+ * <p>
+ * {@link java.util.UUID#randomUUID()} берет байты из одного общего {@link SecureRandom},
+ * который синхронизирован и под нагрузкой закрепляет виртуальные потоки за потоками ОС.
+ * Здесь используется несколько независимых генераторов DRBG, генератор выбирается
+ * по идентификатору потока и защищается {@link ReentrantLock}, при ожидании которого
+ * виртуальный поток освобождает поток ОС.
+ *
+ * @author Федорышин К.В.
+ */
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public final class RandomToken {
 
+    static int TOKEN_BYTES = 16;
+    static HexFormat HEX = HexFormat.of();
+    static Stripe[] STRIPES = createStripes();
+
     private RandomToken() {
 
     }
 
     public static String getToken() {
-        return UUID.randomUUID().toString().replace("-", "");
+        var bytes = new byte[TOKEN_BYTES];
+        var stripe = STRIPES[(int) Thread.currentThread().getId() & (STRIPES.length - 1)];
+        stripe.lock.lock();
+        try {
+            stripe.random.nextBytes(bytes);
+        } finally {
+            stripe.lock.unlock();
+        }
+        return HEX.formatHex(bytes);
+    }
+
+    private static Stripe[] createStripes() {
+        var count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        var stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(newRandom());
+        }
+        return stripes;
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
     }
 
+    /**
+     * Генератор и его блокировка.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static final class Stripe {
+
+        SecureRandom random;
+        ReentrantLock lock = new ReentrantLock();
+
+        private Stripe(SecureRandom random) {
+            this.random = random;
+        }
+    }
 }
@@ -0,0 +1,81 @@
+package ru.portal.security.utilities;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.lang.NonNull;
+
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Токен из двух частей: открытого селектора и секретного верификатора.
+ * <p>
+ * Селектор - идентификатор строки в БД, записанный {@value SELECTOR_LENGTH} шестнадцатеричными
+ * символами, по нему строка находится через первичный ключ. Верификатор - случайная
+ * строка {@link RandomToken}, в БД хранится только его SHA-256, который сравнивается
+ * за постоянное время. Токен целиком состоит из {@value LENGTH} шестнадцатеричных символов.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Getter
+public final class SplitToken {
+
+    public static final int SELECTOR_LENGTH = 16;
+    public static final int VERIFIER_LENGTH = 32;
+    public static final int LENGTH = SELECTOR_LENGTH + VERIFIER_LENGTH;
+
+    static HexFormat HEX = HexFormat.of();
+
+    long selector;
+    String verifier;
+
+    private SplitToken(long selector, String verifier) {
+        this.selector = selector;
+        this.verifier = verifier;
+    }
+
+    /**
+     * Собирает токен из селектора и верификатора.
+     *
+     * @param selector идентификатор строки.
+     * @param verifier верификатор из {@value VERIFIER_LENGTH} символов.
+     * @return токен.
+     */
+    @NonNull
+    public static String format(long selector, @NonNull String verifier) {
+        return HEX.toHexDigits(selector) + verifier;
+    }
+
+    /**
+     * Разбирает токен на селектор и верификатор.
+     *
+     * @param token токен.
+     * @return части токена или {@link Optional#empty()}, если формат неверен.
+     */
+    @NonNull
+    public static Optional<SplitToken> parse(@NonNull String token) {
+        if (token.length() != LENGTH) {
+            return Optional.empty();
+        }
+        for (int i = 0; i < SELECTOR_LENGTH; i++) {
+            if (!HexFormat.isHexDigit(token.charAt(i))) {
+                return Optional.empty();
+            }
+        }
+        var selector = HexFormat.fromHexDigitsToLong(token, 0, SELECTOR_LENGTH);
+        return Optional.of(new SplitToken(selector, token.substring(SELECTOR_LENGTH)));
+    }
+
+    /**
+     * Сравнивает хэш верификатора с сохраненным хэшем за постоянное время.
+     *
+     * @param storedHash сохраненный SHA-256 верификатора.
+     * @return true если верификатор подходит.
+     */
+    public boolean matches(@NonNull byte[] storedHash) {
+        return MessageDigest.isEqual(TokenDigest.sha256(verifier), storedHash);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.portal.security.utilities;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Потокобезопасное ведро токенов без блокировок. Состояние хранится одним числом -
+ * временем, к которому ведро снова станет полным при текущем расходе (GCRA),
+ * и изменяется через CAS, поэтому токены не пересчитываются по таймеру.
+ * Время передается снаружи в наносекундах {@link System#nanoTime()}.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class TokenBucket {
+
+    AtomicLong fullAt;
+    long interval;
+    long tolerance;
+
+    /**
+     * Создает полное ведро.
+     *
+     * @param capacity        вместимость ведра.
+     * @param refillPerSecond количество токенов, добавляемых в секунду.
+     * @param now             текущее время в наносекундах.
+     */
+    public TokenBucket(long capacity, double refillPerSecond, long now) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Неверные параметры ведра токенов");
+        }
+        this.interval = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.tolerance = capacity * interval;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Забирает один токен.
+     *
+     * @param now текущее время в наносекундах.
+     * @return 0 если токен взят, иначе время в наносекундах до появления токена.
+     */
+    public long tryConsume(long now) {
+        while (true) {
+            var current = fullAt.get();
+            var next = Math.max(current, now) + interval;
+            var wait = next - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
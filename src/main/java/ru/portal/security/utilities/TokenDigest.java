@@ -0,0 +1,51 @@
+package ru.portal.security.utilities;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.lang.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 от токенов, которые хранятся в БД только в виде хэша.
+ * Токены содержат 128 случайных бит, поэтому соль и медленное хэширование не нужны.
+ *
+ * @author Федорышин К.В.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public final class TokenDigest {
+
+    public static int LENGTH = 32;
+
+    static MessageDigest PROTOTYPE = createPrototype();
+
+    private TokenDigest() {
+
+    }
+
+    /**
+     * Вычисляет SHA-256 от токена. Экземпляр {@link MessageDigest} не потокобезопасен,
+     * поэтому для каждого вызова клонируется прототип.
+     *
+     * @param token токен.
+     * @return хэш токена длиной {@value LENGTH} байта.
+     */
+    public static byte[] sha256(@NonNull String token) {
+        try {
+            var digest = (MessageDigest) PROTOTYPE.clone();
+            return digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest createPrototype() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
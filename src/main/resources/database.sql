@@ -9,13 +9,15 @@ CREATE SCHEMA portal_schema;
 CREATE TABLE portal_schema.users
 (
     user_id   BIGSERIAL PRIMARY KEY,
-    username  VARCHAR(32)  NOT NULL UNIQUE,
-    email     VARCHAR(64)  NOT NULL UNIQUE,
+    username  VARCHAR(32)  NOT NULL,
+    email     VARCHAR(64)  NOT NULL,
     password  VARCHAR(256) NOT NULL,
     status    VARCHAR(20)  NOT NULL,
     role      VARCHAR(20)  NOT NULL,
     create_at TIMESTAMPTZ  NOT NULL,
-    update_at TIMESTAMPTZ  NOT NULL
+    update_at TIMESTAMPTZ  NOT NULL,
+    CONSTRAINT users_username_unique UNIQUE (username),
+    CONSTRAINT users_email_unique UNIQUE (email)
 );
 
 CREATE TABLE portal_schema.attempts_login
@@ -30,15 +32,16 @@ CREATE TABLE portal_schema.attempts_login
 
 CREATE TABLE portal_schema.refresh_tokens
 (
-    token_id  BIGSERIAL PRIMARY KEY,
-    token     VARCHAR(80) NOT NULL UNIQUE,
-    lifetime  BIGINT      NOT NULL,
-    user_id   BIGINT REFERENCES portal_schema.users (user_id),
-    create_at TIMESTAMPTZ NOT NULL,
-    update_at TIMESTAMPTZ NOT NULL
+    token_id   BIGSERIAL PRIMARY KEY,
+    token_hash BYTEA       NOT NULL CHECK ( octet_length(token_hash) = 32 ),
+    lifetime   BIGINT      NOT NULL,
+    user_id    BIGINT REFERENCES portal_schema.users (user_id),
+    create_at  TIMESTAMPTZ NOT NULL,
+    update_at  TIMESTAMPTZ NOT NULL
 );
 
-CREATE INDEX refresh_tokens_user_id_index ON portal_schema.refresh_tokens (user_id);
+CREATE INDEX refresh_tokens_user_id_lifetime_index ON portal_schema.refresh_tokens (user_id, lifetime);
+CREATE INDEX refresh_tokens_lifetime_index ON portal_schema.refresh_tokens (lifetime);
 
 CREATE TABLE portal_schema.confirmation_tokens
 (
@@ -50,7 +53,33 @@ CREATE TABLE portal_schema.confirmation_tokens
     update_at       TIMESTAMPTZ NOT NULL
 );
 
+CREATE INDEX confirmation_tokens_lifetime_index ON portal_schema.confirmation_tokens (lifetime);
+
+CREATE TABLE portal_schema.settings
+(
+    setting_name  VARCHAR(64) PRIMARY KEY,
+    setting_value VARCHAR(256) NOT NULL,
+    update_at     TIMESTAMPTZ
+);
+
+-- Существующую БД переводить скриптом migrations/001_pooled_sequences.sql:
+-- он сначала сдвигает последовательности за уже выданные идентификаторы.
+SELECT setval('portal_schema.users_user_id_seq',
+              (SELECT COALESCE(max(user_id), 0) FROM portal_schema.users) + 1, false);
+SELECT setval('portal_schema.attempts_login_attempt_id_seq',
+              (SELECT COALESCE(max(attempt_id), 0) FROM portal_schema.attempts_login) + 1, false);
+SELECT setval('portal_schema.refresh_tokens_token_id_seq',
+              (SELECT COALESCE(max(token_id), 0) FROM portal_schema.refresh_tokens) + 1, false);
+SELECT setval('portal_schema.confirmation_tokens_confirmation_id_seq',
+              (SELECT COALESCE(max(confirmation_id), 0) FROM portal_schema.confirmation_tokens) + 1, false);
+
+ALTER SEQUENCE portal_schema.users_user_id_seq INCREMENT BY 50;
+ALTER SEQUENCE portal_schema.attempts_login_attempt_id_seq INCREMENT BY 50;
+ALTER SEQUENCE portal_schema.refresh_tokens_token_id_seq INCREMENT BY 50;
+ALTER SEQUENCE portal_schema.confirmation_tokens_confirmation_id_seq INCREMENT BY 50;
+
 CREATE USER developer WITH PASSWORD 'super_secret_password';
 GRANT CONNECT ON DATABASE "db_portal" TO developer;
 GRANT USAGE ON SCHEMA portal_schema TO developer;
 GRANT SELECT, INSERT, UPDATE, DELETE ON ALL TABLES IN SCHEMA portal_schema TO developer;
+GRANT USAGE, SELECT ON ALL SEQUENCES IN SCHEMA portal_schema TO developer;
@@ -0,0 +1,26 @@
+-- Перевод существующей БД на выделение идентификаторов блоками по 50 (pooled-lo).
+-- Прежний генератор increment не обращался к последовательностям, поэтому они стоят на 1,
+-- а строки с идентификаторами 1..N уже есть. Последовательности сдвигаются за максимальный
+-- идентификатор до смены шага, иначе первая вставка получит занятый блок.
+-- Скрипт можно выполнять повторно.
+
+BEGIN;
+
+LOCK TABLE portal_schema.users, portal_schema.attempts_login,
+    portal_schema.refresh_tokens, portal_schema.confirmation_tokens IN EXCLUSIVE MODE;
+
+SELECT setval('portal_schema.users_user_id_seq',
+              (SELECT COALESCE(max(user_id), 0) FROM portal_schema.users) + 1, false);
+SELECT setval('portal_schema.attempts_login_attempt_id_seq',
+              (SELECT COALESCE(max(attempt_id), 0) FROM portal_schema.attempts_login) + 1, false);
+SELECT setval('portal_schema.refresh_tokens_token_id_seq',
+              (SELECT COALESCE(max(token_id), 0) FROM portal_schema.refresh_tokens) + 1, false);
+SELECT setval('portal_schema.confirmation_tokens_confirmation_id_seq',
+              (SELECT COALESCE(max(confirmation_id), 0) FROM portal_schema.confirmation_tokens) + 1, false);
+
+ALTER SEQUENCE portal_schema.users_user_id_seq INCREMENT BY 50;
+ALTER SEQUENCE portal_schema.attempts_login_attempt_id_seq INCREMENT BY 50;
+ALTER SEQUENCE portal_schema.refresh_tokens_token_id_seq INCREMENT BY 50;
+ALTER SEQUENCE portal_schema.confirmation_tokens_confirmation_id_seq INCREMENT BY 50;
+
+COMMIT;
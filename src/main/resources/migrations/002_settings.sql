@@ -0,0 +1,10 @@
+-- Таблица общих для всех узлов настроек, в ней хранится сложность BCrypt.
+
+CREATE TABLE IF NOT EXISTS portal_schema.settings
+(
+    setting_name  VARCHAR(64) PRIMARY KEY,
+    setting_value VARCHAR(256) NOT NULL,
+    update_at     TIMESTAMPTZ
+);
+
+GRANT SELECT, INSERT, UPDATE, DELETE ON portal_schema.settings TO developer;
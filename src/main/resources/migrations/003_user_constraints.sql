@@ -0,0 +1,21 @@
+-- Переименование ограничений уникальности пользователей, созданных с именами по умолчанию.
+-- Приложение определяет по имени ограничения, имя или адрес уже занят.
+-- Скрипт можно выполнять повторно.
+
+DO
+$$
+    BEGIN
+        IF EXISTS(SELECT 1
+                  FROM pg_constraint
+                  WHERE conname = 'users_username_key'
+                    AND conrelid = 'portal_schema.users'::regclass) THEN
+            ALTER TABLE portal_schema.users RENAME CONSTRAINT users_username_key TO users_username_unique;
+        END IF;
+        IF EXISTS(SELECT 1
+                  FROM pg_constraint
+                  WHERE conname = 'users_email_key'
+                    AND conrelid = 'portal_schema.users'::regclass) THEN
+            ALTER TABLE portal_schema.users RENAME CONSTRAINT users_email_key TO users_email_unique;
+        END IF;
+    END
+$$;
@@ -0,0 +1,34 @@
+-- Перевод токенов обновления на хранение SHA-256 верификатора вместо самого токена.
+-- Токен теперь состоит из селектора (token_id) и верификатора, поэтому токены прежнего
+-- формата не совпадут ни с одной строкой даже после хэширования: строки со столбцом token
+-- удаляются, клиенты входят заново. Заодно создаются индексы по lifetime для очистки
+-- просроченных токенов и (user_id, lifetime) для ограничения числа сессий.
+-- Скрипт можно выполнять повторно.
+
+BEGIN;
+
+LOCK TABLE portal_schema.refresh_tokens IN ACCESS EXCLUSIVE MODE;
+
+DO
+$$
+    BEGIN
+        IF EXISTS(SELECT 1
+                  FROM information_schema.columns
+                  WHERE table_schema = 'portal_schema'
+                    AND table_name = 'refresh_tokens'
+                    AND column_name = 'token') THEN
+            DELETE FROM portal_schema.refresh_tokens;
+            ALTER TABLE portal_schema.refresh_tokens DROP COLUMN token;
+        END IF;
+    END
+$$;
+
+ALTER TABLE portal_schema.refresh_tokens
+    ADD COLUMN IF NOT EXISTS token_hash BYTEA NOT NULL CHECK ( octet_length(token_hash) = 32 );
+
+DROP INDEX IF EXISTS portal_schema.refresh_tokens_user_id_index;
+CREATE INDEX IF NOT EXISTS refresh_tokens_user_id_lifetime_index ON portal_schema.refresh_tokens (user_id, lifetime);
+CREATE INDEX IF NOT EXISTS refresh_tokens_lifetime_index ON portal_schema.refresh_tokens (lifetime);
+CREATE INDEX IF NOT EXISTS confirmation_tokens_lifetime_index ON portal_schema.confirmation_tokens (lifetime);
+
+COMMIT;
@@ -0,0 +1,38 @@
+package ru.portal.configuration;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.Cache;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.jdbc.SqlScriptsTestExecutionListener;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+import ru.portal.security.UserIdentityIndex;
+import ru.portal.security.UsernameSuggester;
+
+import java.util.Objects;
+
+/**
+ * Приводит общее состояние контекста к данным теста.
+ * <p>
+ * Выполняется после {@link SqlScriptsTestExecutionListener}: очищает кэши и
+ * дозагружает индекс имен и подсказки имен пользователями из sql скриптов.
+ *
+ * @author Федорышин К.В.
+ */
+public class ApplicationStateTestExecutionListener extends AbstractTestExecutionListener {
+
+    @Override
+    public int getOrder() {
+        return new SqlScriptsTestExecutionListener().getOrder() + 100;
+    }
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        var context = testContext.getApplicationContext();
+        context.getBeanProvider(CacheManager.class).ifUnique(cacheManager -> cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(Cache::clear));
+        context.getBeanProvider(UserIdentityIndex.class).ifAvailable(UserIdentityIndex::load);
+        context.getBeanProvider(UsernameSuggester.class).ifAvailable(UsernameSuggester::load);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.portal.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadsTests {
+
+    @Test
+    void testIsSupported() {
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreads.isSupported(),
+                "Виртуальные потоки доступны начиная с Java 21");
+    }
+
+    @Test
+    void testIsEnabled() {
+        var environment = new MockEnvironment();
+        assertFalse(VirtualThreads.isEnabled(environment), "Без профиля виртуальные потоки выключены");
+
+        environment.setActiveProfiles(VirtualThreadConfig.PROFILE);
+        assertTrue(VirtualThreads.isEnabled(environment), "Профиль должен включать виртуальные потоки");
+    }
+
+    @Test
+    void testNewExecutor() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            assertThrows(IllegalStateException.class, VirtualThreads::newExecutor,
+                    "Без поддержки JVM исполнитель не должен создаваться");
+            return;
+        }
+        var executor = VirtualThreads.newExecutor();
+        var name = executor.submit(() -> Thread.currentThread().toString());
+
+        assertTrue(name.get(5, TimeUnit.SECONDS).startsWith("VirtualThread"),
+                "Задача должна выполняться в виртуальном потоке");
+        executor.shutdown();
+    }
+}
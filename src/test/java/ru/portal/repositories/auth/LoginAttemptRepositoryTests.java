@@ -1,13 +1,24 @@
 package ru.portal.repositories.auth;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.portal.entities.User;
 
-import static org.junit.jupiter.api.Assertions.assertAll;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 
 @Sql(scripts = {"/sql/user/user_await_test.sql", "/sql/auth/login_attempt_valid_test.sql"},
@@ -17,11 +28,17 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 class LoginAttemptRepositoryTests {
 
     private final LoginAttemptRepository loginAttemptRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
 
 
     @Autowired
-    public LoginAttemptRepositoryTests(LoginAttemptRepository loginAttemptRepository) {
+    public LoginAttemptRepositoryTests(LoginAttemptRepository loginAttemptRepository,
+                                       EntityManager entityManager,
+                                       PlatformTransactionManager transactionManager) {
         this.loginAttemptRepository = loginAttemptRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Test
@@ -47,4 +64,102 @@ class LoginAttemptRepositoryTests {
 
 
     }
+
+    @Test
+    void testFindAttemptWithUserByUsername() {
+
+        var attempt = loginAttemptRepository.findWithUserByUsername("Sparus")
+                .orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertEquals(1, attempt.getId(),
+                        "Идентификаторы должны совпадать"),
+                () -> assertEquals(2, attempt.getNumberAttempt(),
+                        "Количество попыток должно быть равно 2"),
+                () -> assertTrue(Hibernate.isInitialized(attempt.getUser()),
+                        "Пользователь должен быть загружен тем же запросом"),
+                () -> assertEquals("Sparus", attempt.getUser().getUsername(),
+                        "Имена пользователя должны совпадать")
+        );
+    }
+
+    @Test
+    void testResetNumberAttempt() {
+
+        var updated = loginAttemptRepository.resetNumberAttempt(1L);
+        entityManager.clear();
+
+        var attempt = loginAttemptRepository.findById(1L)
+                .orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertEquals(1, updated, "Строка должна быть изменена"),
+                () -> assertEquals(0, attempt.getNumberAttempt(), "Количество попыток должно быть равно 0")
+        );
+    }
+
+    @Test
+    void testResetNumberAttemptAlreadyZero() {
+
+        loginAttemptRepository.resetNumberAttempt(1L);
+
+        assertEquals(0, loginAttemptRepository.resetNumberAttempt(1L),
+                "Нулевой счетчик не должен изменяться");
+    }
+
+    @Test
+    void testIncrementOrLock() {
+
+        var lockTime = Instant.now().plusSeconds(300).toEpochMilli();
+
+        assertFalse(loginAttemptRepository.incrementOrLock("Sparus", 3, lockTime),
+                "Третья попытка не должна блокировать");
+        assertTrue(loginAttemptRepository.incrementOrLock("Sparus", 3, lockTime),
+                "Попытка сверх максимума должна блокировать");
+        entityManager.clear();
+
+        var attempt = loginAttemptRepository.findById(1L)
+                .orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertEquals(0, attempt.getNumberAttempt(), "Счетчик должен быть обнулен"),
+                () -> assertEquals(lockTime, attempt.getLockTime(), "Время блокировки должно быть выставлено"),
+                () -> assertFalse(loginAttemptRepository.incrementOrLock("Unknown", 3, lockTime),
+                        "Несуществующий пользователь не должен блокироваться")
+        );
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Test
+    void testIncrementNumberAttemptConcurrent() throws Exception {
+
+        var threads = 64;
+        var pool = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        var updated = new AtomicInteger();
+
+        for (int i = 0; i < threads; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    updated.addAndGet(transactionTemplate.execute(status ->
+                            loginAttemptRepository.incrementNumberAttempt("Sparus", 1000)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS), "Потоки должны завершиться");
+
+        var attempt = loginAttemptRepository.findById(1L)
+                .orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertEquals(threads, updated.get(), "Каждая попытка должна изменить строку"),
+                () -> assertEquals(2 + threads, attempt.getNumberAttempt(),
+                        "Параллельные увеличения не должны теряться")
+        );
+    }
 }
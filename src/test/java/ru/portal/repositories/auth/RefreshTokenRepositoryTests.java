@@ -3,7 +3,13 @@ package ru.portal.repositories.auth;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.jdbc.Sql;
+import ru.portal.entities.auth.RefreshToken;
+import ru.portal.security.utilities.TokenDigest;
+
+import java.time.Instant;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,7 +20,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @DataJpaTest
 class RefreshTokenRepositoryTests {
 
-    private static final String TOKEN = "cbbnb42fe1f4fgd697143da246a4132b";
+    private static final byte[] TOKEN_HASH = TokenDigest.sha256("cbbnb42fe1f4fgd697143da246a4132b");
 
     private final RefreshTokenRepository refreshTokenRepository;
 
@@ -24,16 +30,17 @@ class RefreshTokenRepositoryTests {
     }
 
     @Test
-    void testFindConfirmationTokenByToken() {
+    void testFindRefreshTokenById() {
 
-        var token = refreshTokenRepository.findByToken(TOKEN)
+        var token = refreshTokenRepository.findById(1L)
                 .orElseThrow(IllegalArgumentException::new);
 
         assertAll(
                 () -> assertEquals(1, token.getId(),
                         "Идентификаторы должны совпадать"),
-                () -> assertEquals("cbbnb42fe1f4fgd697143da246a4132b", token.getToken(),
-                        "Токен должен совпадать"),
+                () -> assertArrayEquals(TOKEN_HASH, token.getTokenHash(),
+                        "Хэш токена должен совпадать"),
+                () -> assertNull(token.getToken(), "Сам токен в БД не хранится"),
                 () -> assertEquals(4088238925000L, token.getLifetime(),
                         "Время жизни должно совпадать"),
                 () -> assertEquals(1, token.getUser().getId(),
@@ -43,10 +50,57 @@ class RefreshTokenRepositoryTests {
     }
 
     @Test
-    void testDeleteConfirmationTokenByToken() {
-        refreshTokenRepository.deleteByToken(TOKEN);
-        var deleteToken = refreshTokenRepository.findByToken(TOKEN);
-        assertFalse(deleteToken.isPresent(), "Токена не должно существовать");
+    void testDeleteExpiredKeepsValid() {
+        assertEquals(0, refreshTokenRepository.deleteExpired(Instant.now().toEpochMilli(), 10),
+                "Действительный токен не должен удаляться");
+        assertTrue(refreshTokenRepository.existsById(1L), "Токен должен существовать");
+    }
+
+    @Sql(scripts = {"/sql/user/user_await_test.sql", "/sql/auth/refresh_token_repository_not_valid_time_test.sql"},
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Test
+    void testDeleteExpired() {
+        assertEquals(1, refreshTokenRepository.deleteExpired(Instant.now().toEpochMilli(), 10),
+                "Истекший токен должен удаляться");
+        assertFalse(refreshTokenRepository.existsById(1L), "Токена не должно существовать");
+    }
+
+    @Sql(scripts = {"/sql/user/user_await_test.sql", "/sql/auth/refresh_token_repository_valid_test.sql",
+            "/sql/auth/refresh_token_sessions_test.sql"},
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Test
+    void testEvictOldest() {
+        assertEquals(2, refreshTokenRepository.evictOldest(1L, 2), "Должны удаляться два самых старых токена");
+
+        assertAll(
+                () -> assertEquals(2, refreshTokenRepository.count(), "Должны остаться два токена"),
+                () -> assertTrue(refreshTokenRepository.existsById(4L), "Самый новый токен должен остаться"),
+                () -> assertTrue(refreshTokenRepository.existsById(3L), "Второй по новизне токен должен остаться")
+        );
+        assertEquals(0, refreshTokenRepository.evictOldest(1L, 2), "Лишних токенов больше нет");
+    }
+
+    @Sql(scripts = {"/sql/user/user_await_test.sql", "/sql/auth/refresh_token_repository_valid_test.sql",
+            "/sql/auth/refresh_token_sessions_test.sql"},
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Test
+    void testFindSessionsAfter() {
+        var now = Instant.now().toEpochMilli();
+
+        var first = refreshTokenRepository.findSessionsAfter("Sparus", now, Long.MAX_VALUE, Long.MAX_VALUE,
+                PageRequest.of(0, 3));
+        var last = first.get(first.size() - 1);
+        var second = refreshTokenRepository.findSessionsAfter("Sparus", now, last.getLifetime(), last.getId(),
+                PageRequest.of(0, 3));
+
+        assertAll(
+                () -> assertEquals(List.of(4L, 3L, 2L), first.stream().map(RefreshToken::getId).toList(),
+                        "Первая страница должна идти от новых токенов к старым"),
+                () -> assertEquals(List.of(1L), second.stream().map(RefreshToken::getId).toList(),
+                        "Вторая страница должна начинаться после курсора"),
+                () -> assertTrue(refreshTokenRepository.findSessionsAfter("Nobody", now, Long.MAX_VALUE,
+                        Long.MAX_VALUE, PageRequest.of(0, 3)).isEmpty(), "Чужие токены не должны возвращаться")
+        );
     }
 
 }
@@ -0,0 +1,52 @@
+package ru.portal.rest.admin;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.portal.entities.Role;
+import ru.portal.security.crypto.AdaptiveBCryptPasswordEncoder;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PasswordEncoderRestTests {
+
+    private final MockMvc mockMvc;
+    private final AdaptiveBCryptPasswordEncoder encoder;
+
+    @Autowired
+    PasswordEncoderRestTests(MockMvc mockMvc,
+                             AdaptiveBCryptPasswordEncoder encoder) {
+        this.mockMvc = mockMvc;
+        this.encoder = encoder;
+    }
+
+    @Test
+    void testGetStrength() throws Exception {
+        mockMvc.perform(get("/admin/password-encoder")
+                        .with(user("Admin").authorities(() -> Role.ADMIN.name())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.strength").value(encoder.getStrength()))
+                .andExpect(jsonPath("$.previousStrength").doesNotExist());
+    }
+
+    @Test
+    void testSetStrengthOutOfRange() throws Exception {
+        mockMvc.perform(put("/admin/password-encoder")
+                        .param("strength", "3")
+                        .with(user("Admin").authorities(() -> Role.ADMIN.name())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+        mockMvc.perform(put("/admin/password-encoder")
+                        .param("strength", "32")
+                        .with(user("Admin").authorities(() -> Role.ADMIN.name())))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -12,14 +12,18 @@ import ru.portal.entities.dto.request.auth.DtoUserRequest;
 import ru.portal.entities.dto.response.auth.DtoAuthenticationResponse;
 import ru.portal.entities.dto.response.auth.DtoFailedResponse;
 import ru.portal.entities.dto.response.auth.DtoSuccessRegResponse;
+import ru.portal.entities.dto.response.auth.DtoUsernameSuggestionResponse;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -29,7 +33,7 @@ class AuthenticationRestTests {
 
     private static final Pattern REGEX_TOKEN_WITH_BEARER = Pattern
             .compile("Bearer_([\\w_=]+)\\.([\\w_=]+)\\.([\\w_\\-\\+\\/=]*)");
-    private static final Pattern REGEX_REFRESH_TOKEN = Pattern.compile("\\w{32}");
+    private static final Pattern REGEX_REFRESH_TOKEN = Pattern.compile("[0-9a-f]{48}");
 
     private final MockMvc mockMvc;
     private final ObjectMapper mapper;
@@ -48,11 +52,15 @@ class AuthenticationRestTests {
         var user = new DtoUserRequest("Sparus", "rf1991@smaisl.ru", "rootroot");
         var userJson = mapper.writeValueAsString(user);
 
-        var response = mockMvc.perform(post("/registration")
+        var result = mockMvc.perform(post("/registration")
                         .contentType(MediaType.APPLICATION_JSON_VALUE)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .accept(MediaType.APPLICATION_JSON_VALUE)
                         .content(userJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        var response = mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isCreated())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn().getResponse();
@@ -76,11 +84,15 @@ class AuthenticationRestTests {
         var user = new DtoUserRequest("Sparus", "rf1991@mail.ru", "rootroot");
         var userJson = mapper.writeValueAsString(user);
 
-        var response = mockMvc.perform(post("/registration")
+        var result = mockMvc.perform(post("/registration")
                         .contentType(MediaType.APPLICATION_JSON_VALUE)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .accept(MediaType.APPLICATION_JSON_VALUE)
                         .content(userJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        var response = mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isConflict())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn().getResponse();
@@ -106,11 +118,15 @@ class AuthenticationRestTests {
         var user = new DtoUserRequest("Sparus", "rf1991@mail.ru", "rootroot");
         var userJson = mapper.writeValueAsString(user);
 
-        var response = mockMvc.perform(post("/login")
+        var result = mockMvc.perform(post("/login")
                         .contentType(MediaType.APPLICATION_JSON_VALUE)
                         .accept(MediaType.APPLICATION_JSON_VALUE)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .content(userJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        var response = mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn().getResponse();
@@ -135,11 +151,15 @@ class AuthenticationRestTests {
         var user = new DtoUserRequest("Sparus", "rf1991@mail.ru", "fdgsdfgdfdf");
         var userJson = mapper.writeValueAsString(user);
 
-        var response = mockMvc.perform(post("/login")
+        var result = mockMvc.perform(post("/login")
                         .contentType(MediaType.APPLICATION_JSON_VALUE)
                         .accept(MediaType.APPLICATION_JSON_VALUE)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .content(userJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        var response = mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isConflict())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn().getResponse();
@@ -164,11 +184,15 @@ class AuthenticationRestTests {
         var user = new DtoUserRequest("Sparus", "rf1991@mail.ru", "rootroot");
         var userJson = mapper.writeValueAsString(user);
 
-        var response = mockMvc.perform(post("/login")
+        var result = mockMvc.perform(post("/login")
                         .contentType(MediaType.APPLICATION_JSON_VALUE)
                         .accept(MediaType.APPLICATION_JSON_VALUE)
                         .characterEncoding(StandardCharsets.UTF_8)
                         .content(userJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        var response = mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isConflict())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andReturn().getResponse();
@@ -208,6 +232,58 @@ class AuthenticationRestTests {
                 "Пользователь должен существовать");
     }
 
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testCheckUsernameExistAfterRegistration() throws Exception {
+        var user = new DtoUserRequest("Sparus", "rf1991@smaisl.ru", "rootroot");
+
+        var result = mockMvc.perform(post("/registration")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(user)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated());
+
+        var response = mockMvc.perform(get("/checkname")
+                        .param("username", "Sparus"))
+                .andExpect(status().isConflict())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Username exist", response,
+                "Зарегистрированное имя должно попадать в индекс имен");
+    }
+
+    @Test
+    void testSuggestUsername() throws Exception {
+        var response = mockMvc.perform(get("/suggestname")
+                        .param("username", "Suggested")
+                        .param("count", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        var suggestion = mapper.readValue(response, DtoUsernameSuggestionResponse.class);
+
+        assertAll(
+                () -> assertEquals("Suggested", suggestion.getUsername(), "Имя должно возвращаться в ответе"),
+                () -> assertEquals(List.of("Suggested1", "Suggested2"), suggestion.getSuggestions(),
+                        "Должны предлагаться свободные варианты имени")
+        );
+    }
+
+    @Test
+    void testSuggestUsernameFailsCount() throws Exception {
+        var response = mockMvc.perform(get("/suggestname")
+                        .param("username", "Suggested")
+                        .param("count", "0"))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        var failed = mapper.readValue(response, DtoFailedResponse.class);
+
+        assertEquals("/suggestname", failed.getPath(), "Путь должен присутствовать");
+    }
+
     @Sql(scripts = "/sql/user/user_active_test.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
     @Test
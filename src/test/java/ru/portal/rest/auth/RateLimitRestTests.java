@@ -0,0 +1,83 @@
+package ru.portal.rest.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.portal.entities.dto.request.auth.DtoUserRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "security.rateLimit.hashing.capacity=1",
+        "security.rateLimit.hashing.refillPerSecond=0.01",
+        "security.rateLimit.lookup.capacity=2",
+        "security.rateLimit.lookup.refillPerSecond=0.01"
+})
+class RateLimitRestTests {
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper mapper;
+
+    @Autowired
+    RateLimitRestTests(MockMvc mockMvc,
+                       ObjectMapper mapper) {
+        this.mockMvc = mockMvc;
+        this.mapper = mapper;
+    }
+
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testRegistrationAsyncDispatchUsesOneToken() throws Exception {
+        var userJson = mapper.writeValueAsString(new DtoUserRequest("Sparus", "rf1991@smaisl.ru", "rootroot"));
+
+        var result = mockMvc.perform(post("/registration")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .content(userJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/registration/")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .content(userJson))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void testCheckUsernameRateLimited() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/checkname")
+                            .param("username", "Sparus"))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/checkname")
+                        .param("username", "Sparus"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        mockMvc.perform(get("/checkemail")
+                        .param("email", "rf1991@mail.ru"))
+                .andExpect(status().isOk());
+    }
+}
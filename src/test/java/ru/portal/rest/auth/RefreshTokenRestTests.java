@@ -11,9 +11,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.portal.entities.dto.response.auth.DtoAuthenticationResponse;
 import ru.portal.entities.dto.response.auth.DtoFailedResponse;
 
+import java.nio.charset.StandardCharsets;
 import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -24,7 +27,7 @@ class RefreshTokenRestTests {
 
     private static final Pattern REGEX_TOKEN_WITH_BEARER = Pattern
             .compile("Bearer_([\\w_=]+)\\.([\\w_=]+)\\.([\\w_\\-\\+\\/=]*)");
-    private static final Pattern REGEX_REFRESH_TOKEN = Pattern.compile("\\w{32}");
+    private static final Pattern REGEX_REFRESH_TOKEN = Pattern.compile("[0-9a-f]{48}");
 
     private final ObjectMapper mapper;
     private final MockMvc mockMvc;
@@ -41,7 +44,7 @@ class RefreshTokenRestTests {
     @Test
     void testRefreshToken() throws Exception {
 
-        var token = "cbbnb42fe1f4fgd697143da246a4132b";
+        var token = "0000000000000001cbbnb42fe1f4fgd697143da246a4132b";
 
         var response = mockMvc.perform(post("/refreshtoken")
                         .header("RefreshToken", token))
@@ -84,7 +87,7 @@ class RefreshTokenRestTests {
     @Test
     void testRefreshTokenTimeUp() throws Exception {
 
-        var token = "cbbnb42fe1f4fgd697143da246a4132b";
+        var token = "0000000000000001cbbnb42fe1f4fgd697143da246a4132b";
 
         var response = mockMvc.perform(post("/refreshtoken")
                         .header("RefreshToken", token))
@@ -98,4 +101,17 @@ class RefreshTokenRestTests {
         assertEquals(401, dtoToken.getStatus(), "Статус должен быть 401");
         assertNotNull(dtoToken.getMessage(), "Сообщение должно существовать");
     }
+
+    @Test
+    void testSessionsBadPage() throws Exception {
+        var response = mockMvc.perform(get("/sessions")
+                        .param("size", "0")
+                        .with(user("Sparus")))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        var dtoResponse = mapper.readValue(response, DtoFailedResponse.class);
+
+        assertEquals(400, dtoResponse.getStatus(), "Неверный размер страницы должен давать 400");
+    }
 }
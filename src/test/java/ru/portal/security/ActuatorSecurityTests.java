@@ -0,0 +1,55 @@
+package ru.portal.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.portal.entities.Role;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ActuatorSecurityTests {
+
+    private final MockMvc mockMvc;
+
+    @Autowired
+    ActuatorSecurityTests(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+    }
+
+    @Test
+    void testHealthPublic() throws Exception {
+        var status = mockMvc.perform(get("/actuator/health"))
+                .andReturn().getResponse().getStatus();
+
+        assertTrue(status == 200 || status == 503,
+                "health должен быть доступен без аутентификации, а не отклоняться с " + status);
+    }
+
+    @Test
+    void testMetricsAndCachesForbiddenForUser() throws Exception {
+        var user = user("Sparus").authorities(() -> Role.USER.name());
+
+        mockMvc.perform(get("/actuator/metrics").with(user))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/actuator/caches").with(user))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testMetricsAndCachesAllowedForAdmin() throws Exception {
+        var admin = user("Admin").authorities(() -> Role.ADMIN.name());
+
+        mockMvc.perform(get("/actuator/metrics").with(admin))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/caches").with(admin))
+                .andExpect(status().isOk());
+    }
+}
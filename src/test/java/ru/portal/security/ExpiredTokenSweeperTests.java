@@ -0,0 +1,57 @@
+package ru.portal.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiredTokenSweeperTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExpiredTokenSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        var environment = new MockEnvironment()
+                .withProperty("security.purge.chunkSize", "10")
+                .withProperty("security.purge.pauseInMs", "0");
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new ExpiredTokenSweeper(environment, null, null, meterRegistry);
+    }
+
+    @Test
+    void testPurgeInChunks() {
+        var remaining = new int[]{25};
+        var limits = new ArrayList<Integer>();
+
+        var total = sweeper.purge("refresh_tokens", (now, limit) -> {
+            limits.add(limit);
+            var removed = Math.min(limit, remaining[0]);
+            remaining[0] -= removed;
+            return removed;
+        }, 0);
+
+        assertAll(
+                () -> assertEquals(25, total, "Должны удаляться все истекшие строки"),
+                () -> assertEquals(List.of(10, 10, 10), limits, "Строки должны удаляться порциями"),
+                () -> assertEquals(25, meterRegistry.get("tokens.purge.rows")
+                                .tag("table", "refresh_tokens").summary().totalAmount(),
+                        "Метрика должна учитывать удаленные строки"),
+                () -> assertEquals(1, meterRegistry.get("tokens.purge.duration")
+                                .tag("table", "refresh_tokens").timer().count(),
+                        "Длительность запуска должна записываться")
+        );
+    }
+
+    @Test
+    void testPurgeNothing() {
+        var total = sweeper.purge("confirmation_tokens", (now, limit) -> 0, 0);
+
+        assertEquals(0, total, "Без истекших строк ничего не удаляется");
+    }
+}
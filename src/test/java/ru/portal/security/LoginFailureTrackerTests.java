@@ -0,0 +1,184 @@
+package ru.portal.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginFailureTrackerTests {
+
+    private static final String ADDRESS = "10.0.0.1";
+
+    private MutableClock clock;
+    private LoginFailureTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        var environment = new MockEnvironment()
+                .withProperty("security.blocking.maxAttempts", "5")
+                .withProperty("security.blocking.accountMaxAttempts", "20")
+                .withProperty("security.blocking.addressMaxAttempts", "10")
+                .withProperty("security.blocking.windowInSecond", "300")
+                .withProperty("security.blocking.blockingPeriodInSecond", "300")
+                .withProperty("security.blocking.maximumSize", "1000");
+        clock = new MutableClock(Instant.parse("2022-07-01T00:00:00Z"));
+        tracker = new LoginFailureTracker(environment, clock);
+    }
+
+    @Test
+    void testOnFailureLocksAfterMaxAttempts() {
+        for (int i = 0; i < 5; i++) {
+            assertFalse(tracker.onFailure("Sparus", ADDRESS), "Первые попытки не должны блокировать");
+        }
+
+        assertTrue(tracker.onFailure("Sparus", ADDRESS), "Попытка сверх лимита должна блокировать");
+        assertFalse(tracker.onFailure("Sparus", ADDRESS), "После блокировки окно должно очищаться");
+    }
+
+    @Test
+    void testOnFailureSlidingWindow() {
+        for (int i = 0; i < 5; i++) {
+            tracker.onFailure("Sparus", ADDRESS);
+        }
+        clock.advance(Duration.ofSeconds(301));
+
+        assertFalse(tracker.onFailure("Sparus", ADDRESS), "Попытки вне окна не должны учитываться");
+    }
+
+    @Test
+    void testOnFailureSeparateAddresses() {
+        for (int i = 0; i < 5; i++) {
+            tracker.onFailure("Sparus", ADDRESS);
+        }
+
+        assertFalse(tracker.onFailure("Sparus", "10.0.0.2"),
+                "Попытки с другого адреса должны учитываться отдельно");
+    }
+
+    @Test
+    void testOnFailureLocksAccountAcrossAddresses() {
+        for (int i = 0; i < 19; i++) {
+            assertFalse(tracker.onFailure("Sparus", "10.0.1." + i),
+                    "Попытки с разных адресов не должны блокировать до лимита учетной записи");
+        }
+
+        assertAll(
+                () -> assertTrue(tracker.onFailure("Sparus", "10.0.1.19"),
+                        "Попытка на лимите учетной записи должна блокировать при любом адресе"),
+                () -> assertFalse(tracker.onFailure("Sparus", "10.0.1.20"),
+                        "После блокировки окно учетной записи должно очищаться")
+        );
+    }
+
+    @Test
+    void testOnSuccessKeepsAccountWindow() {
+        for (int i = 0; i < 19; i++) {
+            tracker.onFailure("Sparus", "10.0.1." + i);
+        }
+        tracker.onSuccess("Sparus", ADDRESS);
+
+        assertTrue(tracker.onFailure("Sparus", "10.0.1.19"),
+                "Успешный вход не должен очищать окно учетной записи");
+    }
+
+    @Test
+    void testOnSuccessResetsWindow() {
+        for (int i = 0; i < 5; i++) {
+            tracker.onFailure("Sparus", ADDRESS);
+        }
+        tracker.onSuccess("Sparus", ADDRESS);
+
+        assertFalse(tracker.onFailure("Sparus", ADDRESS), "Успешный вход должен очищать окно");
+    }
+
+    @Test
+    void testIsBlockedAddress() {
+        for (int i = 0; i < 10; i++) {
+            tracker.onFailure("user" + i, ADDRESS);
+        }
+
+        assertAll(
+                () -> assertTrue(tracker.isBlocked(ADDRESS), "Адрес должен быть заблокирован"),
+                () -> assertFalse(tracker.isBlocked("10.0.0.2"), "Другой адрес не должен быть заблокирован"),
+                () -> assertFalse(tracker.isBlocked(""), "Неизвестный адрес не блокируется")
+        );
+
+        clock.advance(Duration.ofSeconds(301));
+        assertFalse(tracker.isBlocked(ADDRESS), "Блокировка адреса должна заканчиваться");
+    }
+
+    @Test
+    void testOnFailureConcurrent() throws Exception {
+        var environment = new MockEnvironment()
+                .withProperty("security.blocking.maxAttempts", "5")
+                .withProperty("security.blocking.accountMaxAttempts", "1000")
+                .withProperty("security.blocking.addressMaxAttempts", "10")
+                .withProperty("security.blocking.windowInSecond", "300")
+                .withProperty("security.blocking.blockingPeriodInSecond", "300")
+                .withProperty("security.blocking.maximumSize", "1000");
+        var tracker = new LoginFailureTracker(environment, clock);
+        var threads = 8;
+        var pool = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        var locks = new AtomicInteger();
+
+        for (int i = 0; i < threads; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 6; j++) {
+                        if (tracker.onFailure("Sparus", "")) {
+                            locks.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS), "Потоки должны завершиться");
+
+        assertEquals(8, locks.get(), "48 попыток должны дать ровно 8 блокировок");
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.portal.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTests {
+
+    @Test
+    void testSupply() throws Exception {
+        var executor = hashingExecutor(1, 1);
+
+        var result = executor.supply(() -> Thread.currentThread().getName());
+
+        assertTrue(result.get(5, TimeUnit.SECONDS).startsWith("password-hashing-"),
+                "Задача должна выполняться в пуле хэширования");
+        executor.shutdown();
+    }
+
+    @Test
+    void testSupplyRejectedWhenQueueFull() throws Exception {
+        var executor = hashingExecutor(1, 1);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        executor.supply(() -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS), "Первая задача должна начаться");
+        executor.supply(() -> true);
+
+        assertAll(
+                () -> assertEquals(1, executor.getQueueSize(), "В очереди должна быть одна задача"),
+                () -> assertThrows(RejectedExecutionException.class, () -> executor.supply(() -> true),
+                        "Задача сверх очереди должна отклоняться")
+        );
+        release.countDown();
+        executor.shutdown();
+    }
+
+    private static PasswordHashingExecutor hashingExecutor(int threads, int capacity) {
+        var environment = new MockEnvironment()
+                .withProperty("security.hashing.threads", String.valueOf(threads))
+                .withProperty("security.hashing.queueCapacity", String.valueOf(capacity));
+        return new PasswordHashingExecutor(environment, new SimpleMeterRegistry());
+    }
+}
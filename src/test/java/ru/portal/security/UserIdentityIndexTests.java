@@ -0,0 +1,104 @@
+package ru.portal.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import ru.portal.entities.User;
+import ru.portal.security.events.RegistrationUserEvent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Sql(scripts = "/sql/user/user_await_test.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@TestPropertySource(properties = {
+        "security.identityIndex.enabled=true",
+        "security.identityIndex.expectedInsertions=1000",
+        "security.identityIndex.falsePositiveRate=0.01"
+})
+@Import({UserIdentityIndex.class, SimpleMeterRegistry.class})
+@DataJpaTest
+class UserIdentityIndexTests {
+
+    private final UserIdentityIndex index;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    UserIdentityIndexTests(UserIdentityIndex index, MeterRegistry meterRegistry) {
+        this.index = index;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Test
+    void testLoad() {
+        index.load();
+        var skipped = lookups("username", "skipped");
+        var lookups = new AtomicInteger();
+
+        assertAll(
+                () -> assertTrue(index.usernameExists("sparus", counting(lookups, true)),
+                        "Имя из БД должно проверяться в репозитории без учета регистра"),
+                () -> assertTrue(index.emailExists("RF1991@mail.ru", counting(lookups, true)),
+                        "Адрес из БД должен проверяться в репозитории без учета регистра"),
+                () -> assertFalse(index.usernameExists("Free", counting(lookups, true)),
+                        "Свободное имя должно отсекаться индексом"),
+                () -> assertEquals(2, lookups.get(), "Репозиторий должен вызываться только для совпадений"),
+                () -> assertEquals(skipped + 1, lookups("username", "skipped"), "Пропуск БД должен учитываться")
+        );
+    }
+
+    @Test
+    void testRegistration() {
+        index.load();
+        var user = User.builder().username("Newcomer").email("newcomer@mail.ru").build();
+
+        index.onRegistration(new RegistrationUserEvent(this, user));
+        var lookups = new AtomicInteger();
+
+        assertAll(
+                () -> assertTrue(index.usernameExists("Newcomer", counting(lookups, true)),
+                        "Имя нового пользователя должно попадать в индекс"),
+                () -> assertTrue(index.emailExists("newcomer@mail.ru", counting(lookups, true)),
+                        "Адрес нового пользователя должен попадать в индекс"),
+                () -> assertEquals(2, lookups.get(), "Совпадения должны подтверждаться репозиторием")
+        );
+    }
+
+    @Test
+    void testFalsePositiveRate() {
+        index.load();
+        var falsePositives = lookups("username", "false_positive");
+        var lookups = new AtomicInteger();
+
+        index.usernameExists("Sparus", counting(lookups, false));
+        index.usernameExists("Free", counting(lookups, false));
+        var expectedRate = lookups("username", "false_positive")
+                / (lookups("username", "false_positive") + lookups("username", "skipped"));
+
+        assertAll(
+                () -> assertEquals(falsePositives + 1, lookups("username", "false_positive"),
+                        "Неподтвержденное совпадение должно считаться ложным"),
+                () -> assertEquals(expectedRate, meterRegistry.get("identity.index.false.positive.rate")
+                                .tag("kind", "username").gauge().value(), 1e-9,
+                        "Доля ложных срабатываний должна считаться среди свободных значений")
+        );
+    }
+
+    private double lookups(String kind, String result) {
+        return meterRegistry.get("identity.index.lookups").tag("kind", kind).tag("result", result).counter().count();
+    }
+
+    private static Predicate<String> counting(AtomicInteger lookups, boolean exists) {
+        return value -> {
+            lookups.incrementAndGet();
+            return exists;
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package ru.portal.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import ru.portal.entities.User;
+import ru.portal.security.events.RegistrationUserEvent;
+import ru.portal.security.services.exception.UsernameSuggestionException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsernameSuggesterTests {
+
+    @Test
+    void testSuggestSkipsTakenNames() {
+        var suggester = suggester();
+        for (var username : new String[]{"Sparus", "sparus1", "SPARUS3"}) {
+            suggester.add(username);
+        }
+
+        assertEquals(List.of("Sparus2", "Sparus4", "Sparus5"), suggester.suggest("Sparus", 3),
+                "Занятые варианты должны пропускаться без учета регистра");
+    }
+
+    @Test
+    void testSuggestAfterRegistration() {
+        var suggester = suggester();
+        var user = User.builder().username("Sparus1").email("rf1991@mail.ru").build();
+
+        suggester.onRegistration(new RegistrationUserEvent(this, user));
+
+        assertEquals(List.of("Sparus2"), suggester.suggest("Sparus", 1),
+                "Имя нового пользователя не должно предлагаться");
+    }
+
+    @Test
+    void testSuggestTruncatesLongName() {
+        var suggester = suggester();
+        var username = "a".repeat(UsernameSuggester.MAX_LENGTH);
+
+        var suggestions = suggester.suggest(username, 2);
+
+        assertAll(
+                () -> assertEquals(List.of("a".repeat(31) + "1", "a".repeat(31) + "2"), suggestions,
+                        "Длинное имя должно обрезаться под номер"),
+                () -> assertTrue(suggestions.stream().allMatch(name -> name.length() <= UsernameSuggester.MAX_LENGTH),
+                        "Варианты не должны превышать максимальную длину")
+        );
+    }
+
+    @Test
+    void testSuggestRejectsCount() {
+        var suggester = suggester();
+
+        assertAll(
+                () -> assertThrows(UsernameSuggestionException.class, () -> suggester.suggest("Sparus", 0),
+                        "Нулевое количество должно отклоняться"),
+                () -> assertThrows(UsernameSuggestionException.class, () -> suggester.suggest("Sparus", 21),
+                        "Количество больше максимального должно отклоняться"),
+                () -> assertThrows(UsernameSuggestionException.class, () -> suggester.suggest(" ", 1),
+                        "Пустое имя должно отклоняться")
+        );
+    }
+
+    private static UsernameSuggester suggester() {
+        var environment = new MockEnvironment()
+                .withProperty("security.suggestion.maxCount", "20");
+        return new UsernameSuggester(environment, null);
+    }
+}
@@ -0,0 +1,142 @@
+package ru.portal.security.codec;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import ru.portal.configuration.VirtualThreadConfig;
+import ru.portal.security.services.TokenClaims;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HmacTokenCodecTests {
+
+    private static final String KEY = "There_must_be_a_huge_secret_word_here_but_I_can't_think_of_it.";
+    private static final String USERNAME = "Sparus";
+
+    private final HmacTokenCodec codec = new HmacTokenCodec(new MockEnvironment()
+            .withProperty("security.token.key", KEY));
+
+    @Test
+    void testEncodeDecode() {
+        var claims = claims(USERNAME)
+                .claim(TokenClaims.USER_ID, 1L)
+                .claim(TokenClaims.ROLE, "USER")
+                .build();
+
+        assertEquals(claims, codec.decode(codec.encode(claims)), "Утверждения должны совпадать");
+    }
+
+    @Test
+    void testEncodeDecodeEscaped() {
+        var claims = claims("Спарус \"\\\n😀").build();
+
+        assertEquals(claims, codec.decode(codec.encode(claims)), "Утверждения должны совпадать");
+    }
+
+    @Test
+    void testEncodeDecodeVirtualThreadsConcurrent() throws Exception {
+        var environment = new MockEnvironment()
+                .withProperty("security.token.key", KEY);
+        environment.setActiveProfiles(VirtualThreadConfig.PROFILE);
+        var pooled = new HmacTokenCodec(environment);
+
+        var threads = 16;
+        var pool = Executors.newFixedThreadPool(threads);
+        var futures = new ArrayList<Future<Boolean>>();
+        for (int i = 0; i < threads * 10; i++) {
+            var claims = claims(USERNAME + i).build();
+            futures.add(pool.submit(() -> claims.equals(pooled.decode(pooled.encode(claims)))));
+        }
+        pool.shutdown();
+
+        for (var future : futures) {
+            assertTrue(future.get(30, TimeUnit.SECONDS), "Буферы пула не должны смешиваться между потоками");
+        }
+    }
+
+    @Test
+    void testDecodeJjwtToken() {
+        var now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        var token = Jwts.builder()
+                .setSubject(USERNAME)
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plusSeconds(60)))
+                .signWith(secretKey())
+                .compact();
+
+        var claims = codec.decode(token);
+        assertAll(
+                () -> assertEquals(USERNAME, claims.getSubject(), "Имена должны совпадать"),
+                () -> assertEquals(now.plusSeconds(60), claims.getExpiration(), "Время жизни должно совпадать")
+        );
+    }
+
+    @Test
+    void testEncodeReadableByJjwt() {
+        var token = codec.encode(claims(USERNAME).claim(TokenClaims.STATUS, "ACTIVE").build());
+
+        var body = Jwts.parserBuilder()
+                .setSigningKey(secretKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        assertAll(
+                () -> assertEquals(USERNAME, body.getSubject(), "Имена должны совпадать"),
+                () -> assertEquals("ACTIVE", body.get(TokenClaims.STATUS), "Статусы должны совпадать")
+        );
+    }
+
+    @Test
+    void testDecodeTampered() {
+        var token = codec.encode(claims(USERNAME).build());
+        var parts = token.split("\\.");
+        var forged = codec.encode(claims("Admin").build()).split("\\.")[1];
+
+        assertAll(
+                () -> assertThrows(JwtException.class, () -> codec.decode(parts[0] + "." + forged + "." + parts[2]),
+                        "Токен с подмененными утверждениями должен отклоняться"),
+                () -> assertThrows(JwtException.class, () -> codec.decode(token.substring(0, token.length() - 1)),
+                        "Токен с обрезанной подписью должен отклоняться"),
+                () -> assertThrows(JwtException.class, () -> codec.decode(parts[0] + "." + parts[1]),
+                        "Токен без подписи должен отклоняться")
+        );
+    }
+
+    @Test
+    void testDecodeExpired() {
+        var now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        var token = codec.encode(TokenClaims.builder()
+                .subject(USERNAME)
+                .issuedAt(now.minusSeconds(120))
+                .expiration(now.minusSeconds(60))
+                .build());
+
+        assertThrows(ExpiredJwtException.class, () -> codec.decode(token),
+                "Истекший токен должен отклоняться");
+    }
+
+    private static TokenClaims.TokenClaimsBuilder claims(String username) {
+        var now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        return TokenClaims.builder()
+                .subject(username)
+                .issuedAt(now)
+                .expiration(now.plusSeconds(60));
+    }
+
+    private static SecretKey secretKey() {
+        return Keys.hmacShaKeyFor(KEY.getBytes(StandardCharsets.UTF_8));
+    }
+}
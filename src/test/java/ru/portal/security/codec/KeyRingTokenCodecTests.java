@@ -0,0 +1,126 @@
+package ru.portal.security.codec;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import ru.portal.security.services.TokenClaims;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyRingTokenCodecTests {
+
+    private static final String USERNAME = "Sparus";
+
+    @TempDir
+    Path directory;
+
+    SigningKeyRing keyRing;
+    KeyRingTokenCodec codec;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        writeKey("old", Instant.now().minus(1, ChronoUnit.DAYS));
+        var environment = new MockEnvironment()
+                .withProperty("security.token.keyRing.directory", directory.toString())
+                .withProperty("security.token.keyRing.publishDelayInSecond", "600");
+        keyRing = new SigningKeyRing(environment);
+        keyRing.reload();
+        codec = new KeyRingTokenCodec(keyRing);
+    }
+
+    @Test
+    void testEncodeDecode() {
+        var token = codec.encode(claims());
+        var claims = codec.decode(token);
+
+        assertAll(
+                () -> assertEquals(USERNAME, claims.getSubject(), "Имена должны совпадать"),
+                () -> assertEquals("old", keyRing.getSigningKey().getKid(), "Подписывать должен старый ключ")
+        );
+    }
+
+    @Test
+    void testRotation() throws Exception {
+        var oldToken = codec.encode(claims());
+
+        writeKey("new", Instant.now());
+        keyRing.reload();
+        assertEquals("old", keyRing.getSigningKey().getKid(),
+                "Новый ключ не должен подписывать до истечения задержки публикации");
+        assertEquals(2, ((List<?>) keyRing.getJwks().get("keys")).size(),
+                "Новый ключ должен быть опубликован сразу");
+
+        Files.setLastModifiedTime(directory.resolve("new" + SigningKeyRing.PUBLIC_KEY_SUFFIX),
+                FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+        keyRing.reload();
+        assertEquals("new", keyRing.getSigningKey().getKid(), "Подписывать должен новый ключ");
+
+        var newToken = codec.encode(claims());
+        assertAll(
+                () -> assertEquals(USERNAME, codec.decode(oldToken).getSubject(),
+                        "Старый токен должен проверяться"),
+                () -> assertEquals(USERNAME, codec.decode(newToken).getSubject(),
+                        "Новый токен должен проверяться")
+        );
+
+        Files.delete(directory.resolve("old" + SigningKeyRing.PUBLIC_KEY_SUFFIX));
+        keyRing.reload();
+        assertThrows(JwtException.class, () -> codec.decode(oldToken),
+                "Токен удаленного ключа не должен проверяться");
+    }
+
+    @Test
+    void testJwks() {
+        @SuppressWarnings("unchecked")
+        var key = ((List<Map<String, String>>) keyRing.getJwks().get("keys")).get(0);
+
+        assertAll(
+                () -> assertEquals("EC", key.get("kty")),
+                () -> assertEquals("P-256", key.get("crv")),
+                () -> assertEquals("old", key.get("kid")),
+                () -> assertEquals(32, Base64.getUrlDecoder().decode(key.get("x")).length),
+                () -> assertEquals(32, Base64.getUrlDecoder().decode(key.get("y")).length)
+        );
+    }
+
+    private static TokenClaims claims() {
+        var now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        return TokenClaims.builder()
+                .subject(USERNAME)
+                .issuedAt(now)
+                .expiration(now.plusSeconds(60))
+                .build();
+    }
+
+    private void writeKey(String kid, Instant publishedAt) throws Exception {
+        var generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        var pair = generator.generateKeyPair();
+
+        var publicFile = directory.resolve(kid + SigningKeyRing.PUBLIC_KEY_SUFFIX);
+        Files.writeString(directory.resolve(kid + SigningKeyRing.PRIVATE_KEY_SUFFIX),
+                pem("PRIVATE KEY", pair.getPrivate().getEncoded()), StandardCharsets.US_ASCII);
+        Files.writeString(publicFile, pem("PUBLIC KEY", pair.getPublic().getEncoded()), StandardCharsets.US_ASCII);
+        Files.setLastModifiedTime(publicFile, FileTime.from(publishedAt));
+    }
+
+    private static String pem(String type, byte[] encoded) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(encoded)
+                + "\n-----END " + type + "-----\n";
+    }
+}
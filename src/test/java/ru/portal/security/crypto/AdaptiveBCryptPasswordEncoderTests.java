@@ -0,0 +1,55 @@
+package ru.portal.security.crypto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBCryptPasswordEncoderTests {
+
+    private static final String PASSWORD = "rootroot";
+
+    @Test
+    void testUpgradeEncoding() {
+        var encoder = new AdaptiveBCryptPasswordEncoder(5);
+        var encoded = encoder.encode(PASSWORD);
+
+        assertFalse(encoder.upgradeEncoding(encoded), "Хэш текущей сложности не пересчитывается");
+
+        encoder.setStrength(6);
+        assertAll(
+                () -> assertTrue(encoder.matches(PASSWORD, encoded), "Старый хэш должен проверяться"),
+                () -> assertTrue(encoder.upgradeEncoding(encoded), "Хэш меньшей сложности пересчитывается"),
+                () -> assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode(PASSWORD)),
+                        "Хэш большей сложности не понижается")
+        );
+    }
+
+    @Test
+    void testSetStrengthInvalid() {
+        var encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        assertThrows(IllegalArgumentException.class, () -> encoder.setStrength(3),
+                "Сложность меньше 4 недопустима");
+    }
+
+    @Test
+    void testDelegatingLegacyHash() {
+        var bcrypt = new AdaptiveBCryptPasswordEncoder(5);
+        var encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        var legacy = new BCryptPasswordEncoder(5).encode(PASSWORD);
+
+        assertAll(
+                () -> assertTrue(encoder.matches(PASSWORD, legacy), "Хэш без префикса должен проверяться"),
+                () -> assertTrue(encoder.upgradeEncoding(legacy), "Хэш без префикса пересчитывается"),
+                () -> assertTrue(encoder.encode(PASSWORD).startsWith("{bcrypt}"),
+                        "Новый хэш должен быть с префиксом"),
+                () -> assertFalse(encoder.upgradeEncoding(encoder.encode(PASSWORD)),
+                        "Новый хэш не пересчитывается")
+        );
+    }
+}
@@ -0,0 +1,37 @@
+package ru.portal.security.crypto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.portal.entities.Setting;
+import ru.portal.repositories.SettingRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PasswordEncoderCalibrationTests {
+
+    private final AdaptiveBCryptPasswordEncoder encoder;
+    private final SettingRepository settingRepository;
+
+    @Autowired
+    PasswordEncoderCalibrationTests(AdaptiveBCryptPasswordEncoder encoder,
+                                    SettingRepository settingRepository) {
+        this.encoder = encoder;
+        this.settingRepository = settingRepository;
+    }
+
+    @Test
+    void testStrengthPublishedOnStartup() {
+        var setting = settingRepository.findById(PasswordEncoderCalibrator.STRENGTH_SETTING);
+
+        assertAll(
+                () -> assertTrue(setting.isPresent(), "Сложность должна сохраняться при запуске"),
+                () -> assertEquals(Integer.toString(encoder.getStrength()),
+                        setting.map(Setting::getValue).orElse(null),
+                        "Сохраненная сложность должна совпадать со сложностью кодировщика"),
+                () -> assertEquals(10, encoder.getStrength(),
+                        "Сложность должна ограничиваться security.hashing.calibration.maxStrength")
+        );
+    }
+}
@@ -0,0 +1,59 @@
+package ru.portal.security.crypto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mock.env.MockEnvironment;
+import ru.portal.repositories.SettingRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class PasswordEncoderCalibratorTests {
+
+    private final SettingRepository settingRepository;
+
+    @Autowired
+    PasswordEncoderCalibratorTests(SettingRepository settingRepository) {
+        this.settingRepository = settingRepository;
+    }
+
+    @Test
+    void testSetStrengthSharedBetweenNodes() {
+        var first = new AdaptiveBCryptPasswordEncoder(5);
+        var second = new AdaptiveBCryptPasswordEncoder(7);
+        var firstNode = calibrator(first);
+        var secondNode = calibrator(second);
+
+        assertFalse(secondNode.refresh(), "Общая сложность еще не сохранена");
+
+        var previous = firstNode.setStrength(6);
+        secondNode.refresh();
+
+        assertAll(
+                () -> assertEquals(5, previous, "Должна возвращаться прежняя сложность"),
+                () -> assertEquals(6, first.getStrength(), "Сложность должна меняться на узле запроса"),
+                () -> assertEquals(6, second.getStrength(), "Сложность должна применяться на другом узле"),
+                () -> assertTrue(secondNode.refresh(), "Общая сложность должна быть сохранена")
+        );
+    }
+
+    @Test
+    void testOnApplicationReadyUsesSharedStrength() {
+        calibrator(new AdaptiveBCryptPasswordEncoder(6)).setStrength(6);
+        var encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        calibrator(encoder).onApplicationReady();
+
+        assertEquals(6, encoder.getStrength(), "При запуске должна применяться общая сложность без калибровки");
+    }
+
+    private PasswordEncoderCalibrator calibrator(AdaptiveBCryptPasswordEncoder encoder) {
+        var environment = new MockEnvironment()
+                .withProperty("security.hashing.calibration.enabled", "true")
+                .withProperty("security.hashing.calibration.targetInMs", "1")
+                .withProperty("security.hashing.calibration.minStrength", "4")
+                .withProperty("security.hashing.calibration.maxStrength", "16");
+        return new PasswordEncoderCalibrator(encoder, settingRepository, environment);
+    }
+}
@@ -0,0 +1,71 @@
+package ru.portal.security.details;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import ru.portal.entities.Role;
+import ru.portal.entities.Status;
+import ru.portal.security.services.TokenClaims;
+
+import java.time.Instant;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenUserDetailsTests {
+
+    private static final String USERNAME = "Sparus";
+
+    @Test
+    void testOfClaims() {
+        var claims = TokenClaims.builder()
+                .subject(USERNAME)
+                .issuedAt(Instant.now())
+                .expiration(Instant.now().plusSeconds(60))
+                .claim(TokenClaims.USER_ID, 1)
+                .claim(TokenClaims.ROLE, Role.USER.name())
+                .claim(TokenClaims.STATUS, Status.ACTIVE.name())
+                .build();
+
+        var user = TokenUserDetails.of(claims)
+                .orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertEquals(USERNAME, user.getUsername(),
+                        "Имена должны совпадать"),
+                () -> assertEquals(1L, ((TokenUserDetails) user).getId(),
+                        "Идентификаторы должны совпадать"),
+                () -> assertEquals(Collections.singletonList(new SimpleGrantedAuthority(Role.USER.toString())),
+                        user.getAuthorities(), "Привилегии должны совпадать"),
+                () -> assertTrue(user.isAccountNonLocked(), "Пользователь не должен быть заблокирован")
+        );
+    }
+
+    @Test
+    void testOfClaimsBlocked() {
+        var claims = TokenClaims.builder()
+                .subject(USERNAME)
+                .issuedAt(Instant.now())
+                .expiration(Instant.now().plusSeconds(60))
+                .claim(TokenClaims.USER_ID, 1L)
+                .claim(TokenClaims.ROLE, Role.USER.name())
+                .claim(TokenClaims.STATUS, Status.BLOCK.name())
+                .build();
+
+        var user = TokenUserDetails.of(claims)
+                .orElseThrow(IllegalArgumentException::new);
+
+        assertFalse(user.isAccountNonLocked(), "Пользователь должен быть заблокирован");
+    }
+
+    @Test
+    void testOfClaimsWithoutUser() {
+        var claims = TokenClaims.builder()
+                .subject(USERNAME)
+                .issuedAt(Instant.now())
+                .expiration(Instant.now().plusSeconds(60))
+                .build();
+
+        assertTrue(TokenUserDetails.of(claims).isEmpty(),
+                "Без утверждений пользователя информация не должна создаваться");
+    }
+}
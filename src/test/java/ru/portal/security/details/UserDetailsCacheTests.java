@@ -0,0 +1,84 @@
+package ru.portal.security.details;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.jdbc.Sql;
+import ru.portal.entities.Status;
+import ru.portal.repositories.UserRepository;
+import ru.portal.security.services.UserService;
+
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Sql(scripts = "/sql/user/user_active_test.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@SpringBootTest
+class UserDetailsCacheTests {
+
+    private static final String USERNAME = "Sparus";
+
+    private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final org.springframework.cache.Cache cache;
+
+    @Autowired
+    public UserDetailsCacheTests(UserDetailsService userDetailsService,
+                                 UserDetailsPasswordService userDetailsPasswordService,
+                                 UserService userService,
+                                 UserRepository userRepository,
+                                 CacheManager cacheManager) {
+        this.userDetailsService = userDetailsService;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.cache = Objects.requireNonNull(cacheManager.getCache(UserDetailsServiceImpl.CACHE_NAME));
+    }
+
+    @Test
+    void testLoadUserByUsernameCached() {
+        var nativeCache = (Cache<?, ?>) cache.getNativeCache();
+        var hits = nativeCache.stats().hitCount();
+
+        var first = userDetailsService.loadUserByUsername(USERNAME);
+        var second = userDetailsService.loadUserByUsername(USERNAME);
+
+        assertSame(first, second, "Повторный запрос должен возвращать пользователя из кэша");
+        assertEquals(hits + 1, nativeCache.stats().hitCount(), "Должно быть одно попадание в кэш");
+    }
+
+    @Test
+    void testUpdateStatusEvictsUser() {
+        userDetailsService.loadUserByUsername(USERNAME);
+        assertNotNull(cache.get(USERNAME), "Пользователь должен быть в кэше");
+
+        var user = userRepository.findByUsername(USERNAME)
+                .orElseThrow(IllegalArgumentException::new);
+        userService.updateStatus(Status.BLOCK, user);
+
+        assertNull(cache.get(USERNAME), "Пользователь должен быть удален из кэша");
+        assertFalse(userDetailsService.loadUserByUsername(USERNAME).isAccountNonLocked(),
+                "Пользователь должен быть заблокирован");
+    }
+
+    @Test
+    void testUpdatePasswordEvictsUser() {
+        var details = userDetailsService.loadUserByUsername(USERNAME);
+        assertNotNull(cache.get(USERNAME), "Пользователь должен быть в кэше");
+
+        var password = new BCryptPasswordEncoder(4).encode("rootroot");
+        userDetailsPasswordService.updatePassword(details, password);
+
+        assertNull(cache.get(USERNAME), "Пользователь должен быть удален из кэша");
+        assertEquals(password, userDetailsService.loadUserByUsername(USERNAME).getPassword(),
+                "Пароль должен загружаться из БД после обновления");
+    }
+}
@@ -0,0 +1,86 @@
+package ru.portal.security.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTests {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var environment = new MockEnvironment()
+                .withProperty("security.rateLimit.enabled", "true")
+                .withProperty("security.rateLimit.maximumSize", "1000")
+                .withProperty("security.rateLimit.idleInSecond", "600")
+                .withProperty("security.rateLimit.hashing.capacity", "2")
+                .withProperty("security.rateLimit.hashing.refillPerSecond", "0.01")
+                .withProperty("security.rateLimit.refresh.capacity", "2")
+                .withProperty("security.rateLimit.refresh.refillPerSecond", "0.01")
+                .withProperty("security.rateLimit.lookup.capacity", "2")
+                .withProperty("security.rateLimit.lookup.refillPerSecond", "0.01");
+        filter = new RateLimitFilter(environment, new ObjectMapper());
+    }
+
+    @Test
+    void testDoFilterRejectsOverLimit() throws Exception {
+        perform("/login", "10.0.0.1");
+        perform("/login", "10.0.0.1");
+
+        var response = perform("/login", "10.0.0.1");
+
+        assertAll(
+                () -> assertEquals(429, response.getStatus(), "Запрос сверх лимита должен отклоняться"),
+                () -> assertEquals("100", response.getHeader(HttpHeaders.RETRY_AFTER),
+                        "Retry-After должен равняться времени до следующего токена"),
+                () -> assertTrue(response.getContentAsString().contains("\"status\":429"),
+                        "Тело должно содержать статус")
+        );
+    }
+
+    @Test
+    void testDoFilterSeparateRoutesAndAddresses() throws Exception {
+        perform("/login", "10.0.0.1");
+        perform("/login", "10.0.0.1");
+
+        assertAll(
+                () -> assertEquals(200, perform("/login", "10.0.0.2").getStatus(),
+                        "Лимит другого адреса должен считаться отдельно"),
+                () -> assertEquals(200, perform("/registration", "10.0.0.1").getStatus(),
+                        "Лимит другого маршрута должен считаться отдельно"),
+                () -> assertEquals(200, perform("/profile", "10.0.0.1").getStatus(),
+                        "Остальные маршруты не ограничиваются")
+        );
+    }
+
+    @Test
+    void testDoFilterNormalizesPath() throws Exception {
+        perform("/login", "10.0.0.1");
+        perform("/login/", "10.0.0.1");
+
+        assertAll(
+                () -> assertEquals(429, perform("/login/", "10.0.0.1").getStatus(),
+                        "Завершающий слеш не должен обходить лимит"),
+                () -> assertEquals(429, perform("//login", "10.0.0.1").getStatus(),
+                        "Повторный слеш не должен обходить лимит"),
+                () -> assertEquals(429, perform("/login;jsessionid=1", "10.0.0.1").getStatus(),
+                        "Параметр пути не должен обходить лимит")
+        );
+    }
+
+    private MockHttpServletResponse perform(String path, String address) throws Exception {
+        var request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(address);
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
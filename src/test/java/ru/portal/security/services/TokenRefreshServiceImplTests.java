@@ -8,8 +8,15 @@ import ru.portal.entities.User;
 import ru.portal.repositories.auth.RefreshTokenRepository;
 import ru.portal.security.services.exception.RefreshTokenNotExistsException;
 import ru.portal.security.services.exception.RefreshTokenTimeUpException;
+import ru.portal.security.services.exception.SessionPageException;
+import ru.portal.security.utilities.SplitToken;
+import ru.portal.security.utilities.TokenDigest;
 
 import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,9 +26,9 @@ class TokenRefreshServiceImplTests {
 
     private static final Pattern REGEX_TOKEN_WITH_BEARER = Pattern
             .compile("Bearer_([\\w_=]+)\\.([\\w_=]+)\\.([\\w_\\-\\+\\/=]*)");
-    private static final Pattern REGEX_REFRESH_TOKEN = Pattern.compile("\\w{32}");
+    private static final Pattern REGEX_REFRESH_TOKEN = Pattern.compile("[0-9a-f]{48}");
 
-    private static final String REFRESH_TOKEN = "cbbnb42fe1f4fgd697143da246a4132b";
+    private static final String REFRESH_TOKEN = "0000000000000001cbbnb42fe1f4fgd697143da246a4132b";
 
     private final TokenRefreshService tokenRefreshService;
     private final RefreshTokenRepository refreshTokenRepository;
@@ -41,12 +48,14 @@ class TokenRefreshServiceImplTests {
 
         var token = tokenRefreshService.refreshToken(REFRESH_TOKEN);
 
-        var refreshToken = refreshTokenRepository.findByToken(token.getRefreshToken())
+        var refreshToken = refreshTokenRepository.findById(1L)
                 .orElseThrow(IllegalArgumentException::new);
 
         assertAll(
-                () -> assertEquals(token.getRefreshToken(), refreshToken.getToken(),
-                        "Токены обновления должны совпадать"),
+                () -> assertTrue(token.getRefreshToken().startsWith("0000000000000001"),
+                        "Селектор при обновлении не должен меняться"),
+                () -> assertArrayEquals(TokenDigest.sha256(token.getRefreshToken().substring(16)),
+                        refreshToken.getTokenHash(), "Должен храниться хэш нового верификатора"),
                 () -> assertTrue(Instant.now().isBefore(Instant.ofEpochMilli(refreshToken.getLifetime())),
                         "Проверяет что время жизни токена обновления больше текущего момента времени"),
                 () -> assertTrue(token.getRefreshToken().matches(REGEX_REFRESH_TOKEN.toString()),
@@ -99,17 +108,34 @@ class TokenRefreshServiceImplTests {
                 () -> assertTrue(Instant.now().isBefore(Instant.ofEpochMilli(refreshToken.getLifetime())),
                         "Время жизни токена больше текущего момента времени"),
                 () -> assertEquals(user.getId(), refreshToken.getUser().getId(),
-                        "Идентификаторы пользователя должны совпадать")
+                        "Идентификаторы пользователя должны совпадать"),
+                () -> assertEquals(refreshToken.getId(), SplitToken.parse(refreshToken.getToken())
+                                .orElseThrow(IllegalArgumentException::new).getSelector(),
+                        "Селектор должен совпадать с идентификатором строки")
         );
     }
 
+    @Sql(scripts = {"/sql/user/user_await_test.sql", "/sql/auth/refresh_token_repository_valid_test.sql"},
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testRefreshTokenWrongVerifier() {
+
+        var token = "0000000000000001" + "f".repeat(32);
+
+        assertThrows(RefreshTokenNotExistsException.class,
+                () -> tokenRefreshService.refreshToken(token),
+                "Токен с неверным верификатором не должен приниматься");
+        assertTrue(refreshTokenRepository.existsById(1L), "Токен не должен удаляться");
+    }
+
     @Sql(scripts = {"/sql/user/user_await_test.sql", "/sql/auth/refresh_token_repository_valid_test.sql"},
             executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
     @Test
     void testDeleteRefreshToken() {
         tokenRefreshService.deleteRefreshToken(REFRESH_TOKEN);
-        var deleteToken = refreshTokenRepository.findByToken(REFRESH_TOKEN);
+        var deleteToken = refreshTokenRepository.findById(1L);
         assertFalse(deleteToken.isPresent(), "Токена не должно существовать");
     }
 
@@ -118,7 +144,7 @@ class TokenRefreshServiceImplTests {
     @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
     @Test
     void testIsLifetimeRefreshTokenTrue() {
-        var token = refreshTokenRepository.findByToken(REFRESH_TOKEN);
+        var token = refreshTokenRepository.findById(1L);
         assertTrue(tokenRefreshService.isLifetimeRefreshToken(token.orElseThrow(IllegalArgumentException::new)),
                 "Токен должен быть актуален");
     }
@@ -128,8 +154,96 @@ class TokenRefreshServiceImplTests {
     @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
     @Test
     void testIsLifetimeRefreshTokenFalse() {
-        var token = refreshTokenRepository.findByToken(REFRESH_TOKEN);
+        var token = refreshTokenRepository.findById(1L);
         assertFalse(tokenRefreshService.isLifetimeRefreshToken(token.orElseThrow(IllegalArgumentException::new)),
                 "Токен должен быть неактуален");
     }
+
+    @Sql(scripts = {"/sql/user/user_await_test.sql", "/sql/auth/refresh_token_repository_valid_test.sql",
+            "/sql/auth/refresh_token_sessions_test.sql"},
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testAddRefreshTokenEvictsOldest() {
+
+        var user = User.builder()
+                .id(1L)
+                .build();
+
+        tokenRefreshService.addRefreshToken(user);
+        var refreshToken = tokenRefreshService.addRefreshToken(user)
+                .orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertEquals(5, refreshTokenRepository.count(), "Сессий не должно быть больше пяти"),
+                () -> assertFalse(refreshTokenRepository.existsById(1L), "Самая старая сессия должна удаляться"),
+                () -> assertTrue(refreshTokenRepository.existsById(refreshToken.getId()),
+                        "Новая сессия должна сохраняться")
+        );
+    }
+
+    @Sql(scripts = {"/sql/user/user_await_test.sql", "/sql/auth/refresh_token_repository_valid_test.sql"},
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testAddRefreshTokenConcurrentKeepsLimit() throws Exception {
+
+        var user = User.builder()
+                .id(1L)
+                .build();
+        var threads = 16;
+        var pool = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        var added = new AtomicInteger();
+
+        for (int i = 0; i < threads; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    tokenRefreshService.addRefreshToken(user).ifPresent(token -> added.incrementAndGet());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS), "Потоки должны завершиться");
+
+        assertAll(
+                () -> assertEquals(threads, added.get(), "Каждый вход должен выдавать токен"),
+                () -> assertEquals(5, refreshTokenRepository.count(),
+                        "Параллельные входы не должны оставлять больше пяти сессий")
+        );
+    }
+
+    @Sql(scripts = {"/sql/user/user_await_test.sql", "/sql/auth/refresh_token_repository_valid_test.sql",
+            "/sql/auth/refresh_token_sessions_test.sql"},
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testFindSessions() {
+
+        var first = tokenRefreshService.findSessions("Sparus", null, 2);
+        var second = tokenRefreshService.findSessions("Sparus", first.getNext(), 2);
+        var third = tokenRefreshService.findSessions("Sparus", second.getNext(), 2);
+
+        assertAll(
+                () -> assertEquals(2, first.getSessions().size(), "Первая страница должна быть полной"),
+                () -> assertEquals(4L, first.getSessions().get(0).getId(), "Первой должна быть новая сессия"),
+                () -> assertEquals("4088238925000_1", second.getNext(), "Курсор должен указывать на последнюю сессию"),
+                () -> assertTrue(third.getSessions().isEmpty(), "Сессий больше нет"),
+                () -> assertNull(third.getNext(), "Курсора у неполной страницы нет")
+        );
+    }
+
+    @Test
+    void testFindSessionsBadArguments() {
+        assertAll(
+                () -> assertThrows(SessionPageException.class,
+                        () -> tokenRefreshService.findSessions("Sparus", null, 0), "Размер страницы неверен"),
+                () -> assertThrows(SessionPageException.class,
+                        () -> tokenRefreshService.findSessions("Sparus", "abc", 10), "Курсор неверен")
+        );
+    }
 }
@@ -0,0 +1,61 @@
+package ru.portal.security.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+import ru.portal.entities.Status;
+import ru.portal.repositories.UserRepository;
+import ru.portal.security.store.MemoryRefreshTokenStore;
+import ru.portal.security.store.RefreshTokenStore;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "security.token.store.type=memory",
+        "security.token.stateless.enabled=true"
+})
+class TokenRefreshServiceMemoryStoreTests {
+
+    private final TokenRefreshService tokenRefreshService;
+    private final TokenService tokenService;
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final RefreshTokenStore refreshTokenStore;
+
+    @Autowired
+    public TokenRefreshServiceMemoryStoreTests(TokenRefreshService tokenRefreshService,
+                                               TokenService tokenService,
+                                               UserService userService,
+                                               UserRepository userRepository,
+                                               RefreshTokenStore refreshTokenStore) {
+        this.tokenRefreshService = tokenRefreshService;
+        this.tokenService = tokenService;
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.refreshTokenStore = refreshTokenStore;
+    }
+
+    @Sql(scripts = "/sql/user/user_active_test.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testRefreshTokenUsesCurrentStatus() {
+
+        var user = userRepository.findByUsername("Sparus").orElseThrow(IllegalArgumentException::new);
+        var refreshToken = tokenRefreshService.addRefreshToken(user)
+                .orElseThrow(IllegalArgumentException::new);
+
+        userService.updateStatus(Status.BLOCK, user);
+        var response = tokenRefreshService.refreshToken(refreshToken.getToken());
+        var claims = tokenService.parseToken(tokenService.getToken(response.getAuthorization()))
+                .orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertInstanceOf(MemoryRefreshTokenStore.class, refreshTokenStore,
+                        "Должно использоваться хранилище в памяти"),
+                () -> assertEquals(Status.BLOCK.name(), claims.getClaim(TokenClaims.STATUS, String.class)
+                                .orElse(null),
+                        "Новый токен доступа должен получать текущий статус пользователя")
+        );
+    }
+}
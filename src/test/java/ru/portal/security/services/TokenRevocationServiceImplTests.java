@@ -0,0 +1,117 @@
+package ru.portal.security.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import ru.portal.security.services.impl.TokenRevocationServiceImpl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationServiceImplTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRevoke() {
+        var service = revocationService();
+        var revoked = claims("first", 60);
+        var active = claims("second", 60);
+
+        service.revoke(revoked);
+
+        assertAll(
+                () -> assertTrue(service.isRevoked(revoked), "Токен должен быть отозван"),
+                () -> assertFalse(service.isRevoked(active), "Токен не должен быть отозван")
+        );
+    }
+
+    @Test
+    void testRevokeWithoutId() {
+        var service = revocationService();
+        var claims = TokenClaims.builder()
+                .subject("Sparus")
+                .issuedAt(Instant.now())
+                .expiration(Instant.now().plusSeconds(60))
+                .build();
+
+        service.revoke(claims);
+
+        assertFalse(service.isRevoked(claims), "Токен без идентификатора не отзывается");
+    }
+
+    @Test
+    void testSnapshotAfterRestart() {
+        var revoked = claims("first", 60);
+        var expired = claims("second", -60);
+        var service = revocationService();
+        service.revoke(revoked);
+        service.revoke(expired);
+        service.close();
+
+        var restarted = revocationService();
+
+        assertAll(
+                () -> assertTrue(restarted.isRevoked(revoked), "Токен должен остаться отозванным"),
+                () -> assertFalse(restarted.isRevoked(expired), "Истекший токен не должен загружаться")
+        );
+    }
+
+    @Test
+    void testPrune() {
+        var service = revocationService();
+        var expired = claims("first", -60);
+        service.revoke(expired);
+
+        service.prune();
+
+        assertFalse(service.isRevoked(expired), "Истекший токен должен быть удален");
+    }
+
+    @Test
+    void testSnapshotAfterPruneAndRestart() {
+        var revoked = claims("first", 60);
+        var expired = claims("second", -60);
+        var service = revocationService();
+        service.revoke(revoked);
+        service.revoke(expired);
+        service.prune();
+        var later = claims("third", 60);
+        service.revoke(later);
+        service.close();
+
+        var restarted = revocationService();
+
+        assertAll(
+                () -> assertTrue(restarted.isRevoked(revoked), "Перезапись должна сохранять действующие токены"),
+                () -> assertTrue(restarted.isRevoked(later), "Токен после перезаписи должен дописываться"),
+                () -> assertFalse(restarted.isRevoked(expired), "Истекший токен не должен загружаться"),
+                () -> assertFalse(Files.exists(directory.resolve("revoked.bin.tmp")),
+                        "Временный файл должен заменять снимок")
+        );
+    }
+
+    private TokenRevocationServiceImpl revocationService() {
+        var environment = new MockEnvironment()
+                .withProperty("security.token.revocation.snapshotFile", directory.resolve("revoked.bin").toString())
+                .withProperty("security.token.revocation.snapshotSizeInBytes", "65536")
+                .withProperty("security.token.revocation.bucketInSecond", "900")
+                .withProperty("security.token.revocation.expectedInsertions", "1000")
+                .withProperty("security.token.revocation.falsePositiveRate", "0.01");
+        return new TokenRevocationServiceImpl(environment);
+    }
+
+    private static TokenClaims claims(String id, long lifetime) {
+        var now = Instant.now();
+        return TokenClaims.builder()
+                .subject("Sparus")
+                .issuedAt(now.minusSeconds(120))
+                .expiration(now.plusSeconds(lifetime))
+                .claim(TokenClaims.TOKEN_ID, id)
+                .build();
+    }
+}
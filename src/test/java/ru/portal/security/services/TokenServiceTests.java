@@ -96,5 +96,43 @@ class TokenServiceTests {
         assertEquals("Sparus", username, "Имена должны совпадать");
     }
 
+    @Test
+    void testParseToken() {
+        var token = tokenService.createToken(USERNAME);
+        var claims = tokenService.parseToken(token.substring(7))
+                .orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertEquals(USERNAME, claims.getSubject(),
+                        "Имена должны совпадать"),
+                () -> assertTrue(Instant.now().isBefore(claims.getExpiration()),
+                        "Время жизни токена больше текущего момента времени"),
+                () -> assertFalse(claims.getIssuedAt().isAfter(Instant.now()),
+                        "Время создания токена не должно быть больше текущего момента времени")
+        );
+    }
+
+    @Test
+    void testParseTokenCached() {
+        var token = tokenService.createToken(USERNAME).substring(7);
+        var first = tokenService.parseToken(token)
+                .orElseThrow(IllegalArgumentException::new);
+        var second = tokenService.parseToken(token)
+                .orElseThrow(IllegalArgumentException::new);
+        assertSame(first, second, "Повторная проверка токена должна брать утверждения из кэша");
+    }
+
+    @Test
+    void testParseTokenExpired() {
+        var token = tokenService.createToken(USERNAME, 0L);
+        var claims = tokenService.parseToken(token.substring(7));
+        assertTrue(claims.isEmpty(), "Утверждения недействительного токена не должны извлекаться");
+    }
+
+    @Test
+    void testParseTokenMalformed() {
+        var claims = tokenService.parseToken("not.a.token");
+        assertTrue(claims.isEmpty(), "Утверждения поврежденного токена не должны извлекаться");
+    }
 
 }
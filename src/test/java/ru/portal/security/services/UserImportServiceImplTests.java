@@ -0,0 +1,134 @@
+package ru.portal.security.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.jdbc.Sql;
+import ru.portal.entities.Role;
+import ru.portal.entities.Status;
+import ru.portal.repositories.UserRepository;
+import ru.portal.repositories.auth.LoginAttemptRepository;
+import ru.portal.security.services.exception.ImportFormatException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserImportServiceImplTests {
+
+    private static final String PASSWORD_HASH = "$2a$10$vBZdWDS/FhmgVahinPwunuMpgz6Jh7M1C183HV8UTg92k3B0YcjJW";
+
+    private final UserImportService userImportService;
+    private final UserRepository userRepository;
+    private final LoginAttemptRepository loginAttemptRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    @Autowired
+    public UserImportServiceImplTests(UserImportService userImportService,
+                                      UserRepository userRepository,
+                                      LoginAttemptRepository loginAttemptRepository,
+                                      PasswordEncoder passwordEncoder) {
+        this.userImportService = userImportService;
+        this.userRepository = userRepository;
+        this.loginAttemptRepository = loginAttemptRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Sql(scripts = "/sql/user/user_await_test.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testImportUsersNdjson() throws IOException {
+
+        var file = String.join("\n",
+                "{\"username\":\"Imported\",\"email\":\"imported@mail.ru\",\"password\":\"password123\"}",
+                "{\"username\":\"Hashed\",\"email\":\"hashed@mail.ru\",\"passwordHash\":\"" + PASSWORD_HASH
+                        + "\",\"status\":\"await\"}",
+                "",
+                "{\"username\":\"Imported\",\"email\":\"other@mail.ru\",\"password\":\"password123\"}",
+                "{\"username\":\"Sparus\",\"email\":\"rf1991@mail.ru\",\"password\":\"password123\"}",
+                "{\"username\":\"Invalid\",\"email\":\"not-email\",\"password\":\"password123\"}",
+                "{\"username\":\"Broken\",");
+
+        var response = userImportService.importUsers(toStream(file), UserImportFormat.NDJSON);
+
+        var imported = userRepository.findByUsername("Imported").orElseThrow(IllegalArgumentException::new);
+        var hashed = userRepository.findByUsername("Hashed").orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertEquals(2, response.getImported(), "Должны добавиться два пользователя"),
+                () -> assertEquals(2, response.getSkipped(), "Занятые имя и адрес должны пропускаться"),
+                () -> assertEquals(2, response.getRejected(),
+                        "Некорректная запись и неразобранная строка должны отклоняться"),
+                () -> assertEquals(0, response.getFailed(), "Ошибок записи быть не должно"),
+                () -> assertTrue(passwordEncoder.matches("password123", imported.getPassword()),
+                        "Пароль должен храниться в виде хэша"),
+                () -> assertEquals(PASSWORD_HASH, hashed.getPassword(), "Готовый хэш должен сохраняться как есть"),
+                () -> assertEquals(Status.ACTIVE, imported.getStatus(), "Статус по умолчанию ACTIVE"),
+                () -> assertEquals(Status.AWAIT, hashed.getStatus(), "Статус должен браться из файла"),
+                () -> assertEquals(Role.USER, imported.getRole(), "Роль должна быть USER"),
+                () -> assertTrue(loginAttemptRepository.findByUser(imported).isPresent(),
+                        "Счетчик попыток входа должен создаваться"),
+                () -> assertFalse(userRepository.findByEmail("other@mail.ru").isPresent(),
+                        "Повтор имени в файле не должен добавляться")
+        );
+    }
+
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testImportUsersCsv() throws IOException {
+
+        var file = String.join("\n",
+                "username,email,password",
+                "Imported,imported@mail.ru,\"pass,word123\"",
+                "Short,short@mail.ru");
+
+        var response = userImportService.importUsers(toStream(file), UserImportFormat.CSV);
+
+        var imported = userRepository.findByUsername("Imported").orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertEquals(1, response.getImported(), "Должен добавиться один пользователь"),
+                () -> assertEquals(1, response.getRejected(), "Строка с неполным набором значений должна отклоняться"),
+                () -> assertTrue(passwordEncoder.matches("pass,word123", imported.getPassword()),
+                        "Значение в кавычках может содержать запятую")
+        );
+    }
+
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testImportUsersRejectsLongLine() throws IOException {
+
+        var file = String.join("\n",
+                "{\"username\":\"Long\",\"email\":\"long@mail.ru\",\"password\":\"" + "x".repeat(10_000) + "\"}",
+                "{\"username\":\"Imported\",\"email\":\"imported@mail.ru\",\"password\":\"password123\"}",
+                "{\"username\":\"Endless\"," + "x".repeat(10_000));
+
+        var response = userImportService.importUsers(toStream(file), UserImportFormat.NDJSON);
+
+        assertAll(
+                () -> assertEquals(1, response.getImported(), "Должна добавиться строка обычной длины"),
+                () -> assertEquals(2, response.getRejected(), "Слишком длинные строки должны отклоняться"),
+                () -> assertFalse(userRepository.findByUsername("Long").isPresent(),
+                        "Пользователь из длинной строки не должен добавляться")
+        );
+    }
+
+    @Test
+    void testImportUsersCsvWithoutHeader() {
+
+        var exception = assertThrows(ImportFormatException.class,
+                () -> userImportService.importUsers(toStream("username,email\nName,name@mail.ru"),
+                        UserImportFormat.CSV),
+                "Без колонки пароля импорт должен отклоняться");
+
+        assertNotNull(exception.getMessage(), "Сообщение должно присутствовать");
+    }
+
+    private static ByteArrayInputStream toStream(String file) {
+        return new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8));
+    }
+}
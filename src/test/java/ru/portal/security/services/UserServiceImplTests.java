@@ -10,6 +10,7 @@ import ru.portal.entities.Role;
 import ru.portal.entities.Status;
 import ru.portal.entities.dto.request.auth.DtoUserRequest;
 import ru.portal.repositories.UserRepository;
+import ru.portal.repositories.auth.LoginAttemptRepository;
 import ru.portal.security.services.exception.IncorrectCredentialsException;
 import ru.portal.security.services.exception.UserBannedException;
 import ru.portal.security.services.exception.UserExistsException;
@@ -25,20 +26,23 @@ class UserServiceImplTests {
     private static final Pattern REGEX_TOKEN_WITH_BEARER = Pattern
             .compile("Bearer_([\\w_=]+)\\.([\\w_=]+)\\.([\\w_\\-\\+\\/=]*)");
 
-    private static final Pattern REGEX_REFRESH_TOKEN = Pattern.compile("\\w{32}");
+    private static final Pattern REGEX_REFRESH_TOKEN = Pattern.compile("[0-9a-f]{48}");
 
 
     private final UserService userService;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final LoginAttemptRepository attemptRepository;
 
     @Autowired
     public UserServiceImplTests(UserService userService,
                                 UserRepository userRepository,
-                                PasswordEncoder passwordEncoder) {
+                                PasswordEncoder passwordEncoder,
+                                LoginAttemptRepository attemptRepository) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.attemptRepository = attemptRepository;
     }
 
     @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
@@ -80,7 +84,30 @@ class UserServiceImplTests {
                 () -> userService.registrationUser(dtoUser),
                 "Должно бросаться исключение пользователь существует");
 
-        assertNotNull(exception.getMessage(), "Сообщение должно присутствовать");
+        assertAll(
+                () -> assertEquals(UserExistsException.LOGIN_EXIST, exception.getMessage(),
+                        "Сообщение должно указывать на занятое имя"),
+                () -> assertEquals(1, userRepository.count(), "Пользователь не должен добавляться")
+        );
+    }
+
+    @Sql(scripts = "/sql/user/user_await_test.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testRegistrationEmailExists() {
+
+        var dtoUser = new DtoUserRequest("Newcomer", "rf1991@mail.ru", "rootroot");
+
+        var exception = assertThrows(UserExistsException.class,
+                () -> userService.registrationUser(dtoUser),
+                "Должно бросаться исключение пользователь существует");
+
+        assertAll(
+                () -> assertEquals(UserExistsException.EMAIL_EXIST, exception.getMessage(),
+                        "Сообщение должно указывать на занятый адрес"),
+                () -> assertTrue(userRepository.findByUsername("Newcomer").isEmpty(),
+                        "Пользователь не должен добавляться")
+        );
     }
 
     @Sql(scripts = {"/sql/user/user_active_test.sql", "/sql/auth/login_attempt_valid_test.sql"},
@@ -99,6 +126,41 @@ class UserServiceImplTests {
                 "Токен обновления должен соответствовать регулярному выражению");
     }
 
+    @Sql(scripts = {"/sql/user/user_active_test.sql", "/sql/auth/login_attempt_valid_test.sql"},
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testLoginResetAttempts() {
+
+        var dtoUser = new DtoUserRequest("Sparus", "", "rootroot");
+
+        userService.login(dtoUser);
+
+        var attempt = attemptRepository.findWithUserByUsername(dtoUser.getUsername())
+                .orElseThrow(IllegalArgumentException::new);
+        assertEquals(0, attempt.getNumberAttempt(), "Счетчик попыток должен быть обнулен");
+    }
+
+    @Sql(scripts = {"/sql/user/user_active_test.sql", "/sql/auth/login_attempt_valid_test.sql"},
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    @Test
+    void testLoginUpgradePassword() {
+
+        var dtoUser = new DtoUserRequest("Sparus", "", "rootroot");
+
+        userService.login(dtoUser);
+
+        var user = userRepository.findByUsername(dtoUser.getUsername())
+                .orElseThrow(IllegalArgumentException::new);
+        assertAll(
+                () -> assertTrue(user.getPassword().startsWith("{bcrypt}"),
+                        "Хэш без префикса должен быть пересохранен с префиксом"),
+                () -> assertTrue(passwordEncoder.matches(dtoUser.getPassword(), user.getPassword()),
+                        "Пересохраненный хэш должен совпадать с паролем")
+        );
+    }
+
     @Sql(scripts = {"/sql/user/user_active_test.sql", "/sql/auth/login_attempt_valid_test.sql"},
             executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     @Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
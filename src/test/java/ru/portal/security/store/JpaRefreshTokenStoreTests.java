@@ -0,0 +1,28 @@
+package ru.portal.security.store;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Sql(scripts = "/sql/user/user_await_test.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/sql/cleaning.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(JpaRefreshTokenStore.class)
+@DataJpaTest
+class JpaRefreshTokenStoreTests extends RefreshTokenStoreContractTests {
+
+    private final JpaRefreshTokenStore store;
+
+    @Autowired
+    JpaRefreshTokenStoreTests(JpaRefreshTokenStore store) {
+        this.store = store;
+    }
+
+    @Override
+    RefreshTokenStore store() {
+        return store;
+    }
+}
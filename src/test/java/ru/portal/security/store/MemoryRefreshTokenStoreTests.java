@@ -0,0 +1,116 @@
+package ru.portal.security.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+import ru.portal.security.utilities.TokenDigest;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryRefreshTokenStoreTests extends RefreshTokenStoreContractTests {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private MemoryRefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new MemoryRefreshTokenStore(environment(""), NOW);
+    }
+
+    @Override
+    RefreshTokenStore store() {
+        return store;
+    }
+
+    @Test
+    void testExpire() {
+        var saved = store.add(token("first", NOW + 5000), 5);
+
+        assertEquals(0, store.expire(NOW + 4000), "Действующий токен не должен удаляться");
+        assertTrue(store.find(saved.getId()).isPresent(), "Токен должен существовать");
+
+        assertEquals(1, store.expire(NOW + 7000), "Истекший токен должен удаляться");
+        assertTrue(store.find(saved.getId()).isEmpty(), "Токена не должно существовать");
+    }
+
+    @Test
+    void testExpireSkipsRotated() {
+        var saved = store.add(token("first", NOW + 5000), 5);
+        store.rotate(saved.getId(), TokenDigest.sha256("first"), TokenDigest.sha256("second"), NOW + 60000);
+
+        assertEquals(0, store.expire(NOW + 7000), "Обновленный токен не должен удаляться по старому сроку");
+        assertTrue(store.find(saved.getId()).isPresent(), "Токен должен существовать");
+    }
+
+    @Test
+    void testJournalReplay() {
+        var file = directory.resolve("refresh-tokens.journal").toString();
+        var journaled = new MemoryRefreshTokenStore(environment(file), NOW);
+        var rotated = journaled.add(token("first", LIFETIME), 5);
+        var deleted = journaled.add(token("second", LIFETIME), 5);
+        journaled.rotate(rotated.getId(), TokenDigest.sha256("first"), TokenDigest.sha256("third"), LIFETIME + 1000);
+        journaled.delete(deleted);
+        journaled.close();
+
+        var restored = new MemoryRefreshTokenStore(environment(file), NOW);
+        var found = restored.find(rotated.getId()).orElseThrow(IllegalArgumentException::new);
+        var added = restored.add(token("fourth", LIFETIME), 5);
+        restored.close();
+
+        assertAll(
+                () -> assertArrayEquals(TokenDigest.sha256("third"), found.getTokenHash(),
+                        "Обновление токена должно восстанавливаться"),
+                () -> assertEquals(LIFETIME + 1000, found.getLifetime(), "Время жизни должно восстанавливаться"),
+                () -> assertEquals("Sparus", found.getUser().getUsername(), "Пользователь должен восстанавливаться"),
+                () -> assertTrue(restored.find(deleted.getId()).isEmpty(), "Удаленный токен не должен возвращаться"),
+                () -> assertTrue(added.getId() > deleted.getId(), "Идентификаторы не должны повторяться")
+        );
+    }
+
+    @Test
+    void testRotateConcurrent() throws Exception {
+        var saved = store.add(token("first", LIFETIME), 5);
+        var threads = 8;
+        var pool = Executors.newFixedThreadPool(threads);
+        var start = new CountDownLatch(1);
+        var rotated = new AtomicInteger();
+
+        for (int i = 0; i < threads; i++) {
+            var verifier = "next" + i;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    if (store.rotate(saved.getId(), TokenDigest.sha256("first"),
+                            TokenDigest.sha256(verifier), LIFETIME + 1000)) {
+                        rotated.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS), "Потоки должны завершиться");
+
+        assertEquals(1, rotated.get(), "Токен должен обновляться только один раз");
+    }
+
+    private static MockEnvironment environment(String journalFile) {
+        return new MockEnvironment()
+                .withProperty("security.token.store.memory.tickInMs", "1000")
+                .withProperty("security.token.store.memory.compactAfterRecords", "1000")
+                .withProperty("security.token.store.memory.journalFile", journalFile);
+    }
+}
@@ -0,0 +1,120 @@
+package ru.portal.security.store;
+
+import org.junit.jupiter.api.Test;
+import ru.portal.entities.Role;
+import ru.portal.entities.Status;
+import ru.portal.entities.User;
+import ru.portal.entities.auth.RefreshToken;
+import ru.portal.security.utilities.TokenDigest;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Общие проверки для всех реализаций {@link RefreshTokenStore}.
+ */
+abstract class RefreshTokenStoreContractTests {
+
+    static final long LIFETIME = 4088238925000L;
+
+    abstract RefreshTokenStore store();
+
+    static RefreshToken token(String verifier, long lifetime) {
+        return RefreshToken.builder()
+                .tokenHash(TokenDigest.sha256(verifier))
+                .lifetime(lifetime)
+                .user(User.builder()
+                        .id(1L)
+                        .username("Sparus")
+                        .role(Role.USER)
+                        .status(Status.AWAIT)
+                        .build())
+                .build();
+    }
+
+    @Test
+    void testAddAndFind() {
+        var saved = store().add(token("first", LIFETIME), 5);
+
+        var found = store().find(saved.getId()).orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertNotNull(saved.getId(), "Идентификатор должен назначаться"),
+                () -> assertArrayEquals(TokenDigest.sha256("first"), found.getTokenHash(),
+                        "Хэш токена должен совпадать"),
+                () -> assertEquals(LIFETIME, found.getLifetime(), "Время жизни должно совпадать"),
+                () -> assertEquals(1L, found.getUser().getId(), "Идентификатор пользователя должен совпадать")
+        );
+    }
+
+    @Test
+    void testFindNotExists() {
+        assertTrue(store().find(999L).isEmpty(), "Токена не должно существовать");
+    }
+
+    @Test
+    void testAddEvictsOldest() {
+        var oldest = store().add(token("first", LIFETIME), 2);
+        var middle = store().add(token("second", LIFETIME + 1000), 2);
+        var newest = store().add(token("third", LIFETIME + 2000), 2);
+
+        assertAll(
+                () -> assertTrue(store().find(oldest.getId()).isEmpty(), "Самый старый токен должен удаляться"),
+                () -> assertTrue(store().find(middle.getId()).isPresent(), "Токен должен остаться"),
+                () -> assertTrue(store().find(newest.getId()).isPresent(), "Новый токен должен остаться")
+        );
+    }
+
+    @Test
+    void testRotate() {
+        var saved = store().add(token("first", LIFETIME), 5);
+
+        var rotated = store().rotate(saved.getId(), TokenDigest.sha256("first"),
+                TokenDigest.sha256("second"), LIFETIME + 1000);
+        var found = store().find(saved.getId()).orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertTrue(rotated, "Токен должен обновляться"),
+                () -> assertArrayEquals(TokenDigest.sha256("second"), found.getTokenHash(),
+                        "Хэш токена должен заменяться"),
+                () -> assertEquals(LIFETIME + 1000, found.getLifetime(), "Время жизни должно заменяться"),
+                () -> assertFalse(store().rotate(saved.getId(), TokenDigest.sha256("first"),
+                        TokenDigest.sha256("third"), LIFETIME), "Старый хэш не должен подходить"),
+                () -> assertFalse(store().rotate(999L, TokenDigest.sha256("first"),
+                        TokenDigest.sha256("third"), LIFETIME), "Несуществующий токен не обновляется")
+        );
+    }
+
+    @Test
+    void testDelete() {
+        var saved = store().add(token("first", LIFETIME), 5);
+
+        store().delete(saved);
+
+        assertTrue(store().find(saved.getId()).isEmpty(), "Токена не должно существовать");
+    }
+
+    @Test
+    void testFindSessions() {
+        var now = Instant.now().toEpochMilli();
+        store().add(token("expired", 10000), 5);
+        var oldest = store().add(token("first", LIFETIME), 5);
+        var middle = store().add(token("second", LIFETIME + 1000), 5);
+        var newest = store().add(token("third", LIFETIME + 2000), 5);
+
+        var first = store().findSessions("Sparus", now, Long.MAX_VALUE, Long.MAX_VALUE, 2);
+        var last = first.get(first.size() - 1);
+        var second = store().findSessions("Sparus", now, last.getLifetime(), last.getId(), 2);
+
+        assertAll(
+                () -> assertEquals(2, first.size(), "Первая страница должна быть полной"),
+                () -> assertEquals(newest.getId(), first.get(0).getId(), "Первым должен быть новый токен"),
+                () -> assertEquals(middle.getId(), first.get(1).getId(), "Вторым должен быть средний токен"),
+                () -> assertEquals(1, second.size(), "Истекший токен не должен возвращаться"),
+                () -> assertEquals(oldest.getId(), second.get(0).getId(), "Последним должен быть старый токен"),
+                () -> assertTrue(store().findSessions("Nobody", now, Long.MAX_VALUE, Long.MAX_VALUE, 2).isEmpty(),
+                        "Чужие токены не должны возвращаться")
+        );
+    }
+}
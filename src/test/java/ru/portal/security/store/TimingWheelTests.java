@@ -0,0 +1,62 @@
+package ru.portal.security.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTests {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void testAdvanceFiresOnDeadline() {
+        var wheel = new TimingWheel<String>(1000, NOW);
+        wheel.schedule("soon", NOW + 1500);
+        wheel.schedule("later", NOW + 90_000);
+        var fired = new ArrayList<String>();
+
+        wheel.advance(NOW + 1000, fired::add);
+        assertTrue(fired.isEmpty(), "Элементы не должны срабатывать раньше срока");
+
+        wheel.advance(NOW + 2000, fired::add);
+        assertEquals(List.of("soon"), fired, "Элемент должен срабатывать в свой тик");
+
+        wheel.advance(NOW + 90_000, fired::add);
+        assertEquals(List.of("soon", "later"), fired, "Элемент с верхнего уровня должен срабатывать");
+    }
+
+    @Test
+    void testAdvanceOverdue() {
+        var wheel = new TimingWheel<String>(1000, NOW);
+        wheel.schedule("overdue", NOW - 10_000);
+        var fired = new ArrayList<String>();
+
+        wheel.advance(NOW, fired::add);
+
+        assertEquals(List.of("overdue"), fired, "Просроченный элемент должен срабатывать сразу");
+    }
+
+    @Test
+    void testAdvanceAllLevels() {
+        var wheel = new TimingWheel<Long>(1000, NOW);
+        var deadlines = new long[]{NOW + 63_000, NOW + 64_000, NOW + 4_096_000, NOW + 262_144_000,
+                NOW + 2_678_400_000L, NOW + 20_000_000_000_000L};
+        for (var deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        var fired = new ArrayList<Long>();
+
+        for (var now = NOW; fired.size() < deadlines.length - 1; now += 60_000) {
+            var current = now;
+            wheel.advance(now, deadline -> {
+                assertTrue(deadline <= current, "Элемент не должен срабатывать раньше срока");
+                fired.add(deadline);
+            });
+        }
+
+        assertEquals(deadlines.length - 1, fired.size(), "Должны срабатывать все элементы в горизонте");
+    }
+}
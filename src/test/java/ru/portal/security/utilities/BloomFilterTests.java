@@ -0,0 +1,41 @@
+package ru.portal.security.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTests {
+
+    @Test
+    void testMightContain() {
+        var filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("token-" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("token-" + i), "Добавленный элемент должен находиться");
+        }
+    }
+
+    @Test
+    void testFalsePositiveRate() {
+        var filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("token-" + i);
+        }
+
+        var falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertAll(
+                () -> assertTrue(filter.expectedFalsePositiveRate() < 0.02,
+                        "Ожидаемая доля ложных срабатываний должна быть около заданной"),
+                () -> assertTrue(falsePositives < 300,
+                        "Ложных срабатываний должно быть около 1%")
+        );
+    }
+}
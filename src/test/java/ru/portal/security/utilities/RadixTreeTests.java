@@ -0,0 +1,41 @@
+package ru.portal.security.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixTreeTests {
+
+    @Test
+    void testAddAndContains() {
+        var tree = new RadixTree();
+
+        assertAll(
+                () -> assertTrue(tree.add("sparus"), "Новая строка должна добавляться"),
+                () -> assertTrue(tree.add("spa"), "Префикс существующей строки должен добавляться"),
+                () -> assertTrue(tree.add("spark"), "Строка с общим префиксом должна добавляться"),
+                () -> assertFalse(tree.add("sparus"), "Повторная строка не должна добавляться"),
+                () -> assertTrue(tree.contains("spa"), "Префикс должен находиться после разделения ребра"),
+                () -> assertTrue(tree.contains("spark"), "Строка должна находиться"),
+                () -> assertFalse(tree.contains("spar"), "Промежуточный узел не является строкой"),
+                () -> assertFalse(tree.contains("sparuss"), "Продолжение строки не должно находиться"),
+                () -> assertEquals(3, tree.size(), "В дереве должно быть три строки")
+        );
+    }
+
+    @Test
+    void testCountWithPrefix() {
+        var tree = new RadixTree();
+        for (var key : new String[]{"sparus", "sparus1", "sparus2", "spark", "user"}) {
+            tree.add(key);
+        }
+
+        assertAll(
+                () -> assertEquals(3, tree.countWithPrefix("sparus"), "Префикс должен учитывать саму строку"),
+                () -> assertEquals(4, tree.countWithPrefix("spa"), "Префикс внутри ребра должен считаться"),
+                () -> assertEquals(5, tree.countWithPrefix(""), "Пустой префикс должен считать все строки"),
+                () -> assertEquals(0, tree.countWithPrefix("spx"), "Несовпадающий префикс не должен считаться"),
+                () -> assertEquals(0, tree.countWithPrefix("sparus12"), "Префикс длиннее строк не должен считаться")
+        );
+    }
+}
@@ -2,8 +2,10 @@ package ru.portal.security.utilities;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
 import java.util.regex.Pattern;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RandomTokenTests {
@@ -17,4 +19,13 @@ class RandomTokenTests {
                 "Токен должен соответствовать регулярному выражению");
     }
 
+    @Test
+    void testGetTokenUnique() {
+        var tokens = new HashSet<String>();
+        for (int i = 0; i < 10000; i++) {
+            tokens.add(RandomToken.getToken());
+        }
+        assertEquals(10000, tokens.size(), "Токены не должны повторяться");
+    }
+
 }
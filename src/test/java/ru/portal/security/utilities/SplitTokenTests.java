@@ -0,0 +1,42 @@
+package ru.portal.security.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SplitTokenTests {
+
+    private static final String VERIFIER = "cbbnb42fe1f4fgd697143da246a4132b";
+
+    @Test
+    void testFormatAndParse() {
+        var token = SplitToken.format(0x1234abcdL, VERIFIER);
+        var split = SplitToken.parse(token).orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertEquals("000000001234abcd" + VERIFIER, token, "Селектор должен дополняться нулями"),
+                () -> assertEquals(0x1234abcdL, split.getSelector(), "Селектор должен совпадать"),
+                () -> assertEquals(VERIFIER, split.getVerifier(), "Верификатор должен совпадать")
+        );
+    }
+
+    @Test
+    void testParseWrongFormat() {
+        assertAll(
+                () -> assertTrue(SplitToken.parse(VERIFIER).isEmpty(), "Токен без селектора не должен разбираться"),
+                () -> assertTrue(SplitToken.parse("zzzzzzzzzzzzzzzz" + VERIFIER).isEmpty(),
+                        "Селектор должен быть шестнадцатеричным"),
+                () -> assertTrue(SplitToken.parse("").isEmpty(), "Пустой токен не должен разбираться")
+        );
+    }
+
+    @Test
+    void testMatches() {
+        var split = SplitToken.parse(SplitToken.format(1L, VERIFIER)).orElseThrow(IllegalArgumentException::new);
+
+        assertAll(
+                () -> assertTrue(split.matches(TokenDigest.sha256(VERIFIER)), "Верификатор должен подходить"),
+                () -> assertFalse(split.matches(TokenDigest.sha256("other")), "Чужой хэш не должен подходить")
+        );
+    }
+}
@@ -0,0 +1,69 @@
+package ru.portal.security.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testTryConsumeCapacity() {
+        var bucket = new TokenBucket(3, 1, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryConsume(0), "Полное ведро должно выдавать токены");
+        }
+
+        assertEquals(SECOND, bucket.tryConsume(0), "Пустое ведро должно сообщать время ожидания");
+    }
+
+    @Test
+    void testTryConsumeRefill() {
+        var bucket = new TokenBucket(1, 2, 0);
+
+        assertEquals(0, bucket.tryConsume(0), "Первый токен должен выдаваться");
+        assertTrue(bucket.tryConsume(SECOND / 4) > 0, "Токен не должен появиться раньше времени");
+        assertEquals(0, bucket.tryConsume(SECOND / 2), "Токен должен появиться через полсекунды");
+    }
+
+    @Test
+    void testTryConsumeConcurrent() throws Exception {
+        var bucket = new TokenBucket(100, 1, 0);
+        var pool = Executors.newFixedThreadPool(8);
+        var start = new CountDownLatch(1);
+        var consumed = new AtomicInteger();
+
+        for (int i = 0; i < 8; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 50; j++) {
+                        if (bucket.tryConsume(0) == 0) {
+                            consumed.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS), "Потоки должны завершиться");
+
+        assertEquals(100, consumed.get(), "Выдано должно быть ровно столько токенов, сколько вмещает ведро");
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, 0),
+                "Пустое ведро недопустимо");
+    }
+}
@@ -1 +1,7 @@
-CREATE SCHEMA IF NOT EXISTS portal_schema;
\ No newline at end of file
+CREATE SCHEMA IF NOT EXISTS portal_schema;
+
+-- Скрипты тестов вставляют строки с идентификаторами 1-4, сгенерированные идентификаторы начинаются выше
+ALTER SEQUENCE IF EXISTS portal_schema.users_user_id_seq RESTART WITH 1001;
+ALTER SEQUENCE IF EXISTS portal_schema.attempts_login_attempt_id_seq RESTART WITH 1001;
+ALTER SEQUENCE IF EXISTS portal_schema.refresh_tokens_token_id_seq RESTART WITH 1001;
+ALTER SEQUENCE IF EXISTS portal_schema.confirmation_tokens_confirmation_id_seq RESTART WITH 1001;
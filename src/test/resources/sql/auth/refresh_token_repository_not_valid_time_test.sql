@@ -1,3 +1,3 @@
-INSERT INTO portal_schema.refresh_tokens (token_id, token, lifetime, user_id, create_at, update_at)
-VALUES (1, 'cbbnb42fe1f4fgd697143da246a4132b', 10000, 1,
+INSERT INTO portal_schema.refresh_tokens (token_id, token_hash, lifetime, user_id, create_at, update_at)
+VALUES (1, X'8e1d96631e2808b38ac0d841db6d44dc403c4f082207185042fff8f119879c38', 10000, 1,
         '2022-07-14 11:16:07.456196 +00:00', '2022-07-15 12:21:11.675550 +00:00');
\ No newline at end of file
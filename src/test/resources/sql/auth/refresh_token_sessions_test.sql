@@ -0,0 +1,7 @@
+INSERT INTO portal_schema.refresh_tokens (token_id, token_hash, lifetime, user_id, create_at, update_at)
+VALUES (2, X'3f5512074c1e1f9872deb7f58c95c52be7a44b6bbe46dfc45ac2107f27a85a90', 4088238925000, 1,
+        '2022-07-14 11:16:07.456196 +00:00', '2022-07-15 12:21:11.675550 +00:00'),
+       (3, X'ce7ac311c9358801c1c77670d6793fb8361fd8dde2b5e6f1968736b2e3205566', 4088238926000, 1,
+        '2022-07-14 11:16:07.456196 +00:00', '2022-07-15 12:21:11.675550 +00:00'),
+       (4, X'80c53d4a33452ad71774fe3d657d01d9ed6f884df92c8c5d53001aa7093b517f', 4088238927000, 1,
+        '2022-07-14 11:16:07.456196 +00:00', '2022-07-15 12:21:11.675550 +00:00');
\ No newline at end of file